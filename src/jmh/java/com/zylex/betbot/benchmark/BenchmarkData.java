@@ -0,0 +1,194 @@
+package com.zylex.betbot.benchmark;
+
+import com.zylex.betbot.model.bet.BetCoefficient;
+import com.zylex.betbot.model.game.Game;
+import com.zylex.betbot.model.game.GameInfo;
+import com.zylex.betbot.model.game.GameResult;
+import com.zylex.betbot.model.game.League;
+import com.zylex.betbot.model.rule.Rule;
+import com.zylex.betbot.model.rule.RuleCondition;
+import com.zylex.betbot.service.archive.GameArchive;
+import com.zylex.betbot.service.corpus.PageCorpus;
+import com.zylex.betbot.service.corpus.PageType;
+import com.zylex.betbot.service.repository.LeagueRepository;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Synthetic and recorded inputs for benchmarks. Synthetic data is generated with fixed seed.
+ */
+public final class BenchmarkData {
+
+    private static final long SEED = 42;
+
+    private static final String[] OPERATORS = {"MORE", "MORE_EVEN", "LESS", "LESS_EVEN"};
+
+    private static final BetCoefficient[] COEFFICIENTS = {BetCoefficient.FIRST_WIN, BetCoefficient.TIE,
+            BetCoefficient.SECOND_WIN, BetCoefficient.ONE_X, BetCoefficient.X_TWO};
+
+    private static final GameResult[] RESULTS = {GameResult.FIRST_WIN, GameResult.TIE, GameResult.SECOND_WIN};
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Generates league page in the site markup, with games for today and tomorrow.
+     * @param leagueLink - link of the league.
+     * @param gamesNumber - number of games on the page.
+     * @return - html of the page.
+     */
+    public static String leaguePage(String leagueLink, int gamesNumber) {
+        Random random = new Random(SEED);
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd.MM");
+        StringBuilder page = new StringBuilder("<html><head><title>Football</title>")
+                .append("<script>var line = '<div class=\"c-events__item_game\">';</script></head><body>")
+                .append("<div class=\"c-events\"><div class=\"c-events__item c-events__item_head\">")
+                .append("<span class=\"c-events__liga\">Synthetic League</span></div>");
+        for (int i = 0; i < gamesNumber; i++) {
+            LocalDate day = LocalDate.now().plusDays(i * 2 / Math.max(1, gamesNumber));
+            page.append("<div class=\"c-events__item c-events__item_game\"><div class=\"c-events-scoreboard\">")
+                    .append("<div class=\"c-events__time\"><span>").append(formatter.format(day))
+                    .append(String.format(" %02d:%02d", 12 + i % 10, i % 4 * 15)).append("</span></div>")
+                    .append("<a class=\"c-events__name\" href=\"line/Football/").append(leagueLink).append(i)
+                    .append("/\"><span class=\"c-events__teams\">")
+                    .append("<span class=\"c-events__team\">Team ").append(i).append(" Home</span>")
+                    .append("<span class=\"c-events__team\">Team ").append(i).append(" Away</span>")
+                    .append("</span></a></div><div class=\"c-bets\">");
+            for (int j = 0; j < 6; j++) {
+                page.append("<a class=\"c-bets__bet c-bets__bet_coef\">")
+                        .append(String.format("%.2f", 1.05 + random.nextDouble() * 6).replace(',', '.'))
+                        .append("</a>");
+            }
+            page.append("</div></div>\n");
+        }
+        return page.append("</div></body></html>").toString();
+    }
+
+    /**
+     * Reads league pages from the recorded corpus.
+     * @param directory - corpus directory.
+     * @return - map of html by league key.
+     */
+    public static Map<String, String> recordedLeaguePages(String directory) throws IOException {
+        PageCorpus pageCorpus = new PageCorpus("replay", directory);
+        Map<String, String> pages = new LinkedHashMap<>();
+        for (String key : pageCorpus.keys(PageType.LEAGUE)) {
+            pages.put(key, pageCorpus.load(PageType.LEAGUE, key));
+        }
+        if (pages.isEmpty()) {
+            throw new IllegalStateException("No recorded league pages in " + directory);
+        }
+        return pages;
+    }
+
+    /**
+     * Generates games with random coefficients and results.
+     * @param gamesNumber - number of games.
+     * @param leaguesNumber - number of distinct leagues.
+     * @return - list of games.
+     */
+    public static List<Game> games(int gamesNumber, int leaguesNumber) {
+        Random random = new Random(SEED);
+        List<League> leagues = new ArrayList<>(leaguesNumber);
+        for (int i = 0; i < leaguesNumber; i++) {
+            leagues.add(new League("League " + i, i + "-league-" + i + "/"));
+        }
+        LocalDateTime start = LocalDateTime.now().minusDays(90);
+        List<Game> games = new ArrayList<>(gamesNumber);
+        for (int i = 0; i < gamesNumber; i++) {
+            double firstWin = 1.05 + random.nextDouble() * 8;
+            double secondWin = 1.05 + random.nextDouble() * 8;
+            GameInfo gameInfo = new GameInfo(firstWin, 2.5 + random.nextDouble() * 3, secondWin,
+                    1 + 1 / firstWin, 1 + 1 / secondWin);
+            Game game = new Game(start.plusMinutes(i * 7L), leagues.get(random.nextInt(leaguesNumber)),
+                    "Team " + i + " Home", "Team " + i + " Away",
+                    RESULTS[random.nextInt(RESULTS.length)].toString(),
+                    "live/Football/game/" + i + "/", gameInfo);
+            game.setId(i + 1);
+            gameInfo.setGame(game);
+            games.add(game);
+        }
+        return games;
+    }
+
+    /**
+     * Generates rules with random enabled conditions.
+     * @param rulesNumber - number of rules.
+     * @param conditionsNumber - number of conditions of every rule.
+     * @return - list of rules.
+     */
+    public static List<Rule> rules(int rulesNumber, int conditionsNumber) {
+        Random random = new Random(SEED);
+        List<Rule> rules = new ArrayList<>(rulesNumber);
+        for (int i = 0; i < rulesNumber; i++) {
+            Rule rule = new Rule();
+            rule.setId(i + 1);
+            rule.setName("RULE_" + i);
+            rule.setBetCoefficient(COEFFICIENTS[random.nextInt(COEFFICIENTS.length)].toString());
+            for (int j = 0; j < conditionsNumber; j++) {
+                RuleCondition condition = new RuleCondition(
+                        COEFFICIENTS[random.nextInt(COEFFICIENTS.length)].toString(),
+                        OPERATORS[random.nextInt(OPERATORS.length)],
+                        1 + random.nextDouble() * 5);
+                condition.setId(i * conditionsNumber + j + 1);
+                condition.setEnabled(true);
+                rule.getRuleConditions().add(condition);
+            }
+            rules.add(rule);
+        }
+        return rules;
+    }
+
+    /**
+     * Writes games into a temporary game archive without assigned rules. The file is deleted on exit.
+     * @param games - list of games sorted by time.
+     * @return - game archive.
+     */
+    public static GameArchive archive(List<Game> games) throws IOException {
+        Path path = Files.createTempFile("games", ".col");
+        path.toFile().deleteOnExit();
+        try (GameArchive.Writer writer = new GameArchive.Writer(path, games.size(), Collections.emptyMap())) {
+            long[] ruleIds = new long[0];
+            for (Game game : games) {
+                GameInfo gameInfo = game.getGameInfo();
+                writer.add(game.getDateTime(), game.getLeague().getLink(), game.getFirstTeam(), game.getSecondTeam(),
+                        GameResult.valueOf(game.getResult()), gameInfo.getFirstWin(), gameInfo.getTie(),
+                        gameInfo.getSecondWin(), gameInfo.getOneX(), gameInfo.getXTwo(), ruleIds);
+            }
+            writer.finish("benchmark");
+        }
+        return GameArchive.open(path);
+    }
+
+    /**
+     * Creates league repository, which answers only the queries of the league filter cache.
+     * @param excludeLeagues - rows of rule name and excluded league link.
+     * @return - league repository.
+     */
+    public static LeagueRepository leagueRepository(List<Object[]> excludeLeagues) {
+        return (LeagueRepository) Proxy.newProxyInstance(LeagueRepository.class.getClassLoader(),
+                new Class<?>[]{LeagueRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findAllExcludeLeagues")) {
+                        return excludeLeagues;
+                    } else if (method.getName().equals("findAllSelectedLeagues")) {
+                        return Collections.emptyList();
+                    } else if (method.getName().equals("findLeagueFilterVersion")) {
+                        return 0L;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,67 @@
+package com.zylex.betbot.model.game;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.zylex.betbot.benchmark.BenchmarkData;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks serializing of game lists to json, as the rest controllers do.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class GameSerializerBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int gamesNumber;
+
+    private ObjectWriter writer;
+
+    private List<Game> games;
+
+    private final CountingOutputStream output = new CountingOutputStream();
+
+    @Setup
+    public void setup() {
+        writer = new ObjectMapper().writer();
+        games = BenchmarkData.games(gamesNumber, 200);
+    }
+
+    @Benchmark
+    public long serialize() throws IOException {
+        output.count = 0;
+        writer.writeValue(output, games);
+        return output.count;
+    }
+
+    /**
+     * Discards written bytes, only counts them.
+     */
+    private static class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
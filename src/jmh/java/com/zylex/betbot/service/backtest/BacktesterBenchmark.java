@@ -0,0 +1,61 @@
+package com.zylex.betbot.service.backtest;
+
+import com.zylex.betbot.benchmark.BenchmarkData;
+import com.zylex.betbot.model.rule.Rule;
+import com.zylex.betbot.service.archive.GameArchive;
+import com.zylex.betbot.service.archive.GameArchiveStore;
+import com.zylex.betbot.service.rule.LeagueFilterCache;
+import com.zylex.betbot.service.rule.RuleCompiler;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks scoring of many candidate rules over long game history.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BacktesterBenchmark {
+
+    @Param({"100000"})
+    private int gamesNumber;
+
+    @Param({"100", "1000", "5000"})
+    private int candidatesNumber;
+
+    @Param({"3"})
+    private int conditionsNumber;
+
+    private Backtester backtester;
+
+    private List<Rule> candidates;
+
+    @Setup
+    public void setup() throws IOException {
+        GameArchive archive = BenchmarkData.archive(BenchmarkData.games(gamesNumber, 200));
+        GameArchiveStore gameArchiveStore = new GameArchiveStore(null) {
+            @Override
+            public GameArchive getArchive() {
+                return archive;
+            }
+        };
+        backtester = new Backtester(gameArchiveStore, new RuleCompiler(),
+                new LeagueFilterCache(BenchmarkData.leagueRepository(Collections.emptyList())));
+        candidates = BenchmarkData.rules(candidatesNumber, conditionsNumber);
+        for (Rule candidate : candidates) {
+            candidate.setId(0);
+        }
+    }
+
+    @Benchmark
+    public List<BacktestResult> backtest() {
+        return backtester.backtest(candidates);
+    }
+}
@@ -0,0 +1,162 @@
+package com.zylex.betbot.service.parsing;
+
+import com.zylex.betbot.service.corpus.PageCorpus;
+import com.zylex.betbot.service.corpus.PageType;
+import com.zylex.betbot.service.statistics.ResultPageParser;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Element;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+
+/**
+ * Offline benchmark of page parsing over the recorded corpus, runs without network and database.
+ * Arguments: corpus directory, extractor name ("dom" or "streaming"), number of measured iterations.
+ * Built with the benchmark profile and run by its main method with the test classpath.
+ */
+public class CorpusBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 3;
+
+    private final PageCorpus pageCorpus;
+
+    private final GameExtractor gameExtractor;
+
+    private final ResultPageParser resultPageParser = new ResultPageParser();
+
+    private final com.sun.management.ThreadMXBean threadBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private CorpusBenchmark(String directory, String extractorName) {
+        this.pageCorpus = new PageCorpus("replay", directory);
+        this.gameExtractor = GameExtractor.of(extractorName);
+    }
+
+    public static void main(String[] args) throws IOException {
+        String directory = args.length > 0 ? args[0] : "corpus";
+        String extractorName = args.length > 1 ? args[1] : "dom";
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        new CorpusBenchmark(directory, extractorName).run(iterations);
+    }
+
+    private void run(int iterations) throws IOException {
+        Map<String, String> leaguePages = loadPages(PageType.LEAGUE);
+        Map<String, String> menuPages = loadPages(PageType.MENU);
+        Map<String, String> resultsPages = loadPages(PageType.RESULTS);
+        if (leaguePages.isEmpty() && menuPages.isEmpty() && resultsPages.isEmpty()) {
+            System.out.println("Corpus is empty, capture it with corpus.mode=capture first.");
+            return;
+        }
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            measureLeagues(leaguePages, new Measurement());
+            measureMenu(menuPages, new Measurement());
+            measureResults(resultsPages, new Measurement());
+        }
+        Measurement leagues = new Measurement();
+        Measurement menu = new Measurement();
+        Measurement results = new Measurement();
+        for (int i = 0; i < iterations; i++) {
+            measureLeagues(leaguePages, leagues);
+            measureMenu(menuPages, menu);
+            measureResults(resultsPages, results);
+        }
+        System.out.printf("Extractor: %s, iterations: %d%n", gameExtractor.getClass().getSimpleName(), iterations);
+        leagues.print("League pages", "games");
+        menu.print("Menu pages", "leagues");
+        results.print("Results pages", "games");
+        leagues.printPerPage();
+    }
+
+    private Map<String, String> loadPages(PageType type) throws IOException {
+        Map<String, String> pages = new LinkedHashMap<>();
+        for (String key : pageCorpus.keys(type)) {
+            pages.put(key, pageCorpus.load(type, key));
+        }
+        return pages;
+    }
+
+    private void measureLeagues(Map<String, String> pages, Measurement measurement) {
+        for (Map.Entry<String, String> page : pages.entrySet()) {
+            long startBytes = allocatedBytes();
+            long startTime = System.nanoTime();
+            int games = gameExtractor.extract(page.getKey(), page.getValue()).size();
+            measurement.add(page.getKey(), System.nanoTime() - startTime, allocatedBytes() - startBytes, games);
+        }
+    }
+
+    private void measureMenu(Map<String, String> pages, Measurement measurement) {
+        for (Map.Entry<String, String> page : pages.entrySet()) {
+            long startBytes = allocatedBytes();
+            long startTime = System.nanoTime();
+            int leagues = LeagueLinksParser.parseLeagueLinks(Jsoup.parse(page.getValue())).size();
+            measurement.add(page.getKey(), System.nanoTime() - startTime, allocatedBytes() - startBytes, leagues);
+        }
+    }
+
+    private void measureResults(Map<String, String> pages, Measurement measurement) {
+        for (Map.Entry<String, String> page : pages.entrySet()) {
+            long startBytes = allocatedBytes();
+            long startTime = System.nanoTime();
+            int games = 0;
+            for (Element gameElement : Jsoup.parse(page.getValue()).select("div.c-table__row")) {
+                if (resultPageParser.findTeams(gameElement).length == 0) continue;
+                if (resultPageParser.findResult(gameElement) != null) games++;
+            }
+            measurement.add(page.getKey(), System.nanoTime() - startTime, allocatedBytes() - startBytes, games);
+        }
+    }
+
+    private long allocatedBytes() {
+        return threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Accumulated timings of one page type.
+     */
+    private static class Measurement {
+
+        private final Map<String, List<Long>> pageNanos = new TreeMap<>();
+
+        private long totalNanos;
+
+        private long totalBytes;
+
+        private long pages;
+
+        private long items;
+
+        void add(String key, long nanos, long bytes, int itemCount) {
+            pageNanos.computeIfAbsent(key, k -> new ArrayList<>()).add(nanos);
+            totalNanos += nanos;
+            totalBytes += bytes;
+            pages++;
+            items += itemCount;
+        }
+
+        void print(String title, String itemName) {
+            if (pages == 0) return;
+            double seconds = totalNanos / 1e9;
+            List<Long> all = new ArrayList<>();
+            pageNanos.values().forEach(all::addAll);
+            System.out.printf("%s: %d, %.1f pages/sec, %.1f %s/sec, %.1f MB/sec allocated, p50 %.2f ms, p99 %.2f ms%n",
+                    title, pageNanos.size(),
+                    pages / seconds, items / seconds, itemName, totalBytes / seconds / (1024 * 1024),
+                    percentile(all, 0.5), percentile(all, 0.99));
+        }
+
+        void printPerPage() {
+            for (Map.Entry<String, List<Long>> page : pageNanos.entrySet()) {
+                System.out.printf("  %s: p50 %.2f ms, p99 %.2f ms%n",
+                        page.getKey(), percentile(page.getValue(), 0.5), percentile(page.getValue(), 0.99));
+            }
+        }
+
+        private static double percentile(List<Long> nanos, double quantile) {
+            List<Long> sorted = new ArrayList<>(nanos);
+            Collections.sort(sorted);
+            int index = (int) Math.ceil(quantile * sorted.size()) - 1;
+            return sorted.get(Math.max(0, index)) / 1e6;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.zylex.betbot.service.parsing;
+
+import com.zylex.betbot.benchmark.BenchmarkData;
+import com.zylex.betbot.model.game.Game;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks extraction of games from league pages.
+ * Recorded input is read from the corpus directory, given by -Dcorpus.dir.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GameExtractorBenchmark {
+
+    @Param({"dom", "streaming"})
+    private String extractor;
+
+    @Param({"synthetic"})
+    private String input;
+
+    @Param({"50"})
+    private int gamesNumber;
+
+    private GameExtractor gameExtractor;
+
+    private final List<String> leagueLinks = new ArrayList<>();
+
+    private final List<String> bodies = new ArrayList<>();
+
+    private String time;
+
+    @Setup
+    public void setup() throws IOException {
+        gameExtractor = GameExtractor.of(extractor);
+        if ("recorded".equals(input)) {
+            Map<String, String> pages = BenchmarkData.recordedLeaguePages(System.getProperty("corpus.dir", "corpus"));
+            leagueLinks.addAll(pages.keySet());
+            bodies.addAll(pages.values());
+        } else {
+            leagueLinks.add("118587-UEFA-Champions-League/");
+            bodies.add(BenchmarkData.leaguePage("118587-UEFA-Champions-League/", gamesNumber));
+        }
+        time = DateTimeFormatter.ofPattern("dd.MM").format(LocalDate.now()) + " 21:45";
+    }
+
+    @Benchmark
+    public void extract(Blackhole blackhole) {
+        for (int i = 0; i < bodies.size(); i++) {
+            List<Game> games = gameExtractor.extract(leagueLinks.get(i), bodies.get(i));
+            blackhole.consume(games);
+        }
+    }
+
+    @Benchmark
+    public LocalDateTime processDate() {
+        return gameExtractor.processDate(time);
+    }
+
+    @Benchmark
+    public double stringToDouble() {
+        return gameExtractor.stringToDouble("2.375");
+    }
+}
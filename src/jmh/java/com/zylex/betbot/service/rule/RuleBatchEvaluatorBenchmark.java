@@ -0,0 +1,70 @@
+package com.zylex.betbot.service.rule;
+
+import com.zylex.betbot.benchmark.BenchmarkData;
+import com.zylex.betbot.model.game.Game;
+import com.zylex.betbot.model.rule.Rule;
+import com.zylex.betbot.service.repository.LeagueRepository;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks batch evaluation of many rules with many conditions over games.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RuleBatchEvaluatorBenchmark {
+
+    @Param({"1000", "10000"})
+    private int gamesNumber;
+
+    @Param({"10", "100", "500"})
+    private int rulesNumber;
+
+    @Param({"5"})
+    private int conditionsNumber;
+
+    private RuleBatchEvaluator ruleBatchEvaluator;
+
+    private List<Game> games;
+
+    private List<Rule> rules;
+
+    @Setup
+    public void setup() {
+        games = BenchmarkData.games(gamesNumber, 200);
+        rules = BenchmarkData.rules(rulesNumber, conditionsNumber);
+        ruleBatchEvaluator = new RuleBatchEvaluator(new LeagueFilterCache(stubLeagueRepository(rules)), new RuleCompiler());
+    }
+
+    @Setup(Level.Invocation)
+    public void clearRules() {
+        for (Game game : games) {
+            game.getRules().clear();
+        }
+    }
+
+    @Benchmark
+    public void evaluate(Blackhole blackhole) {
+        RuleMatches matches = ruleBatchEvaluator.evaluate(games, rules);
+        matches.assignRules();
+        blackhole.consume(matches);
+    }
+
+    private static LeagueRepository stubLeagueRepository(List<Rule> rules) {
+        List<Object[]> excludeLeagues = new ArrayList<>();
+        for (Rule rule : rules) {
+            for (int i = 0; i < 20; i++) {
+                excludeLeagues.add(new Object[]{rule.getName(), i + "-league-" + i + "/"});
+            }
+        }
+        return BenchmarkData.leagueRepository(excludeLeagues);
+    }
+}
@@ -0,0 +1,59 @@
+package com.zylex.betbot.service.statistics;
+
+import com.zylex.betbot.benchmark.BenchmarkData;
+import com.zylex.betbot.model.bet.BetCoefficient;
+import com.zylex.betbot.model.game.Game;
+import com.zylex.betbot.model.game.GameResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks computing of bet profit for games in one pass of the statistics accumulator,
+ * and in two halves merged together.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BetProfitBenchmark {
+
+    @Param({"10000", "100000"})
+    private int gamesNumber;
+
+    private List<Game> games;
+
+    private GameResult[] results;
+
+    @Setup
+    public void setup() {
+        games = BenchmarkData.games(gamesNumber, 200);
+        results = new GameResult[games.size()];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = GameResult.valueOf(games.get(i).getResult());
+        }
+    }
+
+    @Benchmark
+    public Map<BetCoefficient, Double> findBetProfit() {
+        return accumulate(0, games.size()).getProfits();
+    }
+
+    @Benchmark
+    public Map<BetCoefficient, Double> findMergedBetProfit() {
+        int middle = games.size() / 2;
+        return accumulate(0, middle).merge(accumulate(middle, games.size())).getProfits();
+    }
+
+    private StatisticsAccumulator accumulate(int from, int to) {
+        StatisticsAccumulator statistics = new StatisticsAccumulator();
+        for (int i = from; i < to; i++) {
+            statistics.add(results[i], games.get(i).getGameInfo());
+        }
+        return statistics;
+    }
+}
@@ -3,6 +3,7 @@ package com.zylex.betbot;
 import com.zylex.betbot.controller.logger.ConsoleLogger;
 
 import com.zylex.betbot.service.bet.BetProcessor;
+import com.zylex.betbot.service.daemon.PollingDaemon;
 import com.zylex.betbot.service.rule.RuleProcessor;
 import com.zylex.betbot.service.statistics.ResultScanner;
 import com.zylex.betbot.service.statistics.StatisticsAnalyser;
@@ -13,20 +14,53 @@ import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.Arrays;
 
 @ComponentScan
 @EnableJpaRepositories
 public class BetBotApplication {
 
-    public static final LocalDateTime BOT_START_TIME = LocalDateTime.now();
+    private static volatile LocalDateTime startTime = LocalDateTime.now();
 
     public static final LocalTime BET_START_TIME = LocalTime.of(22, 0);
 
     public static final boolean HEADLESS_DRIVER = false;
 
+    /**
+     * @return - start time of the current run, or of the current cycle in daemon mode.
+     */
+    public static LocalDateTime botStartTime() {
+        return startTime;
+    }
+
+    /**
+     * @return - time, since which games are bet in the current run.
+     */
+    public static LocalDateTime betStartDateTime() {
+        return LocalDateTime.of(startTime.toLocalDate().minusDays(1), BET_START_TIME);
+    }
+
+    /**
+     * Moves start time to now, called at the beginning of every daemon cycle.
+     */
+    public static void refreshBotStartTime() {
+        startTime = LocalDateTime.now();
+    }
+
+    /**
+     * Runs the pipeline once, or polls the site until stopped,
+     * if started with "--daemon" argument or daemon.enabled property.
+     * @param args - command line arguments.
+     */
     public static void main(String[] args) {
         ConsoleLogger.startMessage();
         try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(BetBotApplication.class)) {
+            PollingDaemon pollingDaemon = context.getBean(PollingDaemon.class);
+            if (Arrays.asList(args).contains("--daemon") || pollingDaemon.isEnabled()) {
+                context.registerShutdownHook();
+                pollingDaemon.run();
+                return;
+            }
             context.getBean(RuleProcessor.class).process();
             context.getBean(BetProcessor.class).process();
             context.getBean(ResultScanner.class).scan(LocalDate.now().minusDays(3));
@@ -26,6 +26,7 @@ public class BetConsoleLogger extends ConsoleLogger{
      */
     public synchronized void startLogMessage(LogType type) {
         if (type == LogType.BET) {
+            gameIndex.set(0);
             writeInLine("\nMaking bets:");
             LOG.info("Making bets:");
         } else if (type == LogType.LOG_IN) {
@@ -12,8 +12,6 @@ import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.concurrent.TimeUnit;
 
-import static com.zylex.betbot.BetBotApplication.BOT_START_TIME;
-
 /**
  * Base class for loggers.
  */
@@ -22,12 +20,15 @@ public abstract class ConsoleLogger {
 
     private final static Logger LOG = LoggerFactory.getLogger(BetBotApplication.class);
 
+    private static LocalDateTime startTime = LocalDateTime.now();
+
     /**
      * Writes start message
      */
     public static void startMessage() {
+        startTime = LocalDateTime.now();
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("HH:mm dd.MM.yyyy");
-        String startMessage = String.format("BetBot started at %s", BOT_START_TIME.format(formatter));
+        String startMessage = String.format("BetBot started at %s", startTime.format(formatter));
         writeInLine(startMessage);
         LOG.info(startMessage);
         writeLineSeparator('~');
@@ -69,7 +70,7 @@ public abstract class ConsoleLogger {
 
     public synchronized static void endMessage() {
         writeLineSeparator('~');
-        String output = "Bot work completed in " + computeTime(BOT_START_TIME);
+        String output = "Bot work completed in " + computeTime(startTime);
         writeInLine("\n" + output);
         LOG.info(output);
     }
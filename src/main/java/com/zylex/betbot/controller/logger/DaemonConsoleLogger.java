@@ -0,0 +1,73 @@
+package com.zylex.betbot.controller.logger;
+
+import com.zylex.betbot.service.daemon.PollingDaemon;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Log PollingDaemon.
+ */
+public class DaemonConsoleLogger extends ConsoleLogger {
+
+    private final static Logger LOG = LoggerFactory.getLogger(PollingDaemon.class);
+
+    private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("HH:mm:ss dd.MM.yyyy");
+
+    /**
+     * Log start of the cycle.
+     * @param cycle - number of the cycle.
+     * @param startTime - start time of the cycle.
+     */
+    public void startCycle(long cycle, LocalDateTime startTime) {
+        String output = String.format("Cycle %d started at %s", cycle, startTime.format(formatter));
+        writeInLine("\n" + output);
+        writeLineSeparator('~');
+        LOG.info(output);
+    }
+
+    /**
+     * Log end of the cycle.
+     * @param cycle - number of the cycle.
+     * @param startTime - start time of the cycle.
+     * @param changedGames - number of new or changed games.
+     * @param nextTime - start time of the next cycle.
+     */
+    public void endCycle(long cycle, LocalDateTime startTime, int changedGames, LocalDateTime nextTime) {
+        String output = String.format("Cycle %d completed in %s, new or changed games: %d, next cycle at %s",
+                cycle, computeTime(startTime), changedGames, nextTime.format(formatter));
+        writeInLine("\n" + output);
+        writeLineSeparator('~');
+        LOG.info(output);
+    }
+
+    /**
+     * Log failed cycle.
+     * @param cycle - number of the cycle.
+     * @param cause - cause of the failure.
+     */
+    public void cycleFailed(long cycle, Throwable cause) {
+        writeErrorMessage(String.format("\nCycle %d failed: %s", cycle, cause.getMessage()), cause);
+    }
+
+    /**
+     * Log stop, which did not wait for the current cycle.
+     * @param timeoutSeconds - seconds waited for the cycle.
+     */
+    public void stopTimedOut(long timeoutSeconds) {
+        String output = String.format("Polling cycle did not stop in %d seconds.", timeoutSeconds);
+        writeInLine("\n" + output);
+        LOG.warn(output);
+    }
+
+    /**
+     * Log stop of the daemon.
+     */
+    public void stopped() {
+        String output = "Polling stopped.";
+        writeInLine("\n" + output);
+        LOG.info(output);
+    }
+}
@@ -1,6 +1,9 @@
 package com.zylex.betbot.controller.logger;
 
+import com.zylex.betbot.service.parsing.AdaptiveConcurrencyLimiter;
+import com.zylex.betbot.service.parsing.LeagueParseStatus;
 import com.zylex.betbot.service.parsing.ParseProcessor;
+import com.zylex.betbot.service.parsing.ParseResult;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,6 +33,7 @@ public class ParsingConsoleLogger extends ConsoleLogger {
             LOG.info("Finding leagues started.");
         } else if (type == LogType.LEAGUES) {
             totalLeagues = arg;
+            processedLeagues.set(0);
             writeInLine(String.format("\nParsing leagues: 0/%d (0.0%%)", arg));
         }
     }
@@ -43,6 +47,14 @@ public class ParsingConsoleLogger extends ConsoleLogger {
         LOG.info(output);
     }
 
+    /**
+     * Log failed background refresh of the league catalogue.
+     * @param cause - cause of the failure.
+     */
+    public static void logCatalogueRefreshFailed(Throwable cause) {
+        LOG.warn(String.format("League catalogue is not refreshed: %s", cause));
+    }
+
     /**
      * Log count of processed games.
      */
@@ -52,9 +64,46 @@ public class ParsingConsoleLogger extends ConsoleLogger {
                 totalLeagues,
                 new DecimalFormat("#0.0").format(((double) processedLeagues.get() / (double) totalLeagues) * 100).replace(",", "."));
         writeInLine(StringUtils.repeat("\b", output.length()) + output);
-        if (processedLeagues.get() == totalLeagues) {
-            writeLineSeparator();
-            LOG.info("Parsing completed.");
+    }
+
+    /**
+     * Log end of the parse run.
+     * @param result - result of the parse run.
+     */
+    public static void logParseResult(ParseResult result) {
+        int timedOut = result.count(LeagueParseStatus.TIMED_OUT);
+        int failed = result.count(LeagueParseStatus.FAILED);
+        if (timedOut > 0 || failed > 0) {
+            String output = String.format("Timed out leagues: %d, failed leagues: %d", timedOut, failed);
+            writeInLine("\n" + output);
+            LOG.warn(output);
         }
+        writeLineSeparator();
+        LOG.info("Parsing completed.");
+    }
+
+    /**
+     * Log league, which games were not parsed.
+     * @param leagueLink - link of the league.
+     * @param cause - cause of the failure.
+     */
+    public static void logFailedLeague(String leagueLink, Throwable cause) {
+        LOG.warn(String.format("League %s is not parsed: %s", leagueLink, cause));
+    }
+
+    /**
+     * Log league, which was not parsed in time.
+     * @param leagueLink - link of the league.
+     */
+    public static void logTimedOutLeague(String leagueLink) {
+        LOG.warn(String.format("League %s is timed out", leagueLink));
+    }
+
+    /**
+     * Log state of the request limiter.
+     * @param limiter - request limiter.
+     */
+    public static void logLimiter(AdaptiveConcurrencyLimiter limiter) {
+        LOG.info(limiter.toString());
     }
 }
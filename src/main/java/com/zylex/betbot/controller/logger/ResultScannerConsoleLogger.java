@@ -31,6 +31,7 @@ public class ResultScannerConsoleLogger extends ConsoleLogger{
             LOG.info(output);
         } else if (type == LogType.GAMES) {
             totalGames = arg;
+            processedGames.set(0);
             String output = "Scanning games: 0/%d (0.0%%)";
             writeInLine(String.format(StringUtils.repeat("\b", output.length()) + output, arg));
         }
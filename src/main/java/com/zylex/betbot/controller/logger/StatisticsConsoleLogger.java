@@ -1,13 +1,11 @@
 package com.zylex.betbot.controller.logger;
 
 import com.zylex.betbot.model.bet.BetCoefficient;
-import com.zylex.betbot.model.game.Game;
 import com.zylex.betbot.model.game.GameResult;
 import com.zylex.betbot.model.rule.Rule;
+import com.zylex.betbot.service.statistics.StatisticsAccumulator;
 
 import java.time.LocalDate;
-import java.util.List;
-import java.util.Map;
 
 /**
  * Log StatisticsAnalyser.
@@ -27,19 +25,18 @@ public class StatisticsConsoleLogger extends ConsoleLogger{
     /**
      * Log formatted statistics.
      * @param rule - specified rule.
-     * @param resultGames - map of games by game results.
-     * @param betProfit - map of bet profit by coefficients.
+     * @param statistics - counters of rule games.
      */
-    public void writeRuleStatistics(Rule rule, Map<GameResult, List<Game>> resultGames, Map<BetCoefficient, Double> betProfit) {
+    public void writeRuleStatistics(Rule rule, StatisticsAccumulator statistics) {
         writeInLine(String.format("\n%5s:  %3s|%3s|%3s  %6s|%6s|%6s  %6s|%6s",
                 rule,
-                resultGames.get(GameResult.FIRST_WIN).size(),
-                resultGames.get(GameResult.TIE).size(),
-                resultGames.get(GameResult.SECOND_WIN).size(),
-                String.format("%.2f", betProfit.get(BetCoefficient.FIRST_WIN)),
-                String.format("%.2f", betProfit.get(BetCoefficient.TIE)),
-                String.format("%.2f", betProfit.get(BetCoefficient.SECOND_WIN)),
-                String.format("%.2f", betProfit.get(BetCoefficient.ONE_X)),
-                String.format("%.2f", betProfit.get(BetCoefficient.X_TWO))));
+                statistics.getResultCount(GameResult.FIRST_WIN),
+                statistics.getResultCount(GameResult.TIE),
+                statistics.getResultCount(GameResult.SECOND_WIN),
+                String.format("%.2f", statistics.getProfit(BetCoefficient.FIRST_WIN)),
+                String.format("%.2f", statistics.getProfit(BetCoefficient.TIE)),
+                String.format("%.2f", statistics.getProfit(BetCoefficient.SECOND_WIN)),
+                String.format("%.2f", statistics.getProfit(BetCoefficient.ONE_X)),
+                String.format("%.2f", statistics.getProfit(BetCoefficient.X_TWO))));
     }
 }
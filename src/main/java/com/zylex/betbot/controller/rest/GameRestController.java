@@ -1,9 +1,15 @@
 package com.zylex.betbot.controller.rest;
 
 import com.zylex.betbot.model.game.Game;
+import com.zylex.betbot.model.game.GameInfo;
+import com.zylex.betbot.service.history.OddsHistoryService;
+import com.zylex.betbot.service.parsing.LeagueHttpClient;
+import com.zylex.betbot.service.parsing.LeagueParseStatus;
+import com.zylex.betbot.service.parsing.ParseProcessor;
+import com.zylex.betbot.service.parsing.ParseResult;
 import com.zylex.betbot.service.repository.GameRepository;
-import com.zylex.betbot.service.repository.RuleRepository;
 import com.zylex.betbot.service.rule.RuleProcessor;
+import com.zylex.betbot.service.rule.RuleRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -25,15 +31,27 @@ public class GameRestController {
 
     private final RuleProcessor ruleProcessor;
 
-    private final RuleRepository ruleRepository;
+    private final RuleRegistry ruleRegistry;
+
+    private final OddsHistoryService oddsHistoryService;
+
+    private final LeagueHttpClient leagueHttpClient;
+
+    private final ParseProcessor parseProcessor;
 
     @Autowired
     public GameRestController(GameRepository gameRepository,
                               RuleProcessor ruleProcessor,
-                              RuleRepository ruleRepository) {
+                              RuleRegistry ruleRegistry,
+                              OddsHistoryService oddsHistoryService,
+                              LeagueHttpClient leagueHttpClient,
+                              ParseProcessor parseProcessor) {
         this.gameRepository = gameRepository;
         this.ruleProcessor = ruleProcessor;
-        this.ruleRepository = ruleRepository;
+        this.ruleRegistry = ruleRegistry;
+        this.oddsHistoryService = oddsHistoryService;
+        this.leagueHttpClient = leagueHttpClient;
+        this.parseProcessor = parseProcessor;
     }
 
     @GetMapping
@@ -64,8 +82,30 @@ public class GameRestController {
     public ResponseEntity<List<Game>> getParsedGames() {
         try {
             ruleProcessor.process();
-            List<Game> games = gameRepository.findByBetStartTime();
-            return new ResponseEntity<>(ruleProcessor.filterGamesByRules(games, ruleRepository.findByActivateTrue()), HttpStatus.OK);
+            return new ResponseEntity<>(ruleProcessor.filterBetGames(ruleRegistry.getRuleSet().getActiveRules()), HttpStatus.OK);
+        } catch (Exception e) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+    }
+
+    @GetMapping("/parse/limiter")
+    public ResponseEntity<Map<String, Number>> getLimiterMetrics() {
+        return new ResponseEntity<>(leagueHttpClient.getLimiter().getMetrics(), HttpStatus.OK);
+    }
+
+    @GetMapping("/parse/leagues")
+    public ResponseEntity<Map<String, LeagueParseStatus>> getLastParseStatuses() {
+        ParseResult result = parseProcessor.getLastResult();
+        if (result == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(result.getLeagueStatuses(), HttpStatus.OK);
+    }
+
+    @GetMapping("/odds")
+    public ResponseEntity<Map<LocalDateTime, GameInfo>> getLineMovement(@RequestParam(name = "link") String link) {
+        try {
+            return new ResponseEntity<>(oddsHistoryService.findLineMovement(link), HttpStatus.OK);
         } catch (Exception e) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
@@ -1,15 +1,18 @@
 package com.zylex.betbot.controller.rest;
 
 import com.zylex.betbot.model.rule.Rule;
-import com.zylex.betbot.service.repository.RuleRepository;
+import com.zylex.betbot.service.optimizer.OptimizationJob;
+import com.zylex.betbot.service.optimizer.OptimizationRequest;
+import com.zylex.betbot.service.optimizer.RuleOptimizer;
+import com.zylex.betbot.service.rule.LeagueFilterCache;
+import com.zylex.betbot.service.rule.RuleRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("rule")
@@ -19,19 +22,79 @@ public class RuleRestController {
     //Get rules
     //Create rule
 
-    private final RuleRepository ruleRepository;
+    private final LeagueFilterCache leagueFilterCache;
+
+    private final RuleOptimizer ruleOptimizer;
+
+    private final RuleRegistry ruleRegistry;
 
     @Autowired
-    public RuleRestController(RuleRepository ruleRepository) {
-        this.ruleRepository = ruleRepository;
+    public RuleRestController(LeagueFilterCache leagueFilterCache,
+                              RuleOptimizer ruleOptimizer,
+                              RuleRegistry ruleRegistry) {
+        this.leagueFilterCache = leagueFilterCache;
+        this.ruleOptimizer = ruleOptimizer;
+        this.ruleRegistry = ruleRegistry;
     }
 
     @GetMapping("/all")
     public ResponseEntity<List<Rule>> getAll() {
         try {
-            return new ResponseEntity<>(ruleRepository.findAll(), HttpStatus.OK);
+            return new ResponseEntity<>(ruleRegistry.getRuleSet().getRules(), HttpStatus.OK);
+        } catch (Exception e) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+    }
+
+    @GetMapping("/snapshot")
+    public ResponseEntity<Map<String, Object>> getRuleSnapshot() {
+        try {
+            return new ResponseEntity<>(ruleRegistry.getStatus(), HttpStatus.OK);
+        } catch (Exception e) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+    }
+
+    @PostMapping("/reload")
+    public ResponseEntity<Map<String, Object>> reloadRules() {
+        try {
+            ruleRegistry.reload();
+            leagueFilterCache.invalidate();
+            return new ResponseEntity<>(ruleRegistry.getStatus(), HttpStatus.OK);
         } catch (Exception e) {
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @GetMapping("/league-cache")
+    public ResponseEntity<Map<String, Number>> getLeagueCacheMetrics() {
+        return new ResponseEntity<>(leagueFilterCache.getMetrics(), HttpStatus.OK);
+    }
+
+    @PostMapping("/optimize")
+    public ResponseEntity<OptimizationJob> startOptimization(@RequestBody OptimizationRequest request) {
+        try {
+            return new ResponseEntity<>(ruleOptimizer.start(request), HttpStatus.ACCEPTED);
+        } catch (Exception e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @GetMapping("/optimize/{id}")
+    public ResponseEntity<OptimizationJob> getOptimization(@PathVariable("id") long id) {
+        OptimizationJob job = ruleOptimizer.findJob(id);
+        if (job == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(job, HttpStatus.OK);
+    }
+
+    @DeleteMapping("/optimize/{id}")
+    public ResponseEntity<OptimizationJob> cancelOptimization(@PathVariable("id") long id) {
+        OptimizationJob job = ruleOptimizer.cancel(id);
+        if (job == null) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
+        return new ResponseEntity<>(job, HttpStatus.OK);
     }
 }
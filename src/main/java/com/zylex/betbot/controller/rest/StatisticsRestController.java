@@ -2,31 +2,50 @@ package com.zylex.betbot.controller.rest;
 
 import com.zylex.betbot.model.bet.BetCoefficient;
 import com.zylex.betbot.model.rule.Rule;
+import com.zylex.betbot.service.archive.GameArchiveStore;
+import com.zylex.betbot.service.backtest.BacktestResult;
+import com.zylex.betbot.service.backtest.Backtester;
 import com.zylex.betbot.service.statistics.ResultScanner;
+import com.zylex.betbot.service.statistics.RuleStatistics;
 import com.zylex.betbot.service.statistics.StatisticsAnalyser;
+import com.zylex.betbot.service.statistics.StatisticsCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.Map;
 
 @RestController
 @RequestMapping("statistics")
 public class StatisticsRestController {
 
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd,MM,yyyy");
+
     private final ResultScanner resultScanner;
 
     private final StatisticsAnalyser statisticsAnalyser;
 
+    private final StatisticsCache statisticsCache;
+
+    private final Backtester backtester;
+
+    private final GameArchiveStore gameArchiveStore;
+
     @Autowired
     public StatisticsRestController(ResultScanner resultScanner,
-                                    StatisticsAnalyser statisticsAnalyser) {
+                                    StatisticsAnalyser statisticsAnalyser,
+                                    StatisticsCache statisticsCache,
+                                    Backtester backtester,
+                                    GameArchiveStore gameArchiveStore) {
         this.resultScanner = resultScanner;
         this.statisticsAnalyser = statisticsAnalyser;
+        this.statisticsCache = statisticsCache;
+        this.backtester = backtester;
+        this.gameArchiveStore = gameArchiveStore;
     }
 
     @GetMapping("/scan")
@@ -40,12 +59,78 @@ public class StatisticsRestController {
     }
 
     @GetMapping("/analyse")
-    public ResponseEntity<Map<Rule, Map<BetCoefficient, Double>>> getAnalysedStatistics() {
+    public ResponseEntity<Map<Rule, Map<BetCoefficient, Double>>> getAnalysedStatistics(
+            @RequestParam(name = "start", required = false) String startText,
+            @RequestParam(name = "end", required = false) String endText) {
+        LocalDate startDate;
+        LocalDate endDate;
         try {
-            Map<Rule, Map<BetCoefficient, Double>> ruleBetProfit = statisticsAnalyser.analyse(null, null);
+            startDate = startText == null ? null : LocalDate.parse(startText, DATE_FORMATTER);
+            endDate = endText == null ? null : LocalDate.parse(endText, DATE_FORMATTER);
+        } catch (Exception e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        try {
+            Map<Rule, Map<BetCoefficient, Double>> ruleBetProfit = statisticsCache.analyse(startDate, endDate);
             return new ResponseEntity<>(ruleBetProfit, HttpStatus.OK);
         } catch (Exception e) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
     }
+
+    @GetMapping("/analyse/cache")
+    public ResponseEntity<Map<String, Number>> getStatisticsCacheMetrics() {
+        return new ResponseEntity<>(statisticsCache.getMetrics(), HttpStatus.OK);
+    }
+
+    @GetMapping("/rules")
+    public ResponseEntity<List<RuleStatistics>> getRuleStatistics(
+            @RequestParam(name = "names", required = false) List<String> ruleNames,
+            @RequestParam(name = "start", required = false) String startText,
+            @RequestParam(name = "end", required = false) String endText) {
+        try {
+            LocalDate startDate = startText == null ? null : LocalDate.parse(startText, DATE_FORMATTER);
+            LocalDate endDate = endText == null ? null : LocalDate.parse(endText, DATE_FORMATTER);
+            return new ResponseEntity<>(statisticsAnalyser.analyseRules(ruleNames, startDate, endDate), HttpStatus.OK);
+        } catch (Exception e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @GetMapping("/archive")
+    public ResponseEntity<Map<String, Object>> getArchiveStatus() {
+        return new ResponseEntity<>(gameArchiveStore.getStatus(), HttpStatus.OK);
+    }
+
+    @PostMapping("/archive/sync")
+    public ResponseEntity<Map<String, Object>> syncArchive() {
+        try {
+            gameArchiveStore.sync();
+            return new ResponseEntity<>(gameArchiveStore.getStatus(), HttpStatus.OK);
+        } catch (Exception e) {
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @GetMapping("/rolling")
+    public ResponseEntity<Map<Rule, Map<Integer, Map<BetCoefficient, Double>>>> getRollingStatistics() {
+        try {
+            return new ResponseEntity<>(statisticsAnalyser.analyseRolling(), HttpStatus.OK);
+        } catch (Exception e) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+    }
+
+    @PostMapping("/backtest")
+    public ResponseEntity<List<BacktestResult>> backtest(@RequestBody List<Rule> candidates,
+                                                         @RequestParam(name = "start", required = false) String startText,
+                                                         @RequestParam(name = "end", required = false) String endText) {
+        try {
+            LocalDate startDate = startText == null ? null : LocalDate.parse(startText, DATE_FORMATTER);
+            LocalDate endDate = endText == null ? null : LocalDate.parse(endText, DATE_FORMATTER);
+            return new ResponseEntity<>(backtester.backtest(candidates, startDate, endDate), HttpStatus.OK);
+        } catch (Exception e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
 }
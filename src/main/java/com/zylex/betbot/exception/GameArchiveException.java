@@ -0,0 +1,12 @@
+package com.zylex.betbot.exception;
+
+public class GameArchiveException extends BetBotException {
+
+    public GameArchiveException(String message) {
+        super(message);
+    }
+
+    public GameArchiveException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,12 @@
+package com.zylex.betbot.exception;
+
+public class OptimizerException extends BetBotException {
+
+    public OptimizerException(String message) {
+        super(message);
+    }
+
+    public OptimizerException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,8 @@
+package com.zylex.betbot.exception;
+
+public class PageCorpusException extends BetBotException {
+
+    public PageCorpusException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,12 @@
+package com.zylex.betbot.exception;
+
+public class RuleCompilerException extends BetBotException {
+
+    public RuleCompilerException(String message) {
+        super(message);
+    }
+
+    public RuleCompilerException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
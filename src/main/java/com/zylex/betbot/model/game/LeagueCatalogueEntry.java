@@ -0,0 +1,74 @@
+package com.zylex.betbot.model.game;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * League link found in the site menu, with times of the first and the last menu refresh, which contained it.
+ */
+@Entity
+@Table(name = "league_catalogue")
+public class LeagueCatalogueEntry {
+
+    @Id
+    @Column(name = "league_link")
+    private String leagueLink;
+
+    @Column(name = "first_seen")
+    private LocalDateTime firstSeen;
+
+    @Column(name = "last_seen")
+    private LocalDateTime lastSeen;
+
+    public LeagueCatalogueEntry() {
+    }
+
+    public LeagueCatalogueEntry(String leagueLink, LocalDateTime firstSeen, LocalDateTime lastSeen) {
+        this.leagueLink = leagueLink;
+        this.firstSeen = firstSeen;
+        this.lastSeen = lastSeen;
+    }
+
+    public String getLeagueLink() {
+        return leagueLink;
+    }
+
+    public void setLeagueLink(String leagueLink) {
+        this.leagueLink = leagueLink;
+    }
+
+    public LocalDateTime getFirstSeen() {
+        return firstSeen;
+    }
+
+    public void setFirstSeen(LocalDateTime firstSeen) {
+        this.firstSeen = firstSeen;
+    }
+
+    public LocalDateTime getLastSeen() {
+        return lastSeen;
+    }
+
+    public void setLastSeen(LocalDateTime lastSeen) {
+        this.lastSeen = lastSeen;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        LeagueCatalogueEntry that = (LeagueCatalogueEntry) o;
+        return Objects.equals(leagueLink, that.leagueLink);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(leagueLink);
+    }
+
+    @Override
+    public String toString() {
+        return leagueLink;
+    }
+}
@@ -0,0 +1,98 @@
+package com.zylex.betbot.model.game;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Hash of the games block of a league page, taken at the last parsing.
+ */
+@Entity
+@Table(name = "league_fingerprint")
+public class LeagueFingerprint {
+
+    @Id
+    @Column(name = "league_link")
+    private String leagueLink;
+
+    @Column(name = "hash")
+    private String hash;
+
+    @Column(name = "etag")
+    private String etag;
+
+    @Column(name = "last_modified")
+    private String lastModified;
+
+    @Column(name = "date_time")
+    private LocalDateTime dateTime;
+
+    public LeagueFingerprint() {
+    }
+
+    public LeagueFingerprint(String leagueLink, String hash, String etag, String lastModified, LocalDateTime dateTime) {
+        this.leagueLink = leagueLink;
+        this.hash = hash;
+        this.etag = etag;
+        this.lastModified = lastModified;
+        this.dateTime = dateTime;
+    }
+
+    public String getLeagueLink() {
+        return leagueLink;
+    }
+
+    public void setLeagueLink(String leagueLink) {
+        this.leagueLink = leagueLink;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public void setHash(String hash) {
+        this.hash = hash;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public void setEtag(String etag) {
+        this.etag = etag;
+    }
+
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(String lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    public LocalDateTime getDateTime() {
+        return dateTime;
+    }
+
+    public void setDateTime(LocalDateTime dateTime) {
+        this.dateTime = dateTime;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        LeagueFingerprint that = (LeagueFingerprint) o;
+        return Objects.equals(leagueLink, that.leagueLink);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(leagueLink);
+    }
+
+    @Override
+    public String toString() {
+        return leagueLink + " " + hash;
+    }
+}
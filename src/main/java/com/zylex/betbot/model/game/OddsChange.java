@@ -0,0 +1,104 @@
+package com.zylex.betbot.model.game;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+
+/**
+ * Observed change of game coefficients. Stores only coefficients marked as changed,
+ * other values are taken from the previous change of the same game.
+ */
+public class OddsChange {
+
+    public static final int FIRST_WIN = 1;
+
+    public static final int TIE = 1 << 1;
+
+    public static final int SECOND_WIN = 1 << 2;
+
+    public static final int ONE_X = 1 << 3;
+
+    public static final int X_TWO = 1 << 4;
+
+    public static final int ALL = FIRST_WIN | TIE | SECOND_WIN | ONE_X | X_TWO;
+
+    private final String link;
+
+    private final LocalDateTime dateTime;
+
+    private final int changed;
+
+    private final float[] coefficients;
+
+    /**
+     * @param link - link of the game.
+     * @param dateTime - time of observation.
+     * @param changed - bit mask of changed coefficients.
+     * @param coefficients - first win, tie, second win, one x and x two coefficients.
+     */
+    public OddsChange(String link, LocalDateTime dateTime, int changed, float[] coefficients) {
+        this.link = link;
+        this.dateTime = dateTime;
+        this.changed = changed;
+        this.coefficients = coefficients;
+    }
+
+    public String getLink() {
+        return link;
+    }
+
+    public LocalDateTime getDateTime() {
+        return dateTime;
+    }
+
+    public int getChanged() {
+        return changed;
+    }
+
+    public boolean isChanged(int coefficient) {
+        return (changed & coefficient) != 0;
+    }
+
+    /**
+     * @param index - index of coefficient, from 0 for first win to 4 for x two.
+     * @return - coefficient value.
+     */
+    public float getCoefficient(int index) {
+        return coefficients[index];
+    }
+
+    /**
+     * Applies this change to the line of the game.
+     * @param line - coefficients of the previous change, updated in place.
+     */
+    public void applyTo(float[] line) {
+        for (int i = 0; i < line.length; i++) {
+            if ((changed & (1 << i)) != 0) {
+                line[i] = coefficients[i];
+            }
+        }
+    }
+
+    /**
+     * Creates game info from coefficients of the full line.
+     * @param line - coefficients of the full line.
+     * @return - game info without game.
+     */
+    public static GameInfo toGameInfo(float[] line) {
+        return new GameInfo(toDouble(line[0]), toDouble(line[1]), toDouble(line[2]), toDouble(line[3]), toDouble(line[4]));
+    }
+
+    private static double toDouble(float value) {
+        return Double.parseDouble(Float.toString(value));
+    }
+
+    @Override
+    public String toString() {
+        DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm:ss dd.MM.yyyy");
+        return String.format("%s %s %s %s",
+                DATE_TIME_FORMATTER.format(dateTime),
+                link,
+                Integer.toBinaryString(changed),
+                Arrays.toString(coefficients));
+    }
+}
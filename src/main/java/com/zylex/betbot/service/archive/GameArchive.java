@@ -0,0 +1,501 @@
+package com.zylex.betbot.service.archive;
+
+import com.zylex.betbot.exception.GameArchiveException;
+import com.zylex.betbot.model.game.GameResult;
+import com.zylex.betbot.service.rule.GameCoefficient;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Read-only columnar file of games with results, mapped into memory and sorted by game time.
+ * Every column is a separate mapped region, so scans read the page cache directly and keep nothing on heap.
+ * <p>
+ * File starts with a header, then every column takes place for capacity rows, in order: game time in epoch
+ * seconds (long), five coefficients in GameCoefficient order (float), league, first team and second team ids (int),
+ * bitmask of assigned rules (rule words of long) and result ordinal (byte). Only the first rows of every column
+ * are filled. Stamp of the data and dictionaries of league links, team names and rule names follow the columns.
+ * Ids of leagues, teams and rules are indexes in the dictionaries.
+ */
+public final class GameArchive {
+
+    private static final int MAGIC = 0x47414d45;
+
+    private static final int VERSION = 3;
+
+    private static final int HEADER_SIZE = 64;
+
+    private static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    private static final double COEFFICIENT_SCALE = 10000;
+
+    private static final int DATE_TIME = 0;
+
+    private static final int COEFFICIENTS = 1;
+
+    private static final int LEAGUE = COEFFICIENTS + GameCoefficient.COUNT;
+
+    private static final int FIRST_TEAM = LEAGUE + 1;
+
+    private static final int SECOND_TEAM = FIRST_TEAM + 1;
+
+    private static final int RULES = SECOND_TEAM + 1;
+
+    private static final int RESULT = RULES + 1;
+
+    private static final int COLUMNS = RESULT + 1;
+
+    private final int size;
+
+    private final int ruleWords;
+
+    private final LongBuffer dateTimes;
+
+    private final FloatBuffer[] coefficients = new FloatBuffer[GameCoefficient.COUNT];
+
+    private final IntBuffer leagues;
+
+    private final IntBuffer firstTeams;
+
+    private final IntBuffer secondTeams;
+
+    private final LongBuffer ruleMasks;
+
+    private final ByteBuffer results;
+
+    private final String stamp;
+
+    private final String[] leagueLinks;
+
+    private final String[] teamNames;
+
+    private final String[] ruleNames;
+
+    private volatile double[][] coefficientColumns;
+
+    private GameArchive(FileChannel channel, Path path) throws IOException {
+        ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE).order(ORDER);
+        if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+            throw new GameArchiveException("File " + path + " is not a game archive of version " + VERSION);
+        }
+        size = header.getInt();
+        int capacity = header.getInt();
+        ruleWords = header.getInt();
+        long[] offsets = columnOffsets(capacity, ruleWords);
+        dateTimes = map(channel, FileChannel.MapMode.READ_ONLY, offsets, DATE_TIME).asLongBuffer();
+        for (int column = 0; column < GameCoefficient.COUNT; column++) {
+            coefficients[column] = map(channel, FileChannel.MapMode.READ_ONLY, offsets, COEFFICIENTS + column).asFloatBuffer();
+        }
+        leagues = map(channel, FileChannel.MapMode.READ_ONLY, offsets, LEAGUE).asIntBuffer();
+        firstTeams = map(channel, FileChannel.MapMode.READ_ONLY, offsets, FIRST_TEAM).asIntBuffer();
+        secondTeams = map(channel, FileChannel.MapMode.READ_ONLY, offsets, SECOND_TEAM).asIntBuffer();
+        ruleMasks = map(channel, FileChannel.MapMode.READ_ONLY, offsets, RULES).asLongBuffer();
+        results = map(channel, FileChannel.MapMode.READ_ONLY, offsets, RESULT);
+        ByteBuffer dictionary = channel.map(FileChannel.MapMode.READ_ONLY, offsets[COLUMNS],
+                channel.size() - offsets[COLUMNS]).order(ORDER);
+        stamp = readString(dictionary);
+        leagueLinks = readStrings(dictionary);
+        teamNames = readStrings(dictionary);
+        ruleNames = readStrings(dictionary);
+    }
+
+    /**
+     * Maps the archive file. Mapping stays valid after the file is replaced.
+     * @param path - path of the archive file.
+     * @return - archive.
+     */
+    public static GameArchive open(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new GameArchive(channel, path);
+        } catch (IOException | BufferUnderflowException e) {
+            throw new GameArchiveException("Can't open game archive " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return - stamp of the data, which the archive was written for.
+     */
+    public String getStamp() {
+        return stamp;
+    }
+
+    public long getEpochSecond(int row) {
+        return dateTimes.get(row);
+    }
+
+    public LocalDateTime getDateTime(int row) {
+        return LocalDateTime.ofEpochSecond(dateTimes.get(row), 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * @param column - column of the coefficient in GameCoefficient order.
+     * @param row - index of the game.
+     * @return - coefficient, rounded back from float to its decimal value.
+     */
+    public double getCoefficient(int column, int row) {
+        return Math.round(coefficients[column].get(row) * COEFFICIENT_SCALE) / COEFFICIENT_SCALE;
+    }
+
+    /**
+     * Copies coefficients into columns on heap on the first call, for scans, which read every coefficient of a game
+     * many times. Columns are kept while the archive is in use.
+     * @return - coefficient columns in GameCoefficient order, rounded like getCoefficient, must not be modified.
+     */
+    public double[][] getCoefficientColumns() {
+        double[][] columns = coefficientColumns;
+        if (columns == null) {
+            columns = new double[GameCoefficient.COUNT][size];
+            for (int column = 0; column < GameCoefficient.COUNT; column++) {
+                for (int row = 0; row < size; row++) {
+                    columns[column][row] = getCoefficient(column, row);
+                }
+            }
+            coefficientColumns = columns;
+        }
+        return columns;
+    }
+
+    public int getLeague(int row) {
+        return leagues.get(row);
+    }
+
+    public int getFirstTeam(int row) {
+        return firstTeams.get(row);
+    }
+
+    public int getSecondTeam(int row) {
+        return secondTeams.get(row);
+    }
+
+    public byte getResultOrdinal(int row) {
+        return results.get(row);
+    }
+
+    /**
+     * @param rule - index of the rule in rule names.
+     * @param row - index of the game.
+     * @return - true if the game was assigned to the rule.
+     */
+    public boolean hasRule(int rule, int row) {
+        return (ruleMasks.get(row * ruleWords + (rule >>> 6)) & 1L << rule) != 0;
+    }
+
+    /**
+     * @return - links of leagues by league id, must not be modified.
+     */
+    public String[] getLeagueLinks() {
+        return leagueLinks;
+    }
+
+    /**
+     * @return - names of teams by team id, must not be modified.
+     */
+    public String[] getTeamNames() {
+        return teamNames;
+    }
+
+    /**
+     * @return - names of rules by rule index, must not be modified.
+     */
+    public String[] getRuleNames() {
+        return ruleNames;
+    }
+
+    /**
+     * @param name - name of the rule.
+     * @return - index of the rule in rule names, or -1 if the rule was not in database when the archive was written.
+     */
+    public int findRule(String name) {
+        for (int rule = 0; rule < ruleNames.length; rule++) {
+            if (ruleNames[rule].equals(name)) {
+                return rule;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param date - date, may be null.
+     * @return - index of the first game played on the date or later, or 0 if date is null.
+     */
+    public int fromIndex(LocalDate date) {
+        return date == null ? 0 : lowerBound(date.atStartOfDay().toEpochSecond(ZoneOffset.UTC));
+    }
+
+    /**
+     * @param date - date, may be null.
+     * @return - index after the last game played on the date or before, or size if date is null.
+     */
+    public int toIndex(LocalDate date) {
+        return date == null ? size : lowerBound(date.plusDays(1).atStartOfDay().toEpochSecond(ZoneOffset.UTC));
+    }
+
+    private int lowerBound(long epochSecond) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (dateTimes.get(middle) < epochSecond) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static long[] columnOffsets(int capacity, int ruleWords) {
+        long[] offsets = new long[COLUMNS + 1];
+        long offset = HEADER_SIZE;
+        for (int column = 0; column < COLUMNS; column++) {
+            offsets[column] = offset;
+            offset += align((long) capacity * columnWidth(column, ruleWords));
+        }
+        offsets[COLUMNS] = offset;
+        return offsets;
+    }
+
+    private static int columnWidth(int column, int ruleWords) {
+        if (column == DATE_TIME) return Long.BYTES;
+        if (column == RULES) return Long.BYTES * ruleWords;
+        if (column == RESULT) return 1;
+        return Integer.BYTES;
+    }
+
+    private static long align(long length) {
+        return (length + 7) & ~7L;
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, FileChannel.MapMode mode, long[] offsets, int column)
+            throws IOException {
+        long length = offsets[column + 1] - offsets[column];
+        if (length > Integer.MAX_VALUE) {
+            throw new GameArchiveException("Column of game archive is larger than 2 GB.");
+        }
+        MappedByteBuffer buffer = channel.map(mode, offsets[column], length);
+        buffer.order(ORDER);
+        return buffer;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String[] readStrings(ByteBuffer buffer) {
+        String[] strings = new String[buffer.getInt()];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = readString(buffer);
+        }
+        return strings;
+    }
+
+    /**
+     * Writes games into a new archive file for the known number of games.
+     * Games must be added in order of game time, games beyond the capacity are not written.
+     */
+    public static class Writer implements Closeable {
+
+        private final FileChannel channel;
+
+        private final int capacity;
+
+        private final int ruleWords;
+
+        private final long[] offsets;
+
+        private final MappedByteBuffer[] mappedColumns = new MappedByteBuffer[COLUMNS];
+
+        private final LongBuffer dateTimes;
+
+        private final FloatBuffer[] coefficients = new FloatBuffer[GameCoefficient.COUNT];
+
+        private final IntBuffer leagues;
+
+        private final IntBuffer firstTeams;
+
+        private final IntBuffer secondTeams;
+
+        private final LongBuffer ruleMasks;
+
+        private final ByteBuffer results;
+
+        private final Map<String, Integer> leagueIds = new LinkedHashMap<>();
+
+        private final Map<String, Integer> teamIds = new LinkedHashMap<>();
+
+        private final Map<Long, Integer> ruleIndexes = new HashMap<>();
+
+        private final List<String> ruleNames;
+
+        private final long[] ruleMask;
+
+        private int size;
+
+        /**
+         * @param path - path of the new file.
+         * @param capacity - maximal number of games.
+         * @param rules - names of rules by rule id, in order of rule indexes.
+         */
+        public Writer(Path path, int capacity, Map<Long, String> rules) {
+            this.capacity = capacity;
+            this.ruleWords = Math.max(1, (rules.size() + 63) >>> 6);
+            this.offsets = columnOffsets(capacity, ruleWords);
+            this.ruleNames = new ArrayList<>(rules.values());
+            this.ruleMask = new long[ruleWords];
+            for (Long ruleId : rules.keySet()) {
+                ruleIndexes.put(ruleId, ruleIndexes.size());
+            }
+            try {
+                channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                        StandardOpenOption.READ, StandardOpenOption.WRITE);
+                for (int column = 0; column < COLUMNS; column++) {
+                    mappedColumns[column] = map(channel, FileChannel.MapMode.READ_WRITE, offsets, column);
+                }
+                dateTimes = mappedColumns[DATE_TIME].asLongBuffer();
+                for (int column = 0; column < GameCoefficient.COUNT; column++) {
+                    coefficients[column] = mappedColumns[COEFFICIENTS + column].asFloatBuffer();
+                }
+                leagues = mappedColumns[LEAGUE].asIntBuffer();
+                firstTeams = mappedColumns[FIRST_TEAM].asIntBuffer();
+                secondTeams = mappedColumns[SECOND_TEAM].asIntBuffer();
+                ruleMasks = mappedColumns[RULES].asLongBuffer();
+                results = mappedColumns[RESULT];
+            } catch (IOException e) {
+                throw new GameArchiveException("Can't create game archive " + path + ": " + e.getMessage(), e);
+            }
+        }
+
+        /**
+         * Adds game, which must not be earlier than the previous one.
+         * @return - false if the archive is full and the game is not written.
+         */
+        public boolean add(LocalDateTime dateTime, String leagueLink, String firstTeam, String secondTeam, GameResult result,
+                           double firstWin, double tie, double secondWin, double oneX, double xTwo, long[] ruleIds) {
+            if (size == capacity) {
+                return false;
+            }
+            dateTimes.put(size, dateTime.toEpochSecond(ZoneOffset.UTC));
+            coefficients[GameCoefficient.FIRST_WIN.COLUMN].put(size, (float) firstWin);
+            coefficients[GameCoefficient.TIE.COLUMN].put(size, (float) tie);
+            coefficients[GameCoefficient.SECOND_WIN.COLUMN].put(size, (float) secondWin);
+            coefficients[GameCoefficient.ONE_X.COLUMN].put(size, (float) oneX);
+            coefficients[GameCoefficient.X_TWO.COLUMN].put(size, (float) xTwo);
+            leagues.put(size, intern(leagueIds, leagueLink));
+            firstTeams.put(size, intern(teamIds, firstTeam));
+            secondTeams.put(size, intern(teamIds, secondTeam));
+            Arrays.fill(ruleMask, 0);
+            for (long ruleId : ruleIds) {
+                Integer rule = ruleIndexes.get(ruleId);
+                if (rule != null) {
+                    ruleMask[rule >>> 6] |= 1L << rule;
+                }
+            }
+            for (int word = 0; word < ruleWords; word++) {
+                ruleMasks.put(size * ruleWords + word, ruleMask[word]);
+            }
+            results.put(size, (byte) result.ordinal());
+            size++;
+            return true;
+        }
+
+        private static int intern(Map<String, Integer> ids, String value) {
+            Integer id = ids.get(value);
+            if (id == null) {
+                id = ids.size();
+                ids.put(value, id);
+            }
+            return id;
+        }
+
+        /**
+         * Writes header and dictionaries, and flushes the file to disk.
+         * @param stamp - stamp of the data, which the archive is written for.
+         */
+        public void finish(String stamp) {
+            try {
+                for (MappedByteBuffer mappedColumn : mappedColumns) {
+                    mappedColumn.force();
+                }
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ORDER);
+                header.putInt(MAGIC).putInt(VERSION).putInt(size).putInt(capacity).putInt(ruleWords);
+                header.rewind();
+                channel.write(header, 0);
+                DictionaryOutput dictionary = new DictionaryOutput();
+                dictionary.putString(stamp);
+                dictionary.putStrings(leagueIds.keySet());
+                dictionary.putStrings(teamIds.keySet());
+                dictionary.putStrings(ruleNames);
+                channel.write(dictionary.toBuffer(), offsets[COLUMNS]);
+                channel.force(true);
+            } catch (IOException e) {
+                throw new GameArchiveException("Can't write game archive: " + e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * Growing buffer of dictionary strings.
+     */
+    private static class DictionaryOutput {
+
+        private ByteBuffer buffer = ByteBuffer.allocate(4096).order(ORDER);
+
+        void putString(String value) {
+            if (value == null) {
+                ensure(Integer.BYTES);
+                buffer.putInt(-1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            ensure(Integer.BYTES + bytes.length);
+            buffer.putInt(bytes.length).put(bytes);
+        }
+
+        void putStrings(Collection<String> values) {
+            ensure(Integer.BYTES);
+            buffer.putInt(values.size());
+            for (String value : values) {
+                putString(value);
+            }
+        }
+
+        private void ensure(int length) {
+            if (buffer.remaining() < length) {
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + length)).order(ORDER);
+                buffer.flip();
+                grown.put(buffer);
+                buffer = grown;
+            }
+        }
+
+        ByteBuffer toBuffer() {
+            ByteBuffer result = buffer.duplicate();
+            result.flip();
+            return result;
+        }
+    }
+}
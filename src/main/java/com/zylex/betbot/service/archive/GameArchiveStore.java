@@ -0,0 +1,192 @@
+package com.zylex.betbot.service.archive;
+
+import com.zylex.betbot.controller.logger.ConsoleLogger;
+import com.zylex.betbot.exception.GameArchiveException;
+import com.zylex.betbot.service.repository.GameArchiveRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the game archive file in sync with database. Archive is written again only when the stamp
+ * of games with results or rules changed, into a temporary file, which replaces the archive atomically.
+ * Readers are served the previous archive while the sync job runs in background.
+ */
+@Service
+public class GameArchiveStore {
+
+    private final GameArchiveRepository gameArchiveRepository;
+
+    private final ExecutorService syncExecutor = Executors.newSingleThreadExecutor();
+
+    private final AtomicBoolean syncScheduled = new AtomicBoolean();
+
+    private final AtomicBoolean syncPending = new AtomicBoolean();
+
+    @Value("${archive.file:archive/games.col}")
+    private String file;
+
+    @Value("${archive.sync-interval-minutes:60}")
+    private long syncIntervalMinutes;
+
+    private volatile GameArchive archive;
+
+    private volatile LocalDateTime syncTime;
+
+    @Autowired
+    public GameArchiveStore(GameArchiveRepository gameArchiveRepository) {
+        this.gameArchiveRepository = gameArchiveRepository;
+    }
+
+    @PreDestroy
+    private void preDestroy() {
+        syncExecutor.shutdownNow();
+    }
+
+    /**
+     * Returns the current archive at once, and starts the sync job in background if the archive is older
+     * than the sync interval. Only the first call without any archive file waits for the archive to be written.
+     * @return - game archive.
+     */
+    public GameArchive getArchive() {
+        GameArchive gameArchive = archive;
+        if (gameArchive == null) {
+            gameArchive = openOrSync();
+        }
+        LocalDateTime lastSyncTime = syncTime;
+        if (lastSyncTime == null || lastSyncTime.plusMinutes(syncIntervalMinutes).isBefore(LocalDateTime.now())) {
+            scheduleSync();
+        }
+        return gameArchive;
+    }
+
+    /**
+     * Starts the sync job in background regardless of the sync interval, when games got their results.
+     * Inside a transaction the job is started after commit, because the stamp read before commit misses the new results.
+     */
+    public void requestSync() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            scheduleSync();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+            @Override
+            public void afterCommit() {
+                scheduleSync();
+            }
+        });
+    }
+
+    /**
+     * Starts the sync job, or makes the running job sync once more, so a request made while the job reads
+     * the stamp is not lost.
+     */
+    private void scheduleSync() {
+        syncPending.set(true);
+        if (!syncScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        syncExecutor.execute(() -> {
+            try {
+                while (syncPending.getAndSet(false)) {
+                    sync();
+                }
+            } catch (GameArchiveException e) {
+                // already logged
+            } catch (RuntimeException e) {
+                ConsoleLogger.writeErrorMessage("Game archive sync failed: " + e.getMessage(), e);
+            } finally {
+                syncScheduled.set(false);
+            }
+            if (syncPending.get()) {
+                scheduleSync();
+            }
+        });
+    }
+
+    private synchronized GameArchive openOrSync() {
+        if (archive != null) {
+            return archive;
+        }
+        Path path = Paths.get(file);
+        if (Files.isRegularFile(path)) {
+            try {
+                archive = GameArchive.open(path);
+                return archive;
+            } catch (GameArchiveException e) {
+                // broken file is written again
+            }
+        }
+        return sync();
+    }
+
+    /**
+     * Writes the archive again if its stamp differs from database. Failed sync is retried after the sync interval.
+     * @return - actual game archive.
+     */
+    public synchronized GameArchive sync() {
+        try {
+            if (archive == null || !gameArchiveRepository.findStamp().equals(archive.getStamp())) {
+                archive = write(Paths.get(file));
+            }
+            return archive;
+        } finally {
+            syncTime = LocalDateTime.now();
+        }
+    }
+
+    private GameArchive write(Path path) {
+        Path temp = null;
+        try {
+            Path directory = path.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            temp = Files.createTempFile(directory, "games", ".tmp");
+            gameArchiveRepository.exportResolvedGames(temp);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return GameArchive.open(path);
+        } catch (IOException e) {
+            throw new GameArchiveException("Can't write game archive " + path + ": " + e.getMessage(), e);
+        } finally {
+            deleteTemp(temp);
+        }
+    }
+
+    private static void deleteTemp(Path temp) {
+        if (temp == null) return;
+        try {
+            Files.deleteIfExists(temp);
+        } catch (IOException e) {
+            // temporary file is left for manual cleanup
+        }
+    }
+
+    /**
+     * @return - file, number of games, stamp and sync time of the archive.
+     */
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        GameArchive gameArchive = archive;
+        status.put("file", Paths.get(file).toAbsolutePath().toString());
+        status.put("games", gameArchive == null ? 0 : gameArchive.size());
+        status.put("stamp", gameArchive == null ? null : gameArchive.getStamp());
+        status.put("syncTime", syncTime);
+        status.put("syncScheduled", syncScheduled.get());
+        return status;
+    }
+}
@@ -0,0 +1,75 @@
+package com.zylex.betbot.service.backtest;
+
+import com.zylex.betbot.service.rule.GameCoefficient;
+import com.zylex.betbot.service.statistics.StatisticsAccumulator;
+
+/**
+ * Per rule counters of one part of history. Accumulators of different parts are merged by summing.
+ */
+class BacktestAccumulator {
+
+    private final int rulesNumber;
+
+    final int[] samples;
+
+    final int[] hits;
+
+    final double[] returns;
+
+    BacktestAccumulator(int rulesNumber) {
+        this.rulesNumber = rulesNumber;
+        this.samples = new int[rulesNumber];
+        this.hits = new int[GameCoefficient.COUNT * rulesNumber];
+        this.returns = new double[GameCoefficient.COUNT * rulesNumber];
+    }
+
+    /**
+     * Adds game to every matched rule.
+     * @param columns - coefficient columns in GameCoefficient order.
+     * @param result - result ordinal of the game.
+     * @param row - index of the game.
+     * @param matchedRules - bitset of matched rules.
+     */
+    void add(double[][] columns, byte result, int row, long[] matchedRules) {
+        int winColumns = StatisticsAccumulator.winColumns(result);
+        for (int word = 0; word < matchedRules.length; word++) {
+            long value = matchedRules[word];
+            while (value != 0) {
+                int rule = (word << 6) + Long.numberOfTrailingZeros(value);
+                samples[rule]++;
+                for (int column = 0; column < GameCoefficient.COUNT; column++) {
+                    if ((winColumns & (1 << column)) != 0) {
+                        hits[column * rulesNumber + rule]++;
+                        returns[column * rulesNumber + rule] += columns[column][row];
+                    }
+                }
+                value &= value - 1;
+            }
+        }
+    }
+
+    BacktestAccumulator merge(BacktestAccumulator other) {
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] += other.samples[i];
+        }
+        for (int i = 0; i < hits.length; i++) {
+            hits[i] += other.hits[i];
+            returns[i] += other.returns[i];
+        }
+        return this;
+    }
+
+    /**
+     * @param rule - index of the rule.
+     * @return - counters of the rule.
+     */
+    StatisticsAccumulator toStatistics(int rule) {
+        int[] ruleHits = new int[GameCoefficient.COUNT];
+        double[] ruleReturns = new double[GameCoefficient.COUNT];
+        for (int column = 0; column < GameCoefficient.COUNT; column++) {
+            ruleHits[column] = hits[column * rulesNumber + rule];
+            ruleReturns[column] = returns[column * rulesNumber + rule];
+        }
+        return StatisticsAccumulator.of(samples[rule], ruleHits, ruleReturns);
+    }
+}
@@ -0,0 +1,69 @@
+package com.zylex.betbot.service.backtest;
+
+import com.zylex.betbot.model.bet.BetCoefficient;
+import com.zylex.betbot.model.rule.Rule;
+import com.zylex.betbot.service.statistics.StatisticsAccumulator;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Scores of one rule over game history: sample size, hit rate and return on investment of every coefficient,
+ * when one unit is bet on every game of the rule.
+ */
+public class BacktestResult {
+
+    private final Rule rule;
+
+    private final StatisticsAccumulator statistics;
+
+    BacktestResult(Rule rule, StatisticsAccumulator statistics) {
+        this.rule = rule;
+        this.statistics = statistics;
+    }
+
+    public Rule getRule() {
+        return rule;
+    }
+
+    public int getSampleSize() {
+        return statistics.getGames();
+    }
+
+    public double getHitRate(BetCoefficient betCoefficient) {
+        return statistics.getHitRate(betCoefficient);
+    }
+
+    public double getProfit(BetCoefficient betCoefficient) {
+        return statistics.getProfit(betCoefficient);
+    }
+
+    public double getRoi(BetCoefficient betCoefficient) {
+        return statistics.getRoi(betCoefficient);
+    }
+
+    public Map<BetCoefficient, Double> getHitRates() {
+        Map<BetCoefficient, Double> hitRates = new EnumMap<>(BetCoefficient.class);
+        for (BetCoefficient betCoefficient : statistics.getProfits().keySet()) {
+            hitRates.put(betCoefficient, getHitRate(betCoefficient));
+        }
+        return hitRates;
+    }
+
+    public Map<BetCoefficient, Double> getProfits() {
+        return new EnumMap<>(statistics.getProfits());
+    }
+
+    public Map<BetCoefficient, Double> getRois() {
+        Map<BetCoefficient, Double> rois = new EnumMap<>(BetCoefficient.class);
+        for (BetCoefficient betCoefficient : statistics.getProfits().keySet()) {
+            rois.put(betCoefficient, getRoi(betCoefficient));
+        }
+        return rois;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: games %d, hit rate %s, roi %s", rule, getSampleSize(), getHitRates(), getRois());
+    }
+}
@@ -0,0 +1,155 @@
+package com.zylex.betbot.service.backtest;
+
+import com.zylex.betbot.exception.RuleCompilerException;
+import com.zylex.betbot.model.rule.Rule;
+import com.zylex.betbot.service.archive.GameArchive;
+import com.zylex.betbot.service.archive.GameArchiveStore;
+import com.zylex.betbot.service.rule.CompiledRule;
+import com.zylex.betbot.service.rule.LeagueFilterCache;
+import com.zylex.betbot.service.rule.RuleCompiler;
+import com.zylex.betbot.service.rule.RuleIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Scores candidate rules, saved or not, over the whole history of games with results.
+ * History is taken from the game archive, which coefficients are read as columns on heap,
+ * candidates are matched through the rule index, and parts of history are scored in parallel.
+ */
+@Service
+public class Backtester {
+
+    private static final int ROWS_PER_TASK = 4096;
+
+    private final GameArchiveStore gameArchiveStore;
+
+    private final RuleCompiler ruleCompiler;
+
+    private final LeagueFilterCache leagueFilterCache;
+
+    private final ForkJoinPool backtestPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    @Autowired
+    public Backtester(GameArchiveStore gameArchiveStore,
+                      RuleCompiler ruleCompiler,
+                      LeagueFilterCache leagueFilterCache) {
+        this.gameArchiveStore = gameArchiveStore;
+        this.ruleCompiler = ruleCompiler;
+        this.leagueFilterCache = leagueFilterCache;
+    }
+
+    @PreDestroy
+    private void preDestroy() {
+        backtestPool.shutdownNow();
+    }
+
+    /**
+     * Scores candidate rules over the whole history.
+     * @param candidates - list of rules.
+     * @return - list of results, in order of candidates. Candidates with invalid conditions are skipped.
+     */
+    public List<BacktestResult> backtest(List<Rule> candidates) {
+        return backtest(candidates, null, null);
+    }
+
+    /**
+     * Scores candidate rules over games of the period.
+     * @param candidates - list of rules.
+     * @param startDate - first date of the period, or null for the start of history.
+     * @param endDate - last date of the period, or null for the end of history.
+     * @return - list of results, in order of candidates. Candidates with invalid conditions are skipped.
+     */
+    public List<BacktestResult> backtest(List<Rule> candidates, LocalDate startDate, LocalDate endDate) {
+        List<CompiledRule> compiledRules = compile(candidates);
+        if (compiledRules.isEmpty()) {
+            return Collections.emptyList();
+        }
+        GameArchive gameArchive = gameArchiveStore.getArchive();
+        RuleIndex ruleIndex = new RuleIndex(compiledRules);
+        long[][] allowedLeagues = leagueFilterCache.findAllowedRules(compiledRules, gameArchive.getLeagueLinks(),
+                ruleIndex.words());
+        BacktestAccumulator accumulator = backtestPool.invoke(new BacktestTask(gameArchive,
+                gameArchive.getCoefficientColumns(), ruleIndex, allowedLeagues,
+                gameArchive.fromIndex(startDate), gameArchive.toIndex(endDate)));
+        return toResults(compiledRules, accumulator);
+    }
+
+    private List<CompiledRule> compile(List<Rule> candidates) {
+        List<CompiledRule> compiledRules = new ArrayList<>(candidates.size());
+        for (Rule candidate : candidates) {
+            try {
+                compiledRules.add(ruleCompiler.compileUncached(candidate));
+            } catch (RuleCompilerException e) {
+                // candidate with invalid condition is skipped, error is already logged
+            }
+        }
+        return compiledRules;
+    }
+
+    private static List<BacktestResult> toResults(List<CompiledRule> compiledRules, BacktestAccumulator accumulator) {
+        int rulesNumber = compiledRules.size();
+        List<BacktestResult> results = new ArrayList<>(rulesNumber);
+        for (int rule = 0; rule < rulesNumber; rule++) {
+            results.add(new BacktestResult(compiledRules.get(rule).getRule(), accumulator.toStatistics(rule)));
+        }
+        return results;
+    }
+
+    /**
+     * Scores rules over a range of history rows, splitting it in halves until it is small enough.
+     */
+    private static class BacktestTask extends RecursiveTask<BacktestAccumulator> {
+
+        private final GameArchive archive;
+
+        private final double[][] columns;
+
+        private final RuleIndex ruleIndex;
+
+        private final long[][] allowedLeagues;
+
+        private final int from;
+
+        private final int to;
+
+        BacktestTask(GameArchive archive, double[][] columns, RuleIndex ruleIndex, long[][] allowedLeagues,
+                     int from, int to) {
+            this.archive = archive;
+            this.columns = columns;
+            this.ruleIndex = ruleIndex;
+            this.allowedLeagues = allowedLeagues;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected BacktestAccumulator compute() {
+            if (to - from > ROWS_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                BacktestTask left = new BacktestTask(archive, columns, ruleIndex, allowedLeagues, from, middle);
+                left.fork();
+                BacktestAccumulator right = new BacktestTask(archive, columns, ruleIndex, allowedLeagues, middle, to).compute();
+                return left.join().merge(right);
+            }
+            BacktestAccumulator accumulator = new BacktestAccumulator(ruleIndex.getRules().size());
+            long[] matchedRules = new long[ruleIndex.words()];
+            for (int row = from; row < to; row++) {
+                ruleIndex.match(columns, row, matchedRules);
+                long[] allowed = allowedLeagues[archive.getLeague(row)];
+                for (int word = 0; word < matchedRules.length; word++) {
+                    matchedRules[word] &= allowed[word];
+                }
+                accumulator.add(columns, archive.getResultOrdinal(row), row, matchedRules);
+            }
+            return accumulator;
+        }
+    }
+}
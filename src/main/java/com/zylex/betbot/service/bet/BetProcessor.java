@@ -11,7 +11,9 @@ import com.zylex.betbot.model.game.Game;
 import com.zylex.betbot.model.rule.Rule;
 import com.zylex.betbot.service.driver.DriverManager;
 import com.zylex.betbot.service.repository.*;
+import com.zylex.betbot.service.rule.RuleMatches;
 import com.zylex.betbot.service.rule.RuleProcessor;
+import com.zylex.betbot.service.rule.RuleRegistry;
 import org.openqa.selenium.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -26,7 +28,7 @@ import java.util.*;
 import java.util.stream.Collectors;
 
 import static com.zylex.betbot.BetBotApplication.BET_START_TIME;
-import static com.zylex.betbot.BetBotApplication.BOT_START_TIME;
+import static com.zylex.betbot.BetBotApplication.botStartTime;
 
 /**
  * Making bets.
@@ -45,7 +47,7 @@ public class BetProcessor {
 
     private final BetRepository betRepository;
 
-    private final RuleRepository ruleRepository;
+    private final RuleRegistry ruleRegistry;
 
     private final RuleProcessor ruleProcessor;
 
@@ -64,13 +66,13 @@ public class BetProcessor {
                         BankRepository bankRepository,
                         GameRepository gameRepository,
                         BetRepository betRepository,
-                        RuleRepository ruleRepository,
+                        RuleRegistry ruleRegistry,
                         RuleProcessor ruleProcessor) {
         this.driverManager = driverManager;
         this.bankRepository = bankRepository;
         this.gameRepository = gameRepository;
         this.betRepository = betRepository;
-        this.ruleRepository = ruleRepository;
+        this.ruleRegistry = ruleRegistry;
         this.ruleProcessor = ruleProcessor;
     }
 
@@ -81,8 +83,8 @@ public class BetProcessor {
     @Transactional
     public List<Game> process() {
         try {
-            List<Rule> rules = ruleRepository.findByActivateTrue();
-            Set<Game> betGames = findBetGames(rules);
+            List<Rule> rules = ruleRegistry.getRuleSet().getActiveRules();
+            Map<Game, List<Rule>> betGames = findBetGames(rules);
             if (betGames.isEmpty()) {
                 logger.betMade(LogType.NO_GAMES_TO_BET);
                 return Collections.emptyList();
@@ -90,13 +92,13 @@ public class BetProcessor {
             openSite();
             logger.startLogMessage(LogType.BET);
             List<Game> processedGames = new ArrayList<>();
-            for (Game game : betGames) {
-                if (!enoughMoney(rules, game)) {
+            for (Map.Entry<Game, List<Rule>> betGame : betGames.entrySet()) {
+                if (availableBalance < calculateAmount(betGame.getValue())) {
                     logger.noMoney();
                     break;
                 }
-                processGameBet(rules, game);
-                processedGames.add(game);
+                processGameBet(betGame.getValue(), betGame.getKey());
+                processedGames.add(betGame.getKey());
             }
             logger.betMade(LogType.OK);
             return processedGames;
@@ -105,20 +107,25 @@ public class BetProcessor {
         }
     }
 
-    private Set<Game> findBetGames(List<Rule> rules) {
-        List<Game> ruleGames = ruleProcessor.filterGamesByRules(gameRepository.findByBetStartTime(), rules);
-        Set<Game> betGames = new LinkedHashSet<>();
-        for (Game game : ruleGames) {
-            if (notAppropriateTime(game)) continue;
-            if (game.getBets().stream().anyMatch(bet -> rules.contains(bet.getRule()))) continue;
-            betGames.add(game);
+    private Map<Game, List<Rule>> findBetGames(List<Rule> rules) {
+        RuleMatches matches = ruleProcessor.matchBetGames(rules);
+        Map<Game, List<Rule>> betGames = new LinkedHashMap<>();
+        for (int rule = 0; rule < matches.getRules().size(); rule++) {
+            for (int game = 0; game < matches.getGames().size(); game++) {
+                if (!matches.matches(game, rule)) continue;
+                Game ruleGame = matches.getGames().get(game);
+                if (betGames.containsKey(ruleGame) || notAppropriateTime(ruleGame)) continue;
+                if (ruleGame.getBets().stream().anyMatch(bet -> rules.contains(bet.getRule()))) continue;
+                betGames.put(ruleGame, matches.rulesOf(game));
+            }
         }
         return betGames;
     }
 
     private boolean notAppropriateTime(Game game) {
-        return BOT_START_TIME.isBefore(LocalDateTime.of(game.getDateTime().toLocalDate().minusDays(1), BET_START_TIME))
-                || BOT_START_TIME.isAfter(game.getDateTime());
+        LocalDateTime now = botStartTime();
+        return now.isBefore(LocalDateTime.of(game.getDateTime().toLocalDate().minusDays(1), BET_START_TIME))
+                || now.isAfter(game.getDateTime());
     }
 
     private void openSite() {
@@ -156,16 +163,8 @@ public class BetProcessor {
         }
     }
 
-    private boolean enoughMoney(List<Rule> rules, Game game) {
-        List<Rule> gameRules = rules.stream()
-                .filter(rule -> game.getRules().contains(rule))
-                .collect(Collectors.toList());
-        return availableBalance >= calculateAmount(gameRules);
-    }
-
-    private void processGameBet(List<Rule> rules, Game game) {
-        for (Rule rule : rules) {
-            if (!game.getRules().contains(rule)) continue;
+    private void processGameBet(List<Rule> gameRules, Game game) {
+        for (Rule rule : gameRules) {
             if (game.getBets().stream().anyMatch(bet -> bet.getRule().equals(rule))) continue;
             int ruleBetAmount = calculateAmount(rule);
             List<BetCoefficient> betCoefficients = Arrays.stream(rule.getBetCoefficient().split("__"))
@@ -0,0 +1,124 @@
+package com.zylex.betbot.service.corpus;
+
+import com.zylex.betbot.exception.PageCorpusException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Local directory of raw site pages. In capture mode pages are written on every fetch,
+ * in replay mode they are read instead of the site, so parsing runs without network.
+ */
+@Service
+public class PageCorpus {
+
+    private static final String EXTENSION = ".html";
+
+    @Value("${corpus.mode:off}")
+    private String mode;
+
+    @Value("${corpus.dir:corpus}")
+    private String directory;
+
+    public PageCorpus() {
+    }
+
+    public PageCorpus(String mode, String directory) {
+        this.mode = mode;
+        this.directory = directory;
+    }
+
+    public boolean isCapture() {
+        return "capture".equalsIgnoreCase(mode);
+    }
+
+    public boolean isReplay() {
+        return "replay".equalsIgnoreCase(mode);
+    }
+
+    /**
+     * Writes page to the corpus if capture mode is on.
+     * @param type - type of the page.
+     * @param key - key of the page, like league link or date.
+     * @param body - html of the page.
+     */
+    public void capture(PageType type, String key, String body) {
+        if (!isCapture()) return;
+        try {
+            Path path = pagePath(type, key);
+            Files.createDirectories(path.getParent());
+            Path temp = Files.createTempFile(path.getParent(), "page", ".tmp");
+            Files.write(temp, body.getBytes(StandardCharsets.UTF_8));
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new PageCorpusException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads page from the corpus.
+     * @param type - type of the page.
+     * @param key - key of the page, like league link or date.
+     * @return - html of the page.
+     */
+    public String load(PageType type, String key) throws IOException {
+        return new String(Files.readAllBytes(pagePath(type, key)), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Finds all pages of the type.
+     * @param type - type of the page.
+     * @return - sorted list of page keys.
+     */
+    public List<String> keys(PageType type) throws IOException {
+        Path typeDirectory = Paths.get(directory, type.name().toLowerCase());
+        if (!Files.isDirectory(typeDirectory)) {
+            return Collections.emptyList();
+        }
+        try (Stream<Path> files = Files.list(typeDirectory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(EXTENSION))
+                    .map(name -> key(name.substring(0, name.length() - EXTENSION.length())))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private Path pagePath(PageType type, String key) {
+        return Paths.get(directory, type.name().toLowerCase(), fileName(key) + EXTENSION);
+    }
+
+    /**
+     * Encodes the key into a file name reversibly, so different keys never share one file.
+     * @param key - key of the page.
+     * @return - URL encoded key, with '*' encoded too.
+     */
+    private static String fileName(String key) {
+        try {
+            return URLEncoder.encode(key, StandardCharsets.UTF_8.name()).replace("*", "%2A");
+        } catch (UnsupportedEncodingException e) {
+            throw new PageCorpusException(e.getMessage(), e);
+        }
+    }
+
+    private static String key(String fileName) {
+        try {
+            return URLDecoder.decode(fileName, StandardCharsets.UTF_8.name());
+        } catch (UnsupportedEncodingException e) {
+            throw new PageCorpusException(e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.zylex.betbot.service.corpus;
+
+/**
+ * Type of the site page kept in the corpus.
+ */
+public enum PageType {
+    MENU,
+    LEAGUE,
+    RESULTS
+}
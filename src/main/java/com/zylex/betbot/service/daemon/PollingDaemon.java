@@ -0,0 +1,173 @@
+package com.zylex.betbot.service.daemon;
+
+import com.zylex.betbot.BetBotApplication;
+import com.zylex.betbot.controller.logger.DaemonConsoleLogger;
+import com.zylex.betbot.model.game.Game;
+import com.zylex.betbot.service.bet.BetProcessor;
+import com.zylex.betbot.service.parsing.ParseProcessor;
+import com.zylex.betbot.service.rule.RuleProcessor;
+import com.zylex.betbot.service.statistics.ResultScanner;
+import com.zylex.betbot.service.statistics.StatisticsAnalyser;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the pipeline in cycles with the polling interval, in one application context and browser.
+ * Every cycle is incremental: unchanged leagues are skipped, rules are applied to new or changed games,
+ * and results are scanned only for games past kickoff.
+ */
+@Service
+public class PollingDaemon {
+
+    private static final long STOP_MARGIN_SECONDS = 180;
+
+    private final DaemonConsoleLogger logger = new DaemonConsoleLogger();
+
+    private final RuleProcessor ruleProcessor;
+
+    private final BetProcessor betProcessor;
+
+    private final ResultScanner resultScanner;
+
+    private final StatisticsAnalyser statisticsAnalyser;
+
+    private final ParseProcessor parseProcessor;
+
+    @Value("${daemon.enabled:false}")
+    private boolean enabled;
+
+    @Value("${daemon.interval-seconds:300}")
+    private long intervalSeconds;
+
+    @Value("${daemon.result-days:3}")
+    private int resultDays;
+
+    @Value("${daemon.stop-timeout-seconds:0}")
+    private long stopTimeoutSeconds;
+
+    @Value("${parsing.run-deadline-seconds:240}")
+    private long runDeadlineSeconds;
+
+    private volatile boolean running;
+
+    private volatile boolean sleeping;
+
+    private volatile Thread pollingThread;
+
+    private final CountDownLatch stopLatch = new CountDownLatch(1);
+
+    @Autowired
+    public PollingDaemon(RuleProcessor ruleProcessor,
+                         BetProcessor betProcessor,
+                         ResultScanner resultScanner,
+                         StatisticsAnalyser statisticsAnalyser,
+                         ParseProcessor parseProcessor) {
+        this.ruleProcessor = ruleProcessor;
+        this.betProcessor = betProcessor;
+        this.resultScanner = resultScanner;
+        this.statisticsAnalyser = statisticsAnalyser;
+        this.parseProcessor = parseProcessor;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Runs cycles until the daemon is stopped. Failed cycle is logged and the next one is started on schedule.
+     */
+    public void run() {
+        running = true;
+        pollingThread = Thread.currentThread();
+        try {
+            runCycles();
+        } finally {
+            stopLatch.countDown();
+        }
+        logger.stopped();
+    }
+
+    private void runCycles() {
+        long cycle = 0;
+        while (running) {
+            cycle++;
+            BetBotApplication.refreshBotStartTime();
+            LocalDateTime startTime = BetBotApplication.botStartTime();
+            LocalDateTime nextTime = startTime.plusSeconds(intervalSeconds);
+            logger.startCycle(cycle, startTime);
+            try {
+                int changedGames = runCycle();
+                logger.endCycle(cycle, startTime, changedGames, nextTime);
+            } catch (RuntimeException e) {
+                logger.cycleFailed(cycle, e);
+            }
+            if (!sleepUntil(nextTime)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Runs one cycle. Steps after the current one are skipped when the daemon is stopped.
+     * @return - number of new or changed games.
+     */
+    private int runCycle() {
+        List<Game> changedGames = ruleProcessor.process();
+        if (running) {
+            betProcessor.process();
+        }
+        if (running && resultScanner.scan(LocalDate.now().minusDays(resultDays)) > 0) {
+            statisticsAnalyser.analyse(null, null);
+        }
+        return changedGames.size();
+    }
+
+    private boolean sleepUntil(LocalDateTime nextTime) {
+        long delayMillis = Duration.between(LocalDateTime.now(), nextTime).toMillis();
+        if (delayMillis <= 0) {
+            return running;
+        }
+        sleeping = true;
+        try {
+            if (!running) return false;
+            TimeUnit.MILLISECONDS.sleep(delayMillis);
+            return running;
+        } catch (InterruptedException e) {
+            return false;
+        } finally {
+            sleeping = false;
+        }
+    }
+
+    /**
+     * Stops polling. Running parse is cancelled and the rest of the cycle is skipped,
+     * then the current step is waited for, so beans are not destroyed under it.
+     * Without daemon.stop-timeout-seconds the wait is limited by the parse run deadline
+     * and a margin for one betting or result scan step.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        Thread thread = pollingThread;
+        if (thread == null || thread == Thread.currentThread()) {
+            return;
+        }
+        if (sleeping) {
+            thread.interrupt();
+        }
+        parseProcessor.cancel();
+        long timeoutSeconds = stopTimeoutSeconds > 0 ? stopTimeoutSeconds : runDeadlineSeconds + STOP_MARGIN_SECONDS;
+        if (!stopLatch.await(timeoutSeconds, TimeUnit.SECONDS)) {
+            logger.stopTimedOut(timeoutSeconds);
+        }
+    }
+}
@@ -20,6 +20,8 @@ public abstract class DriverManager {
 
     protected static final int waitTimeout = 5;
 
+    protected static final int pageLoadTimeout = 60;
+
     protected static final DriverConsoleLogger logger = new DriverConsoleLogger();
 
     protected WebDriver driver;
@@ -42,7 +44,7 @@ public abstract class DriverManager {
 
     protected void manageDriver() {
         driver.manage().window().setSize(new Dimension(1920, 1080));
-        driver.manage().timeouts().pageLoadTimeout(600, TimeUnit.SECONDS);
+        driver.manage().timeouts().pageLoadTimeout(pageLoadTimeout, TimeUnit.SECONDS);
         driver.manage().timeouts().implicitlyWait(10, TimeUnit.SECONDS);
         driver.manage().timeouts().setScriptTimeout(10, TimeUnit.SECONDS);
     }
@@ -0,0 +1,154 @@
+package com.zylex.betbot.service.history;
+
+import com.zylex.betbot.model.game.Game;
+import com.zylex.betbot.model.game.GameInfo;
+import com.zylex.betbot.model.game.OddsChange;
+import com.zylex.betbot.service.repository.OddsHistoryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Records changes of game coefficients and restores game line at any time.
+ * Last lines are kept in memory and loaded again from database if the recording transaction does not commit.
+ */
+@Service
+public class OddsHistoryService {
+
+    private static final int KEEP_LINE_DAYS = 3;
+
+    private final OddsHistoryRepository oddsHistoryRepository;
+
+    private final Map<String, float[]> lastLines = new HashMap<>();
+
+    private final Map<String, LocalDateTime> lastObservations = new HashMap<>();
+
+    private boolean loaded;
+
+    @Autowired
+    public OddsHistoryService(OddsHistoryRepository oddsHistoryRepository) {
+        this.oddsHistoryRepository = oddsHistoryRepository;
+    }
+
+    /**
+     * Compares coefficients of parsed games with the last observed line,
+     * and appends changed coefficients in one batch.
+     * @param games - list of parsed games.
+     * @return - list of games, which line is new or changed.
+     */
+    public synchronized List<Game> record(List<Game> games) {
+        load();
+        LocalDateTime now = LocalDateTime.now();
+        List<OddsChange> changes = new ArrayList<>();
+        List<Game> changedGames = new ArrayList<>();
+        for (Game game : games) {
+            float[] line = toLine(game.getGameInfo());
+            float[] lastLine = lastLines.get(game.getLink());
+            int changed = OddsChange.ALL;
+            if (lastLine != null) {
+                changed = 0;
+                for (int i = 0; i < line.length; i++) {
+                    if (Float.compare(line[i], lastLine[i]) != 0) {
+                        changed |= 1 << i;
+                    }
+                }
+            }
+            lastObservations.put(game.getLink(), now);
+            if (changed == 0) continue;
+            changes.add(new OddsChange(game.getLink(), now, changed, line));
+            lastLines.put(game.getLink(), line);
+            changedGames.add(game);
+        }
+        if (!changes.isEmpty()) {
+            oddsHistoryRepository.saveAll(changes);
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        reset();
+                    }
+                }
+            });
+        }
+        evictOldLines(now);
+        return changedGames;
+    }
+
+    /**
+     * Restores coefficients of the game at the specified time.
+     * @param link - link of the game.
+     * @param dateTime - time of the line.
+     * @return - game info, or null if the game was not observed before the time.
+     */
+    public GameInfo findLine(String link, LocalDateTime dateTime) {
+        List<OddsChange> changes = oddsHistoryRepository.findByLinkUntil(link, dateTime);
+        if (changes.isEmpty()) {
+            return null;
+        }
+        float[] line = new float[5];
+        for (OddsChange change : changes) {
+            change.applyTo(line);
+        }
+        return OddsChange.toGameInfo(line);
+    }
+
+    /**
+     * Restores every line of the game in order of observation.
+     * @param link - link of the game.
+     * @return - map of game info by observation time.
+     */
+    public Map<LocalDateTime, GameInfo> findLineMovement(String link) {
+        Map<LocalDateTime, GameInfo> movement = new LinkedHashMap<>();
+        float[] line = new float[5];
+        for (OddsChange change : oddsHistoryRepository.findByLinkUntil(link, LocalDateTime.now())) {
+            change.applyTo(line);
+            movement.put(change.getDateTime(), OddsChange.toGameInfo(line));
+        }
+        return movement;
+    }
+
+    private synchronized void reset() {
+        loaded = false;
+        lastLines.clear();
+        lastObservations.clear();
+    }
+
+    private void load() {
+        if (loaded) return;
+        LocalDateTime now = LocalDateTime.now();
+        for (OddsChange change : oddsHistoryRepository.findSince(now.minusDays(KEEP_LINE_DAYS))) {
+            float[] line = lastLines.computeIfAbsent(change.getLink(), link -> new float[5]);
+            change.applyTo(line);
+            lastObservations.put(change.getLink(), change.getDateTime());
+        }
+        loaded = true;
+    }
+
+    private void evictOldLines(LocalDateTime now) {
+        LocalDateTime keepSince = now.minusDays(KEEP_LINE_DAYS);
+        Iterator<Map.Entry<String, LocalDateTime>> iterator = lastObservations.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, LocalDateTime> observation = iterator.next();
+            if (observation.getValue().isBefore(keepSince)) {
+                lastLines.remove(observation.getKey());
+                iterator.remove();
+            }
+        }
+    }
+
+    private float[] toLine(GameInfo gameInfo) {
+        return new float[]{
+                (float) gameInfo.getFirstWin(),
+                (float) gameInfo.getTie(),
+                (float) gameInfo.getSecondWin(),
+                (float) gameInfo.getOneX(),
+                (float) gameInfo.getXTwo()};
+    }
+}
@@ -0,0 +1,77 @@
+package com.zylex.betbot.service.ingest;
+
+import com.zylex.betbot.model.game.Game;
+import com.zylex.betbot.service.repository.GameBatchRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+
+/**
+ * Saves eligible games in bulk. Links of games of the active window are kept in memory,
+ * so already saved games are dropped without database round trips.
+ */
+@Service
+public class GameIngestionService {
+
+    private final GameBatchRepository gameBatchRepository;
+
+    private final Set<String> knownLinks = new HashSet<>();
+
+    private LocalDate windowStart;
+
+    @Autowired
+    public GameIngestionService(GameBatchRepository gameBatchRepository) {
+        this.gameBatchRepository = gameBatchRepository;
+    }
+
+    /**
+     * Saves games, which were not saved before. Games with the same link are saved once.
+     * Known links are dropped if the surrounding transaction is rolled back.
+     * @param games - list of eligible games with their rules.
+     * @return - list of saved games.
+     */
+    public synchronized List<Game> saveNew(Collection<Game> games) {
+        loadKnownLinks();
+        Map<String, Game> newGames = new LinkedHashMap<>();
+        for (Game game : games) {
+            if (knownLinks.contains(game.getLink())) continue;
+            newGames.putIfAbsent(game.getLink(), game);
+        }
+        if (newGames.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Game> savedGames = gameBatchRepository.insertNew(new ArrayList<>(newGames.values()));
+        knownLinks.addAll(newGames.keySet());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        reset();
+                    }
+                }
+            });
+        }
+        return savedGames;
+    }
+
+    private synchronized void reset() {
+        windowStart = null;
+        knownLinks.clear();
+    }
+
+    private void loadKnownLinks() {
+        LocalDate start = LocalDate.now().minusDays(1);
+        if (start.equals(windowStart)) return;
+        knownLinks.clear();
+        knownLinks.addAll(gameBatchRepository.findLinksSince(LocalDateTime.of(start, LocalTime.MIN)));
+        windowStart = start;
+    }
+}
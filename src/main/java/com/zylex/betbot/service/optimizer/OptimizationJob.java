@@ -0,0 +1,89 @@
+package com.zylex.betbot.service.optimizer;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * State and result of one optimization run.
+ */
+public class OptimizationJob {
+
+    private final long id;
+
+    private final long totalPoints;
+
+    private final AtomicLong evaluatedPoints = new AtomicLong();
+
+    private final LocalDateTime startTime = LocalDateTime.now();
+
+    private volatile LocalDateTime endTime;
+
+    private volatile OptimizationStatus status = OptimizationStatus.RUNNING;
+
+    private volatile boolean cancelled;
+
+    private volatile List<OptimizationPoint> front = Collections.emptyList();
+
+    OptimizationJob(long id, long totalPoints) {
+        this.id = id;
+        this.totalPoints = totalPoints;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public OptimizationStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * @return - number of threshold points to evaluate, every point is evaluated with all stake percents.
+     */
+    public long getTotalPoints() {
+        return totalPoints;
+    }
+
+    public long getEvaluatedPoints() {
+        return evaluatedPoints.get();
+    }
+
+    public double getProgress() {
+        return totalPoints == 0 ? 1 : (double) evaluatedPoints.get() / totalPoints;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+
+    /**
+     * @return - Pareto front of evaluated points by final bank, drawdown and volume, empty while the job is running.
+     */
+    public List<OptimizationPoint> getFront() {
+        return front;
+    }
+
+    void cancel() {
+        cancelled = true;
+    }
+
+    boolean isCancelled() {
+        return cancelled;
+    }
+
+    void addEvaluated(long points) {
+        evaluatedPoints.addAndGet(points);
+    }
+
+    void finish(OptimizationStatus status, List<OptimizationPoint> front) {
+        this.front = front;
+        this.endTime = LocalDateTime.now();
+        this.status = status;
+    }
+}
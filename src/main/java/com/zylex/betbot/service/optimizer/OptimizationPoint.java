@@ -0,0 +1,67 @@
+package com.zylex.betbot.service.optimizer;
+
+/**
+ * Scores of one point of the optimization: swept condition values and stake percent.
+ * Final bank is the compounded bank at the end of history, which depends on the stake percent, drawdown is
+ * the largest fall of the compounded bank from its peak, volume is the number of games to bet on.
+ * Points are compared by these three scores. Return on investment is profit per staked unit, the same for every percent.
+ */
+public class OptimizationPoint {
+
+    private final double[] thresholds;
+
+    private final double percent;
+
+    private final double roi;
+
+    private final double drawdown;
+
+    private final int volume;
+
+    private final double finalBank;
+
+    OptimizationPoint(double[] thresholds, double percent, double roi, double drawdown, int volume, double finalBank) {
+        this.thresholds = thresholds;
+        this.percent = percent;
+        this.roi = roi;
+        this.drawdown = drawdown;
+        this.volume = volume;
+        this.finalBank = finalBank;
+    }
+
+    public double[] getThresholds() {
+        return thresholds;
+    }
+
+    public double getPercent() {
+        return percent;
+    }
+
+    public double getRoi() {
+        return roi;
+    }
+
+    public double getDrawdown() {
+        return drawdown;
+    }
+
+    public int getVolume() {
+        return volume;
+    }
+
+    /**
+     * @return - bank at the end of history, when it starts from 1.
+     */
+    public double getFinalBank() {
+        return finalBank;
+    }
+
+    /**
+     * @param other - another point.
+     * @return - true if this point is not worse than the other by every score, and better by one of them.
+     */
+    boolean dominates(OptimizationPoint other) {
+        return finalBank >= other.finalBank && drawdown <= other.drawdown && volume >= other.volume
+                && (finalBank > other.finalBank || drawdown < other.drawdown || volume > other.volume);
+    }
+}
@@ -0,0 +1,157 @@
+package com.zylex.betbot.service.optimizer;
+
+import com.zylex.betbot.model.rule.Rule;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parameters of the rule optimization: the base rule, ranges of swept condition values and of stake percent.
+ */
+public class OptimizationRequest {
+
+    private Rule rule;
+
+    private List<Range> thresholds = new ArrayList<>();
+
+    private Range percent;
+
+    private boolean random;
+
+    private int samples;
+
+    private long seed;
+
+    private int minVolume = 1;
+
+    public Rule getRule() {
+        return rule;
+    }
+
+    public void setRule(Rule rule) {
+        this.rule = rule;
+    }
+
+    /**
+     * @return - ranges of values of swept conditions.
+     */
+    public List<Range> getThresholds() {
+        return thresholds;
+    }
+
+    public void setThresholds(List<Range> thresholds) {
+        this.thresholds = thresholds;
+    }
+
+    /**
+     * @return - range of stake percent, or null to use percent of the rule.
+     */
+    public Range getPercent() {
+        return percent;
+    }
+
+    public void setPercent(Range percent) {
+        this.percent = percent;
+    }
+
+    /**
+     * @return - true if thresholds are sampled randomly inside ranges, false if the whole grid is swept.
+     */
+    public boolean isRandom() {
+        return random;
+    }
+
+    public void setRandom(boolean random) {
+        this.random = random;
+    }
+
+    /**
+     * @return - number of random points.
+     */
+    public int getSamples() {
+        return samples;
+    }
+
+    public void setSamples(int samples) {
+        this.samples = samples;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * @return - minimum number of bets for the point to get into the Pareto front.
+     */
+    public int getMinVolume() {
+        return minVolume;
+    }
+
+    public void setMinVolume(int minVolume) {
+        this.minVolume = minVolume;
+    }
+
+    /**
+     * Range of values with step. Condition is the index in conditions of the rule, not used for percent.
+     */
+    public static class Range {
+
+        private int condition;
+
+        private double from;
+
+        private double to;
+
+        private double step;
+
+        public int getCondition() {
+            return condition;
+        }
+
+        public void setCondition(int condition) {
+            this.condition = condition;
+        }
+
+        public double getFrom() {
+            return from;
+        }
+
+        public void setFrom(double from) {
+            this.from = from;
+        }
+
+        public double getTo() {
+            return to;
+        }
+
+        public void setTo(double to) {
+            this.to = to;
+        }
+
+        public double getStep() {
+            return step;
+        }
+
+        public void setStep(double step) {
+            this.step = step;
+        }
+
+        /**
+         * @return - number of grid values from the start to the end of the range inclusive.
+         */
+        int size() {
+            if (step <= 0 || to <= from) {
+                return 1;
+            }
+            return (int) Math.floor((to - from) / step + 1e-9) + 1;
+        }
+
+        double value(int index) {
+            return from + index * step;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.zylex.betbot.service.optimizer;
+
+/**
+ * Specifies state of the optimization job.
+ */
+public enum OptimizationStatus {
+    RUNNING,
+    COMPLETED,
+    CANCELLED,
+    FAILED
+}
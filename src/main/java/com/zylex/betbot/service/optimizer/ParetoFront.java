@@ -0,0 +1,57 @@
+package com.zylex.betbot.service.optimizer;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Set of points, which are not dominated by each other by final bank, drawdown and volume.
+ */
+class ParetoFront {
+
+    private final List<OptimizationPoint> points = new ArrayList<>();
+
+    /**
+     * Checks scores before the point is created, so dominated points cost no allocation.
+     * @param finalBank - compounded bank at the end of history.
+     * @param drawdown - maximum drawdown.
+     * @param volume - number of games.
+     * @return - true if some point of the front is not worse by every score.
+     */
+    boolean isDominated(double finalBank, double drawdown, int volume) {
+        for (OptimizationPoint point : points) {
+            if (point.getFinalBank() >= finalBank && point.getDrawdown() <= drawdown && point.getVolume() >= volume) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds the point, if it is not dominated, and removes points dominated by it.
+     * @param candidate - point to add.
+     */
+    void add(OptimizationPoint candidate) {
+        if (isDominated(candidate.getFinalBank(), candidate.getDrawdown(), candidate.getVolume())) {
+            return;
+        }
+        Iterator<OptimizationPoint> iterator = points.iterator();
+        while (iterator.hasNext()) {
+            if (candidate.dominates(iterator.next())) {
+                iterator.remove();
+            }
+        }
+        points.add(candidate);
+    }
+
+    ParetoFront merge(ParetoFront other) {
+        for (OptimizationPoint point : other.points) {
+            add(point);
+        }
+        return this;
+    }
+
+    List<OptimizationPoint> getPoints() {
+        return points;
+    }
+}
@@ -0,0 +1,325 @@
+package com.zylex.betbot.service.optimizer;
+
+import com.zylex.betbot.controller.logger.ConsoleLogger;
+import com.zylex.betbot.exception.OptimizerException;
+import com.zylex.betbot.model.rule.Rule;
+import com.zylex.betbot.model.rule.RuleCondition;
+import com.zylex.betbot.service.archive.GameArchive;
+import com.zylex.betbot.service.archive.GameArchiveStore;
+import com.zylex.betbot.service.rule.CompiledRule;
+import com.zylex.betbot.service.rule.LeagueFilterCache;
+import com.zylex.betbot.service.rule.RuleCompiler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sweeps values of rule conditions and stake percent over game history in the background,
+ * and finds the Pareto front of final compounded bank, drawdown and volume.
+ * Games, which pass the rest of rule conditions, are selected once into a compact matrix,
+ * then points are evaluated in parallel, every part keeping its own front, which are merged at the end.
+ */
+@Service
+public class RuleOptimizer {
+
+    private static final int POINTS_PER_TASK = 64;
+
+    private final GameArchiveStore gameArchiveStore;
+
+    private final RuleCompiler ruleCompiler;
+
+    private final LeagueFilterCache leagueFilterCache;
+
+    private final ExecutorService jobExecutor = Executors.newSingleThreadExecutor();
+
+    private final ForkJoinPool sweepPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    private final Map<Long, OptimizationJob> jobs = new ConcurrentHashMap<>();
+
+    private final AtomicLong jobIds = new AtomicLong();
+
+    @Value("${optimizer.max-evaluations:100000000}")
+    private long maxEvaluations;
+
+    @Value("${optimizer.kept-jobs:20}")
+    private int keptJobs;
+
+    @Autowired
+    public RuleOptimizer(GameArchiveStore gameArchiveStore,
+                         RuleCompiler ruleCompiler,
+                         LeagueFilterCache leagueFilterCache) {
+        this.gameArchiveStore = gameArchiveStore;
+        this.ruleCompiler = ruleCompiler;
+        this.leagueFilterCache = leagueFilterCache;
+    }
+
+    @PreDestroy
+    private void preDestroy() {
+        jobExecutor.shutdownNow();
+        sweepPool.shutdownNow();
+    }
+
+    /**
+     * Validates the request and starts the optimization job. Jobs run one at a time.
+     * @param request - optimization parameters.
+     * @return - started job.
+     * @throws OptimizerException - if the request is invalid or too large.
+     */
+    public OptimizationJob start(OptimizationRequest request) {
+        Sweep sweep = prepare(request);
+        OptimizationJob job = new OptimizationJob(jobIds.incrementAndGet(), sweep.points);
+        jobs.put(job.getId(), job);
+        evictFinishedJobs();
+        jobExecutor.submit(() -> run(job, sweep));
+        return job;
+    }
+
+    /**
+     * @param id - id of the job.
+     * @return - job, or null if it is not found.
+     */
+    public OptimizationJob findJob(long id) {
+        return jobs.get(id);
+    }
+
+    /**
+     * Stops evaluation of the job, the front of already evaluated points is kept.
+     * @param id - id of the job.
+     * @return - job, or null if it is not found.
+     */
+    public OptimizationJob cancel(long id) {
+        OptimizationJob job = jobs.get(id);
+        if (job != null) {
+            job.cancel();
+        }
+        return job;
+    }
+
+    private void run(OptimizationJob job, Sweep sweep) {
+        try {
+            GameArchive archive = gameArchiveStore.getArchive();
+            long[][] allowedRules = leagueFilterCache.findAllowedRules(
+                    Collections.singletonList(sweep.fixedRule), archive.getLeagueLinks(), 1);
+            SweepMatrix matrix = SweepMatrix.build(archive, sweep.fixedRule, allowedRules, sweep.sweptRule, sweep.betColumns);
+            ParetoFront front = sweepPool.invoke(new SweepTask(job, sweep, matrix, 0, sweep.points));
+            List<OptimizationPoint> points = new ArrayList<>(front.getPoints());
+            points.sort(Comparator.comparingDouble(OptimizationPoint::getFinalBank).reversed());
+            job.finish(job.isCancelled() ? OptimizationStatus.CANCELLED : OptimizationStatus.COMPLETED, points);
+        } catch (RuntimeException e) {
+            ConsoleLogger.writeErrorMessage("Optimization " + job.getId() + " failed: " + e.getMessage(), e);
+            job.finish(OptimizationStatus.FAILED, Collections.emptyList());
+        }
+    }
+
+    private void evictFinishedJobs() {
+        if (jobs.size() <= keptJobs) return;
+        List<Long> finishedIds = new ArrayList<>();
+        for (OptimizationJob job : jobs.values()) {
+            if (job.getStatus() != OptimizationStatus.RUNNING) {
+                finishedIds.add(job.getId());
+            }
+        }
+        Collections.sort(finishedIds);
+        for (int i = 0; i < finishedIds.size() && jobs.size() > keptJobs; i++) {
+            jobs.remove(finishedIds.get(i));
+        }
+    }
+
+    private Sweep prepare(OptimizationRequest request) {
+        Rule rule = request.getRule();
+        if (rule == null) {
+            throw new OptimizerException("Rule to optimize is not specified");
+        }
+        if (rule.getBetCoefficient() == null) {
+            throw new OptimizerException("Bet coefficient of the rule is not specified");
+        }
+        Set<Integer> sweptIndexes = new HashSet<>();
+        Rule sweptRule = copyRule(rule);
+        for (OptimizationRequest.Range range : request.getThresholds()) {
+            int condition = range.getCondition();
+            if (condition < 0 || condition >= rule.getRuleConditions().size() || !sweptIndexes.add(condition)) {
+                throw new OptimizerException("Invalid condition index to sweep: " + condition);
+            }
+            RuleCondition ruleCondition = rule.getRuleConditions().get(condition);
+            RuleCondition sweptCondition = new RuleCondition(ruleCondition.getCoefficient(), ruleCondition.getOperator(), 0);
+            sweptCondition.setEnabled(true);
+            sweptRule.getRuleConditions().add(sweptCondition);
+        }
+        Rule fixedRule = copyRule(rule);
+        for (int condition = 0; condition < rule.getRuleConditions().size(); condition++) {
+            if (!sweptIndexes.contains(condition)) {
+                fixedRule.getRuleConditions().add(rule.getRuleConditions().get(condition));
+            }
+        }
+        Sweep sweep = new Sweep();
+        sweep.fixedRule = ruleCompiler.compileUncached(fixedRule);
+        sweep.sweptRule = ruleCompiler.compileUncached(sweptRule);
+        try {
+            sweep.betColumns = SweepMatrix.betColumns(Arrays.asList(rule.getBetCoefficient().split("__")));
+        } catch (IllegalArgumentException e) {
+            throw new OptimizerException("Invalid bet coefficient: " + rule.getBetCoefficient(), e);
+        }
+        sweep.thresholds = request.getThresholds().toArray(new OptimizationRequest.Range[0]);
+        sweep.percents = percents(request.getPercent(), rule.getPercent());
+        sweep.random = request.isRandom();
+        sweep.seed = request.getSeed();
+        sweep.minVolume = request.getMinVolume();
+        sweep.points = countPoints(request, sweep.thresholds);
+        if (sweep.points > maxEvaluations / sweep.percents.length) {
+            throw new OptimizerException(String.format("Too many evaluations: %d points with %d percents, max %d",
+                    sweep.points, sweep.percents.length, maxEvaluations));
+        }
+        return sweep;
+    }
+
+    private static Rule copyRule(Rule rule) {
+        Rule copy = new Rule();
+        copy.setName(rule.getName());
+        copy.setSelectedLeagues(rule.isSelectedLeagues());
+        copy.setBetCoefficient(rule.getBetCoefficient());
+        copy.setPercent(rule.getPercent());
+        return copy;
+    }
+
+    private static double[] percents(OptimizationRequest.Range range, double rulePercent) {
+        if (range == null) {
+            return new double[]{rulePercent};
+        }
+        double[] percents = new double[range.size()];
+        for (int i = 0; i < percents.length; i++) {
+            percents[i] = range.value(i);
+        }
+        return percents;
+    }
+
+    private static long countPoints(OptimizationRequest request, OptimizationRequest.Range[] thresholds) {
+        if (request.isRandom()) {
+            if (request.getSamples() <= 0) {
+                throw new OptimizerException("Number of random samples is not specified");
+            }
+            return request.getSamples();
+        }
+        long points = 1;
+        for (OptimizationRequest.Range range : thresholds) {
+            points *= range.size();
+            if (points > Integer.MAX_VALUE) {
+                throw new OptimizerException("Too many grid points");
+            }
+        }
+        return points;
+    }
+
+    /**
+     * Prepared optimization parameters.
+     */
+    private static class Sweep {
+
+        private CompiledRule fixedRule;
+
+        private CompiledRule sweptRule;
+
+        private int[] betColumns;
+
+        private OptimizationRequest.Range[] thresholds;
+
+        private double[] percents;
+
+        private boolean random;
+
+        private long seed;
+
+        private int minVolume;
+
+        private long points;
+
+        /**
+         * Puts values of swept conditions of the point.
+         * @param point - index of the point.
+         * @param values - array to fill.
+         */
+        void thresholds(long point, double[] values) {
+            if (random) {
+                for (int i = 0; i < thresholds.length; i++) {
+                    double uniform = (mix(seed + point * thresholds.length + i) >>> 11) * 0x1.0p-53;
+                    values[i] = thresholds[i].getFrom() + uniform * (thresholds[i].getTo() - thresholds[i].getFrom());
+                }
+                return;
+            }
+            for (int i = thresholds.length - 1; i >= 0; i--) {
+                int size = thresholds[i].size();
+                values[i] = thresholds[i].value((int) (point % size));
+                point /= size;
+            }
+        }
+
+        private static long mix(long value) {
+            value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+            value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+            return value ^ (value >>> 31);
+        }
+    }
+
+    /**
+     * Evaluates a range of points, splitting it in halves until it is small enough.
+     */
+    private static class SweepTask extends RecursiveTask<ParetoFront> {
+
+        private final OptimizationJob job;
+
+        private final Sweep sweep;
+
+        private final SweepMatrix matrix;
+
+        private final long from;
+
+        private final long to;
+
+        SweepTask(OptimizationJob job, Sweep sweep, SweepMatrix matrix, long from, long to) {
+            this.job = job;
+            this.sweep = sweep;
+            this.matrix = matrix;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected ParetoFront compute() {
+            if (to - from > POINTS_PER_TASK) {
+                long middle = (from + to) >>> 1;
+                SweepTask left = new SweepTask(job, sweep, matrix, from, middle);
+                left.fork();
+                ParetoFront right = new SweepTask(job, sweep, matrix, middle, to).compute();
+                return left.join().merge(right);
+            }
+            ParetoFront front = new ParetoFront();
+            int percentsNumber = sweep.percents.length;
+            double[] thresholds = new double[sweep.thresholds.length];
+            double[] banks = new double[percentsNumber];
+            double[] drawdowns = new double[percentsNumber];
+            double[] peaks = new double[percentsNumber];
+            double[] troughs = new double[percentsNumber];
+            double[] bounds = new double[thresholds.length];
+            double[] returned = new double[1];
+            long evaluated = 0;
+            for (long point = from; point < to && !job.isCancelled(); point++) {
+                sweep.thresholds(point, thresholds);
+                int volume = matrix.evaluate(thresholds, sweep.percents, banks, drawdowns, peaks, troughs, bounds, returned);
+                evaluated++;
+                if (volume < sweep.minVolume) continue;
+                double roi = matrix.roi(volume, returned[0]);
+                for (int i = 0; i < percentsNumber; i++) {
+                    if (front.isDominated(banks[i], drawdowns[i], volume)) continue;
+                    front.add(new OptimizationPoint(thresholds.clone(), sweep.percents[i], roi, drawdowns[i],
+                            volume, banks[i]));
+                }
+            }
+            job.addEvaluated(evaluated);
+            return front;
+        }
+    }
+}
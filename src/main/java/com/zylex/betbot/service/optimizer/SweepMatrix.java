@@ -0,0 +1,191 @@
+package com.zylex.betbot.service.optimizer;
+
+import com.zylex.betbot.model.game.GameResult;
+import com.zylex.betbot.service.archive.GameArchive;
+import com.zylex.betbot.service.rule.CompiledRule;
+import com.zylex.betbot.service.rule.GameCoefficient;
+import com.zylex.betbot.service.rule.RuleIndex;
+import com.zylex.betbot.service.rule.RuleOperator;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * History games, which pass fixed conditions and league filters of the rule, in compact primitive columns.
+ * Keeps only coefficients of swept conditions and the payout of bets of the rule, so one point is evaluated
+ * by one sequential pass without allocations. Columns of LESS conditions are negated,
+ * so every condition is checked as one comparison with the bound.
+ */
+class SweepMatrix {
+
+    private final int size;
+
+    private final double[][] sweptColumns;
+
+    private final double[] signs;
+
+    private final boolean[] inclusive;
+
+    private final double[] payouts;
+
+    private final int betsPerGame;
+
+    private SweepMatrix(int size, double[][] sweptColumns, double[] signs, boolean[] inclusive,
+                        double[] payouts, int betsPerGame) {
+        this.size = size;
+        this.sweptColumns = sweptColumns;
+        this.signs = signs;
+        this.inclusive = inclusive;
+        this.payouts = payouts;
+        this.betsPerGame = betsPerGame;
+    }
+
+    /**
+     * Selects history games, which match the fixed rule, and lays out swept coefficients and payouts.
+     * @param archive - game archive.
+     * @param fixedRule - rule with conditions, which are not swept.
+     * @param allowedRules - bitsets of allowed rules by league index, for the fixed rule.
+     * @param sweptRule - rule with swept conditions only, its values are ignored.
+     * @param betColumns - columns of coefficients to bet on.
+     * @return - sweep matrix.
+     */
+    static SweepMatrix build(GameArchive archive, CompiledRule fixedRule, long[][] allowedRules,
+                             CompiledRule sweptRule, int[] betColumns) {
+        RuleIndex fixedIndex = new RuleIndex(Collections.singletonList(fixedRule));
+        double[][] columns = archive.getCoefficientColumns();
+        int swept = sweptRule.getConditionsNumber();
+        double[][] sweptColumns = new double[swept][archive.size()];
+        double[] payouts = new double[archive.size()];
+        long[] matched = new long[fixedIndex.words()];
+        int size = 0;
+        for (int row = 0; row < archive.size(); row++) {
+            if ((allowedRules[archive.getLeague(row)][0] & 1L) == 0) continue;
+            fixedIndex.match(columns, row, matched);
+            if (matched[0] == 0) continue;
+            for (int condition = 0; condition < swept; condition++) {
+                sweptColumns[condition][size] = columns[sweptRule.getColumn(condition)][row];
+            }
+            payouts[size] = payout(columns, row, archive.getResultOrdinal(row), betColumns);
+            size++;
+        }
+        double[] signs = new double[swept];
+        boolean[] inclusive = new boolean[swept];
+        for (int condition = 0; condition < swept; condition++) {
+            RuleOperator operator = sweptRule.getOperator(condition);
+            signs[condition] = operator == RuleOperator.MORE || operator == RuleOperator.MORE_EVEN ? 1 : -1;
+            inclusive[condition] = operator == RuleOperator.MORE_EVEN || operator == RuleOperator.LESS_EVEN;
+            sweptColumns[condition] = Arrays.copyOf(sweptColumns[condition], size);
+            for (int row = 0; row < size; row++) {
+                sweptColumns[condition][row] *= signs[condition];
+            }
+        }
+        return new SweepMatrix(size, sweptColumns, signs, inclusive, Arrays.copyOf(payouts, size), betColumns.length);
+    }
+
+    private static double payout(double[][] columns, int row, byte result, int[] betColumns) {
+        double payout = 0;
+        for (int column : betColumns) {
+            if (wins(column, result)) {
+                payout += columns[column][row];
+            }
+        }
+        return payout;
+    }
+
+    private static boolean wins(int column, byte result) {
+        if (column == GameCoefficient.FIRST_WIN.COLUMN) {
+            return result == GameResult.FIRST_WIN.ordinal();
+        } else if (column == GameCoefficient.TIE.COLUMN) {
+            return result == GameResult.TIE.ordinal();
+        } else if (column == GameCoefficient.SECOND_WIN.COLUMN) {
+            return result == GameResult.SECOND_WIN.ordinal();
+        } else if (column == GameCoefficient.ONE_X.COLUMN) {
+            return result == GameResult.FIRST_WIN.ordinal() || result == GameResult.TIE.ordinal();
+        }
+        return result == GameResult.TIE.ordinal() || result == GameResult.SECOND_WIN.ordinal();
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Evaluates one point. Bank starts from 1, and every game of the point is bet with percent of the bank
+     * on every bet coefficient of the rule.
+     * @param thresholds - values of swept conditions.
+     * @param percents - stake percents.
+     * @param banks - final bank of every percent to fill.
+     * @param drawdowns - maximum drawdown of every percent to fill.
+     * @param peaks - scratch array of percents length.
+     * @param troughs - scratch array of percents length.
+     * @param bounds - scratch array of thresholds length.
+     * @param returned - array to put total payout of the games to.
+     * @return - number of games.
+     */
+    int evaluate(double[] thresholds, double[] percents, double[] banks, double[] drawdowns, double[] peaks,
+                 double[] troughs, double[] bounds, double[] returned) {
+        Arrays.fill(banks, 1);
+        Arrays.fill(peaks, 1);
+        Arrays.fill(troughs, 1);
+        Arrays.fill(drawdowns, 0);
+        int volume = 0;
+        double totalPayout = 0;
+        int conditions = inclusive.length;
+        for (int condition = 0; condition < conditions; condition++) {
+            bounds[condition] = signs[condition] * thresholds[condition];
+        }
+        for (int row = 0; row < size; row++) {
+            boolean passed = true;
+            for (int condition = 0; condition < conditions; condition++) {
+                double value = sweptColumns[condition][row];
+                passed &= inclusive[condition] ? value >= bounds[condition] : value > bounds[condition];
+            }
+            if (!passed) continue;
+            volume++;
+            double payout = payouts[row];
+            totalPayout += payout;
+            double net = payout - betsPerGame;
+            for (int i = 0; i < percents.length; i++) {
+                double bank = Math.max(0, banks[i] * (1 + percents[i] * net));
+                banks[i] = bank;
+                if (bank > peaks[i]) {
+                    closeDrawdown(i, peaks, troughs, drawdowns);
+                    peaks[i] = bank;
+                    troughs[i] = bank;
+                } else if (bank < troughs[i]) {
+                    troughs[i] = bank;
+                }
+            }
+        }
+        for (int i = 0; i < percents.length; i++) {
+            closeDrawdown(i, peaks, troughs, drawdowns);
+        }
+        returned[0] = totalPayout;
+        return volume;
+    }
+
+    private static void closeDrawdown(int i, double[] peaks, double[] troughs, double[] drawdowns) {
+        double drawdown = 1 - troughs[i] / peaks[i];
+        if (drawdown > drawdowns[i]) {
+            drawdowns[i] = drawdown;
+        }
+    }
+
+    /**
+     * @param volume - number of games.
+     * @param totalPayout - total payout of the games.
+     * @return - profit per staked unit.
+     */
+    double roi(int volume, double totalPayout) {
+        return volume == 0 ? 0 : totalPayout / ((double) volume * betsPerGame) - 1;
+    }
+
+    static int[] betColumns(List<String> betCoefficients) {
+        int[] columns = new int[betCoefficients.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = GameCoefficient.valueOf(betCoefficients.get(i)).COLUMN;
+        }
+        return columns;
+    }
+}
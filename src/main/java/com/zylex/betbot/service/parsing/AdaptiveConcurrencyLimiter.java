@@ -0,0 +1,144 @@
+package com.zylex.betbot.service.parsing;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits number of requests in flight to the site with additive increase and multiplicative decrease.
+ * Limit grows by one per fully used window of fast successful requests,
+ * and shrinks by backoff ratio on a slow, throttled or failed request. Limit shrinks at most once per window:
+ * requests, which were sent before the last decrease, saw the old limit and do not shrink it again.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final double backoffRatio;
+
+    private final long latencyThresholdMillis;
+
+    private double limit;
+
+    private int inFlight;
+
+    private long succeeded;
+
+    private long dropped;
+
+    private long rejected;
+
+    private boolean decreased;
+
+    private long lastDecreaseNanos;
+
+    AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio, long latencyThresholdMillis) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyThresholdMillis = latencyThresholdMillis;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * Waits for a free slot.
+     * @param timeoutMillis - maximum time to wait.
+     * @return - number of requests in flight including acquired one, or -1 if the request is rejected.
+     */
+    synchronized int acquire(long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (inFlight >= (int) limit) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                rejected++;
+                return -1;
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+        return ++inFlight;
+    }
+
+    /**
+     * Releases slot of the successful request.
+     * @param startNanos - System.nanoTime when the request was sent.
+     * @param inFlightOnStart - number of requests in flight, returned by acquire.
+     */
+    synchronized void onSuccess(long startNanos, int inFlightOnStart) {
+        inFlight--;
+        succeeded++;
+        if (TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos) > latencyThresholdMillis) {
+            decrease(startNanos);
+        } else if (inFlightOnStart * 2 >= limit) {
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+        notifyAll();
+    }
+
+    /**
+     * Releases slot of the request, which was throttled, timed out or failed on the site side.
+     * @param startNanos - System.nanoTime when the request was sent.
+     */
+    synchronized void onDropped(long startNanos) {
+        inFlight--;
+        dropped++;
+        decrease(startNanos);
+        notifyAll();
+    }
+
+    /**
+     * Releases slot of the request, which result says nothing about the site load.
+     */
+    synchronized void onIgnored() {
+        inFlight--;
+        notifyAll();
+    }
+
+    private void decrease(long startNanos) {
+        if (decreased && startNanos - lastDecreaseNanos < 0) {
+            return;
+        }
+        limit = Math.max(minLimit, limit * backoffRatio);
+        decreased = true;
+        lastDecreaseNanos = System.nanoTime();
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized long getSucceeded() {
+        return succeeded;
+    }
+
+    public synchronized long getDropped() {
+        return dropped;
+    }
+
+    public synchronized long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * @return - current values of limiter metrics by name.
+     */
+    public synchronized Map<String, Number> getMetrics() {
+        Map<String, Number> metrics = new LinkedHashMap<>();
+        metrics.put("limit", (int) limit);
+        metrics.put("inFlight", inFlight);
+        metrics.put("succeeded", succeeded);
+        metrics.put("dropped", dropped);
+        metrics.put("rejected", rejected);
+        return metrics;
+    }
+
+    @Override
+    public String toString() {
+        return "Limiter " + getMetrics();
+    }
+}
@@ -1,22 +1,14 @@
 package com.zylex.betbot.service.parsing;
 
-import com.zylex.betbot.controller.logger.ParsingConsoleLogger;
 import com.zylex.betbot.model.game.Game;
-import com.zylex.betbot.model.game.GameInfo;
-import com.zylex.betbot.model.game.GameResult;
-import com.zylex.betbot.model.game.League;
-import com.zylex.betbot.model.Day;
+import com.zylex.betbot.model.game.LeagueFingerprint;
+import com.zylex.betbot.service.corpus.PageCorpus;
+import com.zylex.betbot.service.corpus.PageType;
+import org.jsoup.Connection;
 import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
-import org.jsoup.nodes.Element;
-import org.jsoup.select.Elements;
 
 import javax.transaction.Transactional;
 import java.io.IOException;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.Callable;
@@ -26,89 +18,89 @@ import java.util.concurrent.Callable;
  */
 public class CallableGameParser implements Callable<List<Game>> {
 
-    private final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
-
     private final String leagueLink;
 
-    CallableGameParser(String leagueLink) {
+    private final LeagueFingerprintCache fingerprintCache;
+
+    private final GameExtractor gameExtractor;
+
+    private final PageCorpus pageCorpus;
+
+    private final ParseRun parseRun;
+
+    private final int timeoutMillis;
+
+    CallableGameParser(String leagueLink, LeagueFingerprintCache fingerprintCache, GameExtractor gameExtractor,
+                       PageCorpus pageCorpus, ParseRun parseRun, int timeoutMillis) {
         this.leagueLink = leagueLink;
+        this.fingerprintCache = fingerprintCache;
+        this.gameExtractor = gameExtractor;
+        this.pageCorpus = pageCorpus;
+        this.parseRun = parseRun;
+        this.timeoutMillis = timeoutMillis;
     }
 
     /**
      * Parse league link on the site and returns all matches for today and tomorrow.
-     * @return - list of games.
+     * League timeout of the parse run starts when the request is sent.
+     * @return - list of games, empty if the league failed or timed out.
      */
     @Override
     @Transactional
     public List<Game> call() {
         try {
+            parseRun.started(leagueLink);
             return processGameParsing();
-        } catch (IOException e) {
+        } catch (IOException | RuntimeException e) {
+            parseRun.fail(leagueLink, e);
             return Collections.emptyList();
         }
     }
 
+    /**
+     * Parse already fetched league page and returns all matches for today and tomorrow.
+     * Page without changes since the last parsing gives no games.
+     * @param page - fetched league page.
+     * @return - list of games, empty if the league timed out.
+     */
+    List<Game> parse(LeaguePage page) {
+        return parseChangedGames(page);
+    }
+
     private List<Game> processGameParsing() throws IOException {
-        ParsingConsoleLogger.logLeagueGame();
-        Document document = Jsoup.connect(String.format("https://1xstavka.ru/line/Football/%s", leagueLink))
+        if (pageCorpus.isReplay()) {
+            return parseChangedGames(new LeaguePage(leagueLink, pageCorpus.load(PageType.LEAGUE, leagueLink), null, null));
+        }
+        Connection connection = Jsoup.connect(String.format(LeagueHttpClient.LEAGUE_URL, leagueLink))
                 .userAgent("Chrome/4.0.249.0 Safari/532.5")
                 .referrer("http://www.google.com")
-                .get();
-        return parseGames(document);
-    }
-
-    private List<Game> parseGames(Document document) {
-        List<Game> games = new ArrayList<>();
-        String leagueName = document.select("span.c-events__liga").text();
-        Elements gameElements = document.select("div.c-events__item_game");
-        LocalDate today = LocalDate.now().plusDays(Day.TODAY.INDEX);
-        LocalDate tomorrow = LocalDate.now().plusDays(Day.TOMORROW.INDEX);
-        for (Element gameElement : gameElements) {
-            LocalDateTime dateTime = processDate(gameElement).plusHours(3);
-            if (dateTime.toLocalDate().isBefore(today)) {
-                continue;
-            } else if (dateTime.toLocalDate().isAfter(tomorrow)) {
-                break;
-            }
-            Elements teams = gameElement.select("span.c-events__team");
-            if (teams.isEmpty()) {
-                continue;
-            }
-            String firstTeam = teams.get(0).text();
-            String secondTeam = teams.get(1).text();
-            if (firstTeam.contains("(голы)")) {
-                continue;
-            }
-            Elements coefficients = gameElement.select("div.c-bets > a.c-bets__bet");
-            double firstWin = stringToDouble(coefficients.get(0).text());
-            double tie = stringToDouble(coefficients.get(1).text());
-            double secondWin = stringToDouble(coefficients.get(2).text());
-            double oneX = stringToDouble(coefficients.get(3).text());
-            double xTwo = stringToDouble(coefficients.get(5).text());
-            String link = gameElement.select("a.c-events__name")
-                    .attr("href")
-                    .replaceFirst("line", "live");
-            League league = new League(leagueName, leagueLink);
-            GameInfo gameInfo = new GameInfo(firstWin, tie, secondWin, oneX, xTwo);
-            Game game = new Game(dateTime, league, firstTeam, secondTeam, GameResult.NO_RESULT.toString(), link, gameInfo);
-            gameInfo.setGame(game);
-            games.add(game);
+                .timeout(timeoutMillis)
+                .ignoreHttpErrors(true);
+        LeagueFingerprint fingerprint = fingerprintCache.find(leagueLink);
+        if (fingerprint != null && fingerprint.getEtag() != null) {
+            connection.header("If-None-Match", fingerprint.getEtag());
         }
-        return games;
-    }
-
-    private LocalDateTime processDate(Element gameElement) {
-        String time = gameElement.select("div.c-events__time > span").text();
-        String year = String.valueOf(LocalDate.now().getYear());
-        time = time.replace(" ", String.format(".%s ", year)).substring(0, 16);
-        return LocalDateTime.parse(time, FORMATTER);
+        if (fingerprint != null && fingerprint.getLastModified() != null) {
+            connection.header("If-Modified-Since", fingerprint.getLastModified());
+        }
+        Connection.Response response = connection.execute();
+        if (response.statusCode() == 304) {
+            return parseChangedGames(LeaguePage.notModified(leagueLink));
+        } else if (response.statusCode() != 200) {
+            throw new IOException("HTTP status " + response.statusCode() + " for " + leagueLink);
+        }
+        pageCorpus.capture(PageType.LEAGUE, leagueLink, response.body());
+        return parseChangedGames(new LeaguePage(leagueLink, response.body(),
+                response.header("ETag"), response.header("Last-Modified")));
     }
 
-    private double stringToDouble(String value) {
-        if (value.equals("-") || value.isEmpty()) {
-            return 0d;
-        } else {
-            return Double.parseDouble(value);
-        }
+    private List<Game> parseChangedGames(LeaguePage page) {
+        LeagueFingerprint fingerprint = fingerprintCache.changedFingerprint(page);
+        List<Game> games = fingerprint == null
+                ? Collections.emptyList()
+                : gameExtractor.extract(leagueLink, page.getBody());
+        return parseRun.complete(leagueLink, games, fingerprint)
+                ? games
+                : Collections.emptyList();
     }
 }
@@ -0,0 +1,58 @@
+package com.zylex.betbot.service.parsing;
+
+import com.zylex.betbot.model.Day;
+import com.zylex.betbot.model.game.Game;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Elements;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Extracts games by building the whole document and selecting game elements.
+ */
+class DomGameExtractor extends GameExtractor {
+
+    @Override
+    List<Game> extract(String leagueLink, String body) {
+        return parseGames(leagueLink, Jsoup.parse(body, String.format(LeagueHttpClient.LEAGUE_URL, leagueLink)));
+    }
+
+    private List<Game> parseGames(String leagueLink, Document document) {
+        List<Game> games = new ArrayList<>();
+        String leagueName = document.select("span.c-events__liga").text();
+        Elements gameElements = document.select("div.c-events__item_game");
+        LocalDate today = LocalDate.now().plusDays(Day.TODAY.INDEX);
+        LocalDate tomorrow = LocalDate.now().plusDays(Day.TOMORROW.INDEX);
+        for (Element gameElement : gameElements) {
+            LocalDateTime dateTime = processDate(gameElement.select("div.c-events__time > span").text());
+            if (dateTime.toLocalDate().isBefore(today)) {
+                continue;
+            } else if (dateTime.toLocalDate().isAfter(tomorrow)) {
+                break;
+            }
+            Elements teams = gameElement.select("span.c-events__team");
+            Elements coefficients = gameElement.select("div.c-bets > a.c-bets__bet");
+            if (teams.size() < 2 || coefficients.size() < 6) {
+                continue;
+            }
+            String firstTeam = teams.get(0).text();
+            String secondTeam = teams.get(1).text();
+            if (firstTeam.contains("(голы)")) {
+                continue;
+            }
+            games.add(createGame(dateTime, leagueName, leagueLink, firstTeam, secondTeam,
+                    gameElement.select("a.c-events__name").attr("href"),
+                    stringToDouble(coefficients.get(0).text()),
+                    stringToDouble(coefficients.get(1).text()),
+                    stringToDouble(coefficients.get(2).text()),
+                    stringToDouble(coefficients.get(3).text()),
+                    stringToDouble(coefficients.get(5).text())));
+        }
+        return games;
+    }
+}
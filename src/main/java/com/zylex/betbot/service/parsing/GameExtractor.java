@@ -0,0 +1,62 @@
+package com.zylex.betbot.service.parsing;
+
+import com.zylex.betbot.model.game.Game;
+import com.zylex.betbot.model.game.GameInfo;
+import com.zylex.betbot.model.game.GameResult;
+import com.zylex.betbot.model.game.League;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Extracts football games from the league page.
+ */
+abstract class GameExtractor {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
+
+    /**
+     * Creates extractor by its name from configuration, "dom" or "streaming".
+     * @param name - name of the extractor.
+     * @return - extractor, DOM one by default.
+     */
+    static GameExtractor of(String name) {
+        return "streaming".equalsIgnoreCase(name)
+                ? new StreamingGameExtractor()
+                : new DomGameExtractor();
+    }
+
+    /**
+     * Extracts all matches for today and tomorrow from the page.
+     * @param leagueLink - link of the league.
+     * @param body - html of the league page.
+     * @return - list of games.
+     */
+    abstract List<Game> extract(String leagueLink, String body);
+
+    LocalDateTime processDate(String time) {
+        String year = String.valueOf(LocalDate.now().getYear());
+        time = time.replace(" ", String.format(".%s ", year)).substring(0, 16);
+        return LocalDateTime.parse(time, FORMATTER).plusHours(3);
+    }
+
+    double stringToDouble(String value) {
+        if (value.equals("-") || value.isEmpty()) {
+            return 0d;
+        } else {
+            return Double.parseDouble(value);
+        }
+    }
+
+    Game createGame(LocalDateTime dateTime, String leagueName, String leagueLink, String firstTeam, String secondTeam,
+                    String link, double firstWin, double tie, double secondWin, double oneX, double xTwo) {
+        League league = new League(leagueName, leagueLink);
+        GameInfo gameInfo = new GameInfo(firstWin, tie, secondWin, oneX, xTwo);
+        Game game = new Game(dateTime, league, firstTeam, secondTeam, GameResult.NO_RESULT.toString(),
+                link.replaceFirst("line", "live"), gameInfo);
+        gameInfo.setGame(game);
+        return game;
+    }
+}
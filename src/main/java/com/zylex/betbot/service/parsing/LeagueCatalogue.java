@@ -0,0 +1,126 @@
+package com.zylex.betbot.service.parsing;
+
+import com.zylex.betbot.controller.logger.ParsingConsoleLogger;
+import com.zylex.betbot.model.game.LeagueCatalogueEntry;
+import com.zylex.betbot.service.repository.LeagueCatalogueRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Persisted catalogue of league links. Parsing starts from the catalogue at once,
+ * while the site menu is refreshed in background, when the catalogue is older than TTL.
+ * Menu is parsed synchronously only on cold start, when the catalogue is empty.
+ */
+@Service
+public class LeagueCatalogue {
+
+    private final LeagueLinksParser leagueLinksParser;
+
+    private final LeagueCatalogueRepository leagueCatalogueRepository;
+
+    private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor();
+
+    @Value("${parsing.catalogue.ttl-minutes:360}")
+    private long ttlMinutes;
+
+    @Value("${parsing.catalogue.expire-days:3}")
+    private long expireDays;
+
+    private CompletableFuture<List<String>> refresh;
+
+    @Autowired
+    public LeagueCatalogue(LeagueLinksParser leagueLinksParser,
+                           LeagueCatalogueRepository leagueCatalogueRepository) {
+        this.leagueLinksParser = leagueLinksParser;
+        this.leagueCatalogueRepository = leagueCatalogueRepository;
+    }
+
+    @PreDestroy
+    private void preDestroy() {
+        refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * Finds league links for parsing. Leagues, which were absent in the menu longer than expire period, are skipped.
+     * @return - list of links, in order of discovery.
+     */
+    synchronized List<String> findLeagueLinks() {
+        LocalDateTime now = LocalDateTime.now();
+        List<LeagueCatalogueEntry> entries = leagueCatalogueRepository.findByLastSeenAfter(now.minusDays(expireDays));
+        if (entries.isEmpty()) {
+            List<String> leagueLinks = leagueLinksParser.processLeagueParsing();
+            merge(leagueLinks, now);
+            return leagueLinks;
+        }
+        if (refresh != null && refresh.isDone()) {
+            refresh = null;
+        }
+        LocalDateTime refreshedAt = entries.stream()
+                .map(LeagueCatalogueEntry::getLastSeen)
+                .max(Comparator.naturalOrder())
+                .orElse(now);
+        if (refresh == null && refreshedAt.isBefore(now.minusMinutes(ttlMinutes))) {
+            refresh = CompletableFuture.supplyAsync(this::refresh, refreshExecutor);
+            refresh.whenComplete((newLeagueLinks, e) -> {
+                if (e != null) ParsingConsoleLogger.logCatalogueRefreshFailed(e);
+            });
+        }
+        return entries.stream()
+                .sorted(Comparator.comparing(LeagueCatalogueEntry::getFirstSeen)
+                        .thenComparing(LeagueCatalogueEntry::getLeagueLink))
+                .map(LeagueCatalogueEntry::getLeagueLink)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Takes leagues, discovered by the finished background refresh.
+     * @return - list of new links, or empty list if the refresh is not finished or failed.
+     */
+    synchronized List<String> pollNewLeagueLinks() {
+        if (refresh == null || !refresh.isDone()) {
+            return Collections.emptyList();
+        }
+        List<String> newLeagueLinks = refresh.isCompletedExceptionally()
+                ? Collections.emptyList()
+                : refresh.join();
+        refresh = null;
+        return newLeagueLinks;
+    }
+
+    private List<String> refresh() {
+        return merge(leagueLinksParser.processLeagueParsing(), LocalDateTime.now());
+    }
+
+    private List<String> merge(List<String> leagueLinks, LocalDateTime now) {
+        Map<String, LeagueCatalogueEntry> entries = new HashMap<>();
+        for (LeagueCatalogueEntry entry : leagueCatalogueRepository.findAllById(leagueLinks)) {
+            entries.put(entry.getLeagueLink(), entry);
+        }
+        List<String> newLeagueLinks = new ArrayList<>();
+        List<LeagueCatalogueEntry> mergedEntries = new ArrayList<>();
+        for (String leagueLink : new LinkedHashSet<>(leagueLinks)) {
+            LeagueCatalogueEntry entry = entries.get(leagueLink);
+            if (entry == null) {
+                entry = new LeagueCatalogueEntry(leagueLink, now, now);
+                newLeagueLinks.add(leagueLink);
+            } else if (entry.getLastSeen().isBefore(now.minusDays(expireDays))) {
+                entry.setLastSeen(now);
+                newLeagueLinks.add(leagueLink);
+            } else {
+                entry.setLastSeen(now);
+            }
+            mergedEntries.add(entry);
+        }
+        leagueCatalogueRepository.saveAll(mergedEntries);
+        return newLeagueLinks;
+    }
+}
@@ -0,0 +1,175 @@
+package com.zylex.betbot.service.parsing;
+
+import com.zylex.betbot.model.game.LeagueFingerprint;
+import com.zylex.betbot.service.repository.LeagueFingerprintRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps hashes of league pages, so leagues without changes since the last parsing can be skipped.
+ */
+@Service
+public class LeagueFingerprintCache {
+
+    private static final String GAME_BLOCK_CLASS = "c-events__item_game";
+
+    private static final String BET_CLASS = "c-bets__bet";
+
+    private final LeagueFingerprintRepository leagueFingerprintRepository;
+
+    private final Map<String, LeagueFingerprint> fingerprints = new ConcurrentHashMap<>();
+
+    private final Map<String, LeagueFingerprint> pendingFingerprints = new ConcurrentHashMap<>();
+
+    private volatile boolean loaded;
+
+    @Autowired
+    public LeagueFingerprintCache(LeagueFingerprintRepository leagueFingerprintRepository) {
+        this.leagueFingerprintRepository = leagueFingerprintRepository;
+    }
+
+    /**
+     * Finds fingerprint of the last committed league page, taken today.
+     * @param leagueLink - link of the league.
+     * @return - fingerprint, or null if the league was not parsed today.
+     */
+    LeagueFingerprint find(String leagueLink) {
+        load();
+        LeagueFingerprint fingerprint = fingerprints.get(leagueLink);
+        if (fingerprint == null || !fingerprint.getDateTime().toLocalDate().isEqual(LocalDate.now())) {
+            return null;
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Checks whether games block of the page differs from the last committed one.
+     * @param page - fetched league page.
+     * @return - new fingerprint if the page has to be parsed, or null.
+     */
+    LeagueFingerprint changedFingerprint(LeaguePage page) {
+        if (page.isNotModified()) {
+            return null;
+        }
+        String hash = hash(page.getBody());
+        LeagueFingerprint fingerprint = find(page.getLeagueLink());
+        if (fingerprint != null && fingerprint.getHash().equals(hash)) {
+            return null;
+        }
+        return new LeagueFingerprint(page.getLeagueLink(), hash,
+                page.getEtag(), page.getLastModified(), LocalDateTime.now());
+    }
+
+    /**
+     * Keeps fingerprint of the page, which games were accepted by the parse run, until commit.
+     * @param fingerprint - fingerprint of the page.
+     */
+    void addPending(LeagueFingerprint fingerprint) {
+        pendingFingerprints.put(fingerprint.getLeagueLink(), fingerprint);
+    }
+
+    /**
+     * Saves fingerprints of pages, which games were processed.
+     * Fingerprints are used for skipping only after the surrounding transaction commits, and dropped on rollback.
+     */
+    public void commit() {
+        if (pendingFingerprints.isEmpty()) {
+            return;
+        }
+        Map<String, LeagueFingerprint> savedFingerprints = new HashMap<>(pendingFingerprints);
+        pendingFingerprints.clear();
+        leagueFingerprintRepository.saveAll(new ArrayList<>(savedFingerprints.values()));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            fingerprints.putAll(savedFingerprints);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+            @Override
+            public void afterCommit() {
+                fingerprints.putAll(savedFingerprints);
+            }
+        });
+    }
+
+    /**
+     * Drops fingerprints of pages, which games were not processed.
+     */
+    void discardPending() {
+        pendingFingerprints.clear();
+    }
+
+    private void load() {
+        if (loaded) return;
+        synchronized (this) {
+            if (loaded) return;
+            for (LeagueFingerprint fingerprint : leagueFingerprintRepository.findAll()) {
+                fingerprints.put(fingerprint.getLeagueLink(), fingerprint);
+            }
+            loaded = true;
+        }
+    }
+
+    /**
+     * Hashes games block of the page with collapsed whitespaces, from the first game to the last coefficient.
+     * Current date is hashed too, because set of parsed games depends on it.
+     * @param body - html of the page.
+     * @return - hex SHA-256 hash.
+     */
+    static String hash(String body) {
+        int start = body.indexOf(GAME_BLOCK_CLASS);
+        int end = body.lastIndexOf(BET_CLASS);
+        if (start < 0) {
+            start = end = 0;
+        } else if (end < start) {
+            end = body.length();
+        } else {
+            int closeTag = body.indexOf("</a>", end);
+            end = closeTag < 0 ? body.length() : closeTag;
+        }
+        StringBuilder normalized = new StringBuilder(end - start + 11).append(LocalDate.now()).append(' ');
+        boolean whitespace = false;
+        for (int i = start; i < end; i++) {
+            char c = body.charAt(i);
+            if (Character.isWhitespace(c)) {
+                whitespace = true;
+                continue;
+            }
+            if (whitespace) {
+                normalized.append(' ');
+                whitespace = false;
+            }
+            normalized.append(c);
+        }
+        return toHex(sha256(normalized.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static byte[] sha256(byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16))
+                    .append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,197 @@
+package com.zylex.betbot.service.parsing;
+
+import com.zylex.betbot.exception.ParseProcessorException;
+import com.zylex.betbot.model.game.LeagueFingerprint;
+import com.zylex.betbot.service.corpus.PageCorpus;
+import com.zylex.betbot.service.corpus.PageType;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.util.EntityUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Shared non-blocking http client for fetching league pages.
+ * Keeps connections alive between requests and adapts the number of requests in flight to the site health.
+ */
+@Service
+public class LeagueHttpClient {
+
+    static final String LEAGUE_URL = "https://1xstavka.ru/line/Football/%s";
+
+    private final PageCorpus pageCorpus;
+
+    @Value("${parsing.limiter.initial:16}")
+    private int initialLimit;
+
+    @Value("${parsing.limiter.min:2}")
+    private int minLimit;
+
+    @Value("${parsing.limiter.max:64}")
+    private int maxLimit;
+
+    @Value("${parsing.limiter.backoff:0.7}")
+    private double backoffRatio;
+
+    @Value("${parsing.limiter.latency-threshold-millis:5000}")
+    private long latencyThresholdMillis;
+
+    @Value("${parsing.limiter.acquire-timeout-millis:60000}")
+    private long acquireTimeoutMillis;
+
+    @Value("${parsing.http.timeout-millis:15000}")
+    private int timeoutMillis;
+
+    private CloseableHttpAsyncClient client;
+
+    private AdaptiveConcurrencyLimiter limiter;
+
+    @Autowired
+    public LeagueHttpClient(PageCorpus pageCorpus) {
+        this.pageCorpus = pageCorpus;
+    }
+
+    @PostConstruct
+    private void initiateClient() {
+        try {
+            DefaultConnectingIOReactor ioReactor = new DefaultConnectingIOReactor(IOReactorConfig.custom()
+                    .setConnectTimeout(timeoutMillis)
+                    .setSoTimeout(timeoutMillis)
+                    .setSoKeepAlive(true)
+                    .build());
+            PoolingNHttpClientConnectionManager connectionManager = new PoolingNHttpClientConnectionManager(ioReactor);
+            connectionManager.setMaxTotal(maxLimit);
+            connectionManager.setDefaultMaxPerRoute(maxLimit);
+            client = HttpAsyncClients.custom()
+                    .setConnectionManager(connectionManager)
+                    .setDefaultRequestConfig(RequestConfig.custom()
+                            .setConnectTimeout(timeoutMillis)
+                            .setSocketTimeout(timeoutMillis)
+                            .setConnectionRequestTimeout(timeoutMillis)
+                            .build())
+                    .setUserAgent("Chrome/4.0.249.0 Safari/532.5")
+                    .build();
+            client.start();
+            limiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, backoffRatio, latencyThresholdMillis);
+        } catch (IOReactorException e) {
+            throw new ParseProcessorException(e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    private void preDestroy() throws IOException {
+        client.close();
+    }
+
+    public AdaptiveConcurrencyLimiter getLimiter() {
+        return limiter;
+    }
+
+    /**
+     * Sends request for the league page, blocks while the in-flight limit is reached.
+     * Request waiting longer than acquire timeout, or than the max wait, is rejected.
+     * Cancelling the returned future aborts the request. In corpus replay mode the page is read from the corpus.
+     * @param leagueLink - link of the league.
+     * @param fingerprint - fingerprint of the last parsed page for conditional request, may be null.
+     * @param maxWaitMillis - maximum time to wait for a free slot, like time left to the run deadline.
+     * @return - future of the page, completed on the client I/O thread.
+     */
+    CompletableFuture<LeaguePage> fetch(String leagueLink, LeagueFingerprint fingerprint, long maxWaitMillis) throws InterruptedException {
+        CompletableFuture<LeaguePage> page = new CompletableFuture<>();
+        if (pageCorpus.isReplay()) {
+            try {
+                page.complete(new LeaguePage(leagueLink, pageCorpus.load(PageType.LEAGUE, leagueLink), null, null));
+            } catch (IOException e) {
+                page.completeExceptionally(e);
+            }
+            return page;
+        }
+        int inFlightOnStart = limiter.acquire(Math.min(acquireTimeoutMillis, maxWaitMillis));
+        if (inFlightOnStart < 0) {
+            page.completeExceptionally(new RejectedExecutionException("Request limit is reached for " + leagueLink));
+            return page;
+        }
+        long startNanos = System.nanoTime();
+        HttpGet request = new HttpGet(String.format(LEAGUE_URL, leagueLink));
+        request.setHeader(HttpHeaders.REFERER, "http://www.google.com");
+        if (fingerprint != null && fingerprint.getEtag() != null) {
+            request.setHeader(HttpHeaders.IF_NONE_MATCH, fingerprint.getEtag());
+        }
+        if (fingerprint != null && fingerprint.getLastModified() != null) {
+            request.setHeader(HttpHeaders.IF_MODIFIED_SINCE, fingerprint.getLastModified());
+        }
+        Future<HttpResponse> responseFuture = client.execute(request, new FutureCallback<HttpResponse>() {
+
+            @Override
+            public void completed(HttpResponse response) {
+                int status = response.getStatusLine().getStatusCode();
+                if (status == 200 || status == 304) {
+                    limiter.onSuccess(startNanos, inFlightOnStart);
+                } else if (status == 429 || status == 503) {
+                    limiter.onDropped(startNanos);
+                } else {
+                    limiter.onIgnored();
+                }
+                try {
+                    if (status == 304) {
+                        page.complete(LeaguePage.notModified(leagueLink));
+                        return;
+                    } else if (status != 200) {
+                        EntityUtils.consumeQuietly(response.getEntity());
+                        page.completeExceptionally(new IOException("HTTP status " + status + " for " + leagueLink));
+                        return;
+                    }
+                    String body = EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
+                    pageCorpus.capture(PageType.LEAGUE, leagueLink, body);
+                    page.complete(new LeaguePage(leagueLink, body,
+                            headerValue(response, HttpHeaders.ETAG),
+                            headerValue(response, HttpHeaders.LAST_MODIFIED)));
+                } catch (IOException | RuntimeException e) {
+                    page.completeExceptionally(e);
+                }
+            }
+
+            @Override
+            public void failed(Exception e) {
+                limiter.onDropped(startNanos);
+                page.completeExceptionally(e);
+            }
+
+            @Override
+            public void cancelled() {
+                limiter.onIgnored();
+                page.cancel(false);
+            }
+        });
+        page.whenComplete((leaguePage, e) -> {
+            if (page.isCancelled()) {
+                responseFuture.cancel(true);
+            }
+        });
+        return page;
+    }
+
+    private static String headerValue(HttpResponse response, String name) {
+        Header header = response.getFirstHeader(name);
+        return header == null ? null : header.getValue();
+    }
+}
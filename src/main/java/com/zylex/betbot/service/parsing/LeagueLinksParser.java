@@ -1,11 +1,13 @@
 package com.zylex.betbot.service.parsing;
 
-import com.zylex.betbot.controller.logger.ParsingConsoleLogger;
 import com.zylex.betbot.exception.LeagueParserException;
+import com.zylex.betbot.service.corpus.PageCorpus;
+import com.zylex.betbot.service.corpus.PageType;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.io.*;
@@ -18,6 +20,15 @@ import java.util.List;
 @Service
 class LeagueLinksParser {
 
+    private static final String MENU_URL = "https://1xstavka.ru/line/Football/";
+
+    private final PageCorpus pageCorpus;
+
+    @Autowired
+    LeagueLinksParser(PageCorpus pageCorpus) {
+        this.pageCorpus = pageCorpus;
+    }
+
     /**
      * Gets links on leagues which include football matches from the site,
      * puts them into list and return.
@@ -25,16 +36,33 @@ class LeagueLinksParser {
      */
     List<String> processLeagueParsing() {
         try {
-            return parseLeagueLinks();
+            return parseLeagueLinks(connectToSite());
         } catch (IOException e) {
             //TODO read time out
             throw new LeagueParserException(e.getMessage(), e);
         }
     }
 
-    private List<String> parseLeagueLinks() throws IOException {
+    private Document connectToSite() throws IOException {
+        if (pageCorpus.isReplay()) {
+            return Jsoup.parse(pageCorpus.load(PageType.MENU, "menu"), MENU_URL);
+        }
+        String body = Jsoup.connect(MENU_URL)
+                    .userAgent("Chrome/4.0.249.0 Safari/532.5")
+                    .referrer("http://www.google.com")
+                    .execute()
+                    .body();
+        pageCorpus.capture(PageType.MENU, "menu", body);
+        return Jsoup.parse(body, MENU_URL);
+    }
+
+    /**
+     * Selects football league links from the menu page.
+     * @param document - menu page.
+     * @return - list of links.
+     */
+    static List<String> parseLeagueLinks(Document document) {
         List<String> leagueLinks = new ArrayList<>();
-        Document document = connectToSite();
         Elements leagueLinksElements = document.select("ul.liga_menu > li > a.link");
         for (Element element : leagueLinksElements) {
             String link = element.attr("href");
@@ -42,18 +70,10 @@ class LeagueLinksParser {
                 leagueLinks.add(link.replace("line/Football/", ""));
             }
         }
-        ParsingConsoleLogger.logLeague();
         return leagueLinks;
     }
 
-    private Document connectToSite() throws IOException {
-        return Jsoup.connect("https://1xstavka.ru/line/Football/")
-                    .userAgent("Chrome/4.0.249.0 Safari/532.5")
-                    .referrer("http://www.google.com")
-                    .get();
-    }
-
-    private boolean checkLeagueLink(String link) {
+    private static boolean checkLeagueLink(String link) {
         return link.contains("Football")
                 && !link.contains("Special")
                 && !link.contains("Statistics");
@@ -0,0 +1,51 @@
+package com.zylex.betbot.service.parsing;
+
+/**
+ * Response of the site on the league page request.
+ */
+class LeaguePage {
+
+    private final String leagueLink;
+
+    private final String body;
+
+    private final String etag;
+
+    private final String lastModified;
+
+    LeaguePage(String leagueLink, String body, String etag, String lastModified) {
+        this.leagueLink = leagueLink;
+        this.body = body;
+        this.etag = etag;
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * Creates page for the "304 Not Modified" response.
+     * @param leagueLink - link of the league.
+     * @return - page without body.
+     */
+    static LeaguePage notModified(String leagueLink) {
+        return new LeaguePage(leagueLink, null, null, null);
+    }
+
+    String getLeagueLink() {
+        return leagueLink;
+    }
+
+    String getBody() {
+        return body;
+    }
+
+    String getEtag() {
+        return etag;
+    }
+
+    String getLastModified() {
+        return lastModified;
+    }
+
+    boolean isNotModified() {
+        return body == null;
+    }
+}
@@ -0,0 +1,10 @@
+package com.zylex.betbot.service.parsing;
+
+/**
+ * Status of the league in the parse run.
+ */
+public enum LeagueParseStatus {
+    COMPLETED,
+    TIMED_OUT,
+    FAILED
+}
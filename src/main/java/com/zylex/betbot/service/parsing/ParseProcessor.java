@@ -4,16 +4,16 @@ import com.zylex.betbot.controller.logger.LogType;
 import com.zylex.betbot.controller.logger.ParsingConsoleLogger;
 import com.zylex.betbot.exception.ParseProcessorException;
 import com.zylex.betbot.model.game.Game;
+import com.zylex.betbot.service.corpus.PageCorpus;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PreDestroy;
 import javax.transaction.Transactional;
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.concurrent.*;
 
 /**
  * Parsing football games from the site.
@@ -23,43 +23,162 @@ public class ParseProcessor {
 
     private final LeagueLinksParser leagueLinksParser;
 
+    private final LeagueCatalogue leagueCatalogue;
+
+    private final LeagueHttpClient leagueHttpClient;
+
+    private final LeagueFingerprintCache fingerprintCache;
+
+    private final PageCorpus pageCorpus;
+
+    private final ExecutorService parseExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+
+    private final ScheduledThreadPoolExecutor timeoutScheduler = new ScheduledThreadPoolExecutor(1);
+
+    @Value("${parsing.async:true}")
+    private boolean asyncParsing;
+
+    @Value("${parsing.extractor:dom}")
+    private String extractorName;
+
+    @Value("${parsing.league-timeout-seconds:30}")
+    private long leagueTimeoutSeconds;
+
+    @Value("${parsing.run-deadline-seconds:240}")
+    private long runDeadlineSeconds;
+
+    private volatile ParseResult lastResult;
+
+    private volatile ParseRun currentRun;
+
     @Autowired
-    public ParseProcessor(LeagueLinksParser leagueLinksParser) {
+    public ParseProcessor(LeagueLinksParser leagueLinksParser,
+                          LeagueCatalogue leagueCatalogue,
+                          LeagueHttpClient leagueHttpClient,
+                          LeagueFingerprintCache fingerprintCache,
+                          PageCorpus pageCorpus) {
         this.leagueLinksParser = leagueLinksParser;
+        this.leagueCatalogue = leagueCatalogue;
+        this.leagueHttpClient = leagueHttpClient;
+        this.fingerprintCache = fingerprintCache;
+        this.pageCorpus = pageCorpus;
+        timeoutScheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    @PreDestroy
+    private void preDestroy() {
+        parseExecutor.shutdownNow();
+        timeoutScheduler.shutdownNow();
+    }
+
+    public ParseResult getLastResult() {
+        return lastResult;
+    }
+
+    /**
+     * Cancels the running parse run, like on shutdown. Unfinished leagues are marked as timed out,
+     * no more leagues are requested, and the run returns games of the completed leagues.
+     */
+    public void cancel() {
+        ParseRun parseRun = currentRun;
+        if (parseRun != null) {
+            parseRun.close();
+        }
     }
 
     /**
      * Gets links on leagues which include football matches, then pulls information about matches from every link,
-     * puts matches into list, and return it.
-     * @return - list of games.
+     * puts matches into list, and return it. Leagues without changes since the last commit
+     * of fingerprints are skipped. Links are taken from the league catalogue, and leagues,
+     * discovered by the catalogue refresh during parsing, are parsed after the others.
+     * League, which is not parsed in its timeout or before the run deadline, is cancelled,
+     * and the run returns games of the other leagues.
+     * @return - games and status of every league.
      */
     @Transactional
-    public List<Game> process() {
+    public ParseResult process() {
         try {
+            fingerprintCache.discardPending();
             ParsingConsoleLogger.startLogMessage(LogType.PARSING_SITE_START, 0);
-            List<String> leagueLinks = leagueLinksParser.processLeagueParsing();
-            ParsingConsoleLogger.startLogMessage(LogType.LEAGUES, leagueLinks.size());
-            return processGameParsing(leagueLinks);
-        } catch (InterruptedException | ExecutionException e) {
+            List<String> leagueLinks = pageCorpus.isReplay()
+                    ? leagueLinksParser.processLeagueParsing()
+                    : leagueCatalogue.findLeagueLinks();
+            ParsingConsoleLogger.logLeague();
+            GameExtractor gameExtractor = GameExtractor.of(extractorName);
+            ParseRun parseRun = new ParseRun(fingerprintCache, timeoutScheduler,
+                    TimeUnit.SECONDS.toMillis(leagueTimeoutSeconds), TimeUnit.SECONDS.toMillis(runDeadlineSeconds));
+            ExecutorService poolService = asyncParsing ? null : Executors.newWorkStealingPool();
+            currentRun = parseRun;
+            try {
+                processGameParsing(parseRun, leagueLinks, gameExtractor, poolService);
+                List<String> newLeagueLinks = leagueCatalogue.pollNewLeagueLinks();
+                if (!newLeagueLinks.isEmpty() && parseRun.remainingMillis() > 0) {
+                    processGameParsing(parseRun, newLeagueLinks, gameExtractor, poolService);
+                }
+            } finally {
+                currentRun = null;
+                lastResult = parseRun.close();
+                if (poolService != null) {
+                    poolService.shutdownNow();
+                }
+            }
+            ParsingConsoleLogger.logParseResult(lastResult);
+            ParsingConsoleLogger.logLimiter(leagueHttpClient.getLimiter());
+            return lastResult;
+        } catch (InterruptedException e) {
             throw new ParseProcessorException(e.getMessage(), e);
         }
     }
 
-    private List<Game> processGameParsing(List<String> leagueLinks) throws InterruptedException, ExecutionException {
-        ExecutorService service = Executors.newWorkStealingPool();
-        try {
-            List<CallableGameParser> callableGameParsers = new ArrayList<>();
-            for (String leagueLink : leagueLinks) {
-                callableGameParsers.add(new CallableGameParser(leagueLink));
-            }
-            List<Future<List<Game>>> futureGameParsers = service.invokeAll(callableGameParsers);
-            List<Game> games = new ArrayList<>();
-            for (Future<List<Game>> gameList : futureGameParsers) {
-                games.addAll(gameList.get());
-            }
-            return games;
-        } finally {
-            service.shutdown();
+    private void processGameParsing(ParseRun parseRun, List<String> leagueLinks, GameExtractor gameExtractor,
+                                    ExecutorService poolService) throws InterruptedException {
+        ParsingConsoleLogger.startLogMessage(LogType.LEAGUES, leagueLinks.size());
+        parseRun.addLeagues(leagueLinks);
+        if (poolService == null) {
+            processAsyncGameParsing(parseRun, leagueLinks, gameExtractor);
+        } else {
+            processPoolGameParsing(parseRun, leagueLinks, gameExtractor, poolService);
+        }
+        parseRun.await();
+    }
+
+    private void processPoolGameParsing(ParseRun parseRun, List<String> leagueLinks, GameExtractor gameExtractor,
+                                        ExecutorService poolService) {
+        int timeoutMillis = (int) TimeUnit.SECONDS.toMillis(leagueTimeoutSeconds);
+        for (String leagueLink : leagueLinks) {
+            if (parseRun.remainingMillis() == 0) break;
+            CallableGameParser gameParser = new CallableGameParser(leagueLink, fingerprintCache, gameExtractor,
+                    pageCorpus, parseRun, timeoutMillis);
+            parseRun.register(leagueLink, poolService.submit(gameParser));
+        }
+    }
+
+    private void processAsyncGameParsing(ParseRun parseRun, List<String> leagueLinks, GameExtractor gameExtractor) throws InterruptedException {
+        for (String leagueLink : leagueLinks) {
+            if (parseRun.remainingMillis() == 0) break;
+            CallableGameParser gameParser = new CallableGameParser(leagueLink, fingerprintCache, gameExtractor,
+                    pageCorpus, parseRun, 0);
+            CompletableFuture<LeaguePage> page = leagueHttpClient.fetch(leagueLink, fingerprintCache.find(leagueLink),
+                    parseRun.remainingMillis());
+            CompletableFuture<List<Game>> parse = page.handleAsync((leaguePage, e) -> {
+                if (e != null) {
+                    parseRun.fail(leagueLink, e);
+                    return Collections.<Game>emptyList();
+                }
+                try {
+                    return gameParser.parse(leaguePage);
+                } catch (RuntimeException ex) {
+                    parseRun.fail(leagueLink, ex);
+                    return Collections.<Game>emptyList();
+                }
+            }, parseExecutor);
+            parse.whenComplete((games, e) -> {
+                if (parse.isCancelled()) {
+                    page.cancel(true);
+                }
+            });
+            parseRun.register(leagueLink, parse);
+            parseRun.started(leagueLink);
         }
     }
 }
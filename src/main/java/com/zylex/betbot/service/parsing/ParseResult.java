@@ -0,0 +1,47 @@
+package com.zylex.betbot.service.parsing;
+
+import com.zylex.betbot.model.game.Game;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Games of the parse run and status of every league. Games of timed out and failed leagues are absent.
+ */
+public class ParseResult {
+
+    private final List<Game> games;
+
+    private final Map<String, LeagueParseStatus> leagueStatuses;
+
+    ParseResult(List<Game> games, Map<String, LeagueParseStatus> leagueStatuses) {
+        this.games = games;
+        this.leagueStatuses = Collections.unmodifiableMap(leagueStatuses);
+    }
+
+    public List<Game> getGames() {
+        return games;
+    }
+
+    public Map<String, LeagueParseStatus> getLeagueStatuses() {
+        return leagueStatuses;
+    }
+
+    /**
+     * @param status - status of leagues.
+     * @return - number of leagues with the status.
+     */
+    public int count(LeagueParseStatus status) {
+        return (int) leagueStatuses.values().stream()
+                .filter(leagueStatus -> leagueStatus == status)
+                .count();
+    }
+
+    /**
+     * @return - true if every league is completed.
+     */
+    public boolean isComplete() {
+        return count(LeagueParseStatus.COMPLETED) == leagueStatuses.size();
+    }
+}
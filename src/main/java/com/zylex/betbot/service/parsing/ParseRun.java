@@ -0,0 +1,179 @@
+package com.zylex.betbot.service.parsing;
+
+import com.zylex.betbot.controller.logger.ParsingConsoleLogger;
+import com.zylex.betbot.model.game.Game;
+import com.zylex.betbot.model.game.LeagueFingerprint;
+
+import java.util.*;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One parse run with the global deadline and per-league timeouts.
+ * Every league gets exactly one status: result of a league, which came after its timeout or the deadline,
+ * is dropped together with its fingerprint, so the league is parsed again next time.
+ */
+class ParseRun {
+
+    private final LeagueFingerprintCache fingerprintCache;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final long leagueTimeoutMillis;
+
+    private final long deadlineNanos;
+
+    private final Set<String> leagueLinks = new LinkedHashSet<>();
+
+    private final Map<String, LeagueParseStatus> leagueStatuses = new LinkedHashMap<>();
+
+    private final Map<String, Future<?>> tasks = new HashMap<>();
+
+    private final Map<String, ScheduledFuture<?>> timeouts = new HashMap<>();
+
+    private final List<Game> games = new ArrayList<>();
+
+    private volatile boolean closed;
+
+    ParseRun(LeagueFingerprintCache fingerprintCache, ScheduledExecutorService scheduler,
+             long leagueTimeoutMillis, long deadlineMillis) {
+        this.fingerprintCache = fingerprintCache;
+        this.scheduler = scheduler;
+        this.leagueTimeoutMillis = leagueTimeoutMillis;
+        this.deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+    }
+
+    /**
+     * Adds leagues to the run.
+     * @param links - links of leagues.
+     */
+    synchronized void addLeagues(List<String> links) {
+        leagueLinks.addAll(links);
+    }
+
+    /**
+     * @return - milliseconds left to the deadline, zero if the deadline is passed or the run is closed.
+     */
+    long remainingMillis() {
+        if (closed) {
+            return 0;
+        }
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
+    }
+
+    /**
+     * Registers task of the league, which is cancelled on timeout.
+     * @param leagueLink - link of the league.
+     * @param task - task to cancel.
+     */
+    synchronized void register(String leagueLink, Future<?> task) {
+        if (leagueStatuses.containsKey(leagueLink)) {
+            task.cancel(true);
+            return;
+        }
+        tasks.put(leagueLink, task);
+    }
+
+    /**
+     * Starts timeout of the league, when its request is sent. Timeout is cancelled when the league gets status.
+     * @param leagueLink - link of the league.
+     */
+    synchronized void started(String leagueLink) {
+        if (closed || leagueStatuses.containsKey(leagueLink)) {
+            return;
+        }
+        timeouts.put(leagueLink,
+                scheduler.schedule(() -> timeout(leagueLink), leagueTimeoutMillis, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Accepts games of the league, if its timeout is not passed.
+     * @param leagueLink - link of the league.
+     * @param leagueGames - parsed games.
+     * @param fingerprint - fingerprint of the changed page, or null.
+     * @return - true if the games are accepted.
+     */
+    synchronized boolean complete(String leagueLink, List<Game> leagueGames, LeagueFingerprint fingerprint) {
+        if (!setStatus(leagueLink, LeagueParseStatus.COMPLETED)) {
+            return false;
+        }
+        games.addAll(leagueGames);
+        if (fingerprint != null) {
+            fingerprintCache.addPending(fingerprint);
+        }
+        return true;
+    }
+
+    /**
+     * Marks league as failed, or as timed out if the deadline is passed.
+     * @param leagueLink - link of the league.
+     * @param cause - cause of the failure.
+     */
+    synchronized void fail(String leagueLink, Throwable cause) {
+        LeagueParseStatus status = remainingMillis() == 0 ? LeagueParseStatus.TIMED_OUT : LeagueParseStatus.FAILED;
+        if (setStatus(leagueLink, status) && status == LeagueParseStatus.FAILED) {
+            ParsingConsoleLogger.logFailedLeague(leagueLink, cause);
+        }
+    }
+
+    private synchronized void timeout(String leagueLink) {
+        Future<?> task = tasks.get(leagueLink);
+        if (setStatus(leagueLink, LeagueParseStatus.TIMED_OUT)) {
+            ParsingConsoleLogger.logTimedOutLeague(leagueLink);
+            cancel(task);
+        }
+    }
+
+    /**
+     * Waits until every league gets status, or the deadline.
+     */
+    synchronized void await() throws InterruptedException {
+        long remaining;
+        while (leagueStatuses.size() < leagueLinks.size() && (remaining = remainingMillis()) > 0) {
+            wait(remaining);
+        }
+    }
+
+    /**
+     * Marks unfinished leagues as timed out, cancels their tasks and closes the run.
+     * @return - result of the run.
+     */
+    synchronized ParseResult close() {
+        for (String leagueLink : leagueLinks) {
+            Future<?> task = tasks.get(leagueLink);
+            if (setStatus(leagueLink, LeagueParseStatus.TIMED_OUT)) {
+                ParsingConsoleLogger.logTimedOutLeague(leagueLink);
+                cancel(task);
+            }
+        }
+        closed = true;
+        for (ScheduledFuture<?> timeout : timeouts.values()) {
+            timeout.cancel(false);
+        }
+        timeouts.clear();
+        return new ParseResult(new ArrayList<>(games), new LinkedHashMap<>(leagueStatuses));
+    }
+
+    private boolean setStatus(String leagueLink, LeagueParseStatus status) {
+        if (closed || leagueStatuses.containsKey(leagueLink)) {
+            return false;
+        }
+        leagueStatuses.put(leagueLink, status);
+        tasks.remove(leagueLink);
+        ScheduledFuture<?> timeout = timeouts.remove(leagueLink);
+        if (timeout != null) {
+            timeout.cancel(false);
+        }
+        ParsingConsoleLogger.logLeagueGame();
+        notifyAll();
+        return true;
+    }
+
+    private static void cancel(Future<?> task) {
+        if (task != null) {
+            task.cancel(true);
+        }
+    }
+}
@@ -0,0 +1,394 @@
+package com.zylex.betbot.service.parsing;
+
+import com.zylex.betbot.model.Day;
+import com.zylex.betbot.model.game.Game;
+import org.jsoup.parser.Parser;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Extracts games in one pass over the page tokens, without building the document tree.
+ * Keeps only a stack of open elements and text of the element being captured.
+ */
+class StreamingGameExtractor extends GameExtractor {
+
+    private static final int GAME = 1;
+
+    private static final int TIME = 1 << 1;
+
+    private static final int BETS = 1 << 2;
+
+    private static final int LEAGUE_NAME = 1;
+
+    private static final int TIME_TEXT = 2;
+
+    private static final int TEAM = 3;
+
+    private static final int BET = 4;
+
+    private static final List<String> VOID_TAGS = Arrays.asList("area", "base", "br", "col", "embed", "hr", "img",
+            "input", "link", "meta", "param", "source", "track", "wbr");
+
+    private static final List<String> RAW_TEXT_TAGS = Arrays.asList("script", "style", "textarea", "title");
+
+    @Override
+    List<Game> extract(String leagueLink, String body) {
+        return new PageScanner(leagueLink, body).scan();
+    }
+
+    /**
+     * State of one page scanning.
+     */
+    private class PageScanner {
+
+        private final String leagueLink;
+
+        private final String body;
+
+        private final LocalDate today = LocalDate.now().plusDays(Day.TODAY.INDEX);
+
+        private final LocalDate tomorrow = LocalDate.now().plusDays(Day.TOMORROW.INDEX);
+
+        private final List<Game> games = new ArrayList<>();
+
+        private final StringBuilder leagueName = new StringBuilder();
+
+        private String[] stackNames = new String[64];
+
+        private int[] stackFlags = new int[64];
+
+        private int stackSize;
+
+        private int gameDepth = -1;
+
+        private boolean gamesFinished;
+
+        private int captureType;
+
+        private String captureTag;
+
+        private int captureNesting;
+
+        private final StringBuilder captureText = new StringBuilder();
+
+        private final StringBuilder time = new StringBuilder();
+
+        private final List<String> teams = new ArrayList<>(2);
+
+        private final List<String> coefficients = new ArrayList<>(8);
+
+        private String link;
+
+        PageScanner(String leagueLink, String body) {
+            this.leagueLink = leagueLink;
+            this.body = body;
+        }
+
+        List<Game> scan() {
+            int length = body.length();
+            int position = 0;
+            while (position < length) {
+                int tagStart = body.indexOf('<', position);
+                if (tagStart < 0) {
+                    text(position, length);
+                    break;
+                }
+                text(position, tagStart);
+                position = tag(tagStart);
+            }
+            finishGame();
+            String name = normalize(leagueName);
+            for (Game game : games) {
+                game.getLeague().setName(name);
+            }
+            return games;
+        }
+
+        private void text(int start, int end) {
+            if (captureType != 0 && start < end) {
+                captureText.append(body, start, end);
+            }
+        }
+
+        private int tag(int start) {
+            if (body.startsWith("<!--", start)) {
+                int end = body.indexOf("-->", start + 4);
+                return end < 0 ? body.length() : end + 3;
+            }
+            if (body.startsWith("</", start)) {
+                int end = body.indexOf('>', start);
+                if (end < 0) return body.length();
+                endTag(body.substring(start + 2, end).trim().toLowerCase());
+                return end + 1;
+            }
+            char next = start + 1 < body.length() ? body.charAt(start + 1) : ' ';
+            if (next == '!' || next == '?') {
+                int end = body.indexOf('>', start);
+                return end < 0 ? body.length() : end + 1;
+            } else if (!Character.isLetter(next)) {
+                text(start, start + 1);
+                return start + 1;
+            }
+            return startTag(start);
+        }
+
+        private int startTag(int start) {
+            int position = start + 1;
+            int length = body.length();
+            while (position < length && !isTagNameEnd(body.charAt(position))) {
+                position++;
+            }
+            String name = body.substring(start + 1, position).toLowerCase();
+            String classes = null;
+            String href = null;
+            boolean selfClosing = false;
+            while (position < length) {
+                char c = body.charAt(position);
+                if (c == '>') {
+                    position++;
+                    break;
+                } else if (c == '/') {
+                    selfClosing = true;
+                    position++;
+                } else if (Character.isWhitespace(c)) {
+                    position++;
+                } else {
+                    int nameStart = position;
+                    while (position < length && !isAttributeNameEnd(body.charAt(position))) {
+                        position++;
+                    }
+                    int nameLength = position - nameStart;
+                    boolean classAttribute = nameLength == 5 && body.regionMatches(true, nameStart, "class", 0, 5);
+                    boolean hrefAttribute = nameLength == 4 && body.regionMatches(true, nameStart, "href", 0, 4);
+                    while (position < length && Character.isWhitespace(body.charAt(position))) {
+                        position++;
+                    }
+                    int valueStart = position;
+                    int valueEnd = position;
+                    if (position < length && body.charAt(position) == '=') {
+                        position++;
+                        while (position < length && Character.isWhitespace(body.charAt(position))) {
+                            position++;
+                        }
+                        if (position < length && (body.charAt(position) == '"' || body.charAt(position) == '\'')) {
+                            char quote = body.charAt(position);
+                            valueStart = position + 1;
+                            valueEnd = body.indexOf(quote, valueStart);
+                            if (valueEnd < 0) valueEnd = length;
+                            position = Math.min(valueEnd + 1, length);
+                        } else {
+                            valueStart = position;
+                            valueEnd = position;
+                            while (valueEnd < length && !Character.isWhitespace(body.charAt(valueEnd))
+                                    && body.charAt(valueEnd) != '>') {
+                                valueEnd++;
+                            }
+                            position = valueEnd;
+                        }
+                    }
+                    if (classAttribute) {
+                        classes = body.substring(valueStart, valueEnd);
+                    } else if (hrefAttribute) {
+                        href = body.substring(valueStart, valueEnd);
+                    }
+                }
+            }
+            if (RAW_TEXT_TAGS.contains(name)) {
+                return indexOfEndTag(name, position);
+            }
+            openElement(name, classes, href);
+            if (selfClosing || VOID_TAGS.contains(name)) {
+                closeElement(name);
+            }
+            return position;
+        }
+
+        private int indexOfEndTag(String name, int from) {
+            String endTag = "</" + name;
+            for (int i = body.indexOf("</", from); i >= 0; i = body.indexOf("</", i + 2)) {
+                if (body.regionMatches(true, i, endTag, 0, endTag.length())) {
+                    return i;
+                }
+            }
+            return body.length();
+        }
+
+        private void openElement(String name, String classes, String href) {
+            int parentFlags = stackSize == 0 ? 0 : stackFlags[stackSize - 1];
+            int flags = 0;
+            if (captureType != 0) {
+                if (name.equals(captureTag)) captureNesting++;
+                if (name.equals("br")) captureText.append(' ');
+            } else if (name.equals("div") && hasClass(classes, "c-events__item_game")) {
+                finishGame();
+                flags = GAME;
+                gameDepth = stackSize;
+            } else if (name.equals("span") && hasClass(classes, "c-events__liga")) {
+                startCapture(LEAGUE_NAME, name);
+            } else if (gameDepth >= 0 && !gamesFinished) {
+                if (name.equals("div") && hasClass(classes, "c-events__time")) {
+                    flags = TIME;
+                } else if (name.equals("div") && hasClass(classes, "c-bets")) {
+                    flags = BETS;
+                } else if (name.equals("span") && (parentFlags & TIME) != 0) {
+                    startCapture(TIME_TEXT, name);
+                } else if (name.equals("span") && hasClass(classes, "c-events__team")) {
+                    startCapture(TEAM, name);
+                } else if (name.equals("a") && hasClass(classes, "c-bets__bet") && (parentFlags & BETS) != 0) {
+                    startCapture(BET, name);
+                }
+                if (link == null && name.equals("a") && href != null && hasClass(classes, "c-events__name")) {
+                    link = Parser.unescapeEntities(href, true);
+                }
+            }
+            push(name, flags);
+        }
+
+        private void endTag(String name) {
+            if (captureType != 0 && name.equals(captureTag)) {
+                if (captureNesting == 0) {
+                    finishCapture();
+                } else {
+                    captureNesting--;
+                }
+            }
+            closeElement(name);
+        }
+
+        private void closeElement(String name) {
+            for (int i = stackSize - 1; i >= 0; i--) {
+                if (stackNames[i].equals(name)) {
+                    stackSize = i;
+                    if (gameDepth >= stackSize) {
+                        finishGame();
+                    }
+                    return;
+                }
+            }
+        }
+
+        private void push(String name, int flags) {
+            if (stackSize == stackNames.length) {
+                stackNames = Arrays.copyOf(stackNames, stackSize * 2);
+                stackFlags = Arrays.copyOf(stackFlags, stackSize * 2);
+            }
+            stackNames[stackSize] = name;
+            stackFlags[stackSize] = flags;
+            stackSize++;
+        }
+
+        private void startCapture(int type, String tag) {
+            captureType = type;
+            captureTag = tag;
+            captureNesting = 0;
+            captureText.setLength(0);
+        }
+
+        private void finishCapture() {
+            String text = normalize(captureText);
+            if (captureType == LEAGUE_NAME) {
+                appendJoined(leagueName, text);
+            } else if (captureType == TIME_TEXT) {
+                appendJoined(time, text);
+            } else if (captureType == TEAM) {
+                teams.add(text);
+            } else if (captureType == BET) {
+                coefficients.add(text);
+            }
+            captureType = 0;
+            captureTag = null;
+        }
+
+        private void finishGame() {
+            if (gameDepth < 0) return;
+            gameDepth = -1;
+            if (!gamesFinished) {
+                emitGame();
+            }
+            time.setLength(0);
+            teams.clear();
+            coefficients.clear();
+            link = null;
+        }
+
+        private void emitGame() {
+            LocalDateTime dateTime = processDate(time.toString());
+            if (dateTime.toLocalDate().isBefore(today)) {
+                return;
+            } else if (dateTime.toLocalDate().isAfter(tomorrow)) {
+                gamesFinished = true;
+                return;
+            }
+            if (teams.size() < 2 || coefficients.size() < 6 || teams.get(0).contains("(голы)")) {
+                return;
+            }
+            games.add(createGame(dateTime, null, leagueLink, teams.get(0), teams.get(1),
+                    link == null ? "" : link,
+                    stringToDouble(coefficients.get(0)),
+                    stringToDouble(coefficients.get(1)),
+                    stringToDouble(coefficients.get(2)),
+                    stringToDouble(coefficients.get(3)),
+                    stringToDouble(coefficients.get(5))));
+        }
+    }
+
+    private static boolean isTagNameEnd(char c) {
+        return Character.isWhitespace(c) || c == '>' || c == '/';
+    }
+
+    private static boolean isAttributeNameEnd(char c) {
+        return Character.isWhitespace(c) || c == '=' || c == '>' || c == '/';
+    }
+
+    private static boolean hasClass(String classes, String className) {
+        if (classes == null) return false;
+        int from = 0;
+        while (true) {
+            int index = classes.indexOf(className, from);
+            if (index < 0) return false;
+            int end = index + className.length();
+            if ((index == 0 || Character.isWhitespace(classes.charAt(index - 1)))
+                    && (end == classes.length() || Character.isWhitespace(classes.charAt(end)))) {
+                return true;
+            }
+            from = end;
+        }
+    }
+
+    private static void appendJoined(StringBuilder builder, String text) {
+        if (text.isEmpty()) return;
+        if (builder.length() > 0) builder.append(' ');
+        builder.append(text);
+    }
+
+    /**
+     * Decodes entities, then collapses and trims whitespace, non-breaking spaces included, like jsoup text().
+     * @param source - raw text of an element.
+     * @return - normalized text.
+     */
+    private static String normalize(CharSequence source) {
+        String text = source.toString();
+        if (text.indexOf('&') >= 0) {
+            text = Parser.unescapeEntities(text, false);
+        }
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean whitespace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c) || c == ' ') {
+                whitespace = normalized.length() > 0;
+                continue;
+            }
+            if (whitespace) {
+                normalized.append(' ');
+                whitespace = false;
+            }
+            normalized.append(c);
+        }
+        return normalized.toString();
+    }
+}
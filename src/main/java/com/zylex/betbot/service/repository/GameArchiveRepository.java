@@ -0,0 +1,91 @@
+package com.zylex.betbot.service.repository;
+
+import com.zylex.betbot.exception.GameArchiveException;
+import com.zylex.betbot.model.game.GameResult;
+import com.zylex.betbot.service.archive.GameArchive;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Streams games with results, their coefficients and rules into the columnar game archive.
+ * Repeatable read isolation is used instead of the usual javax transactions, because the export needs one snapshot.
+ */
+@Repository
+public class GameArchiveRepository {
+
+    private static final int FETCH_SIZE = 10000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public GameArchiveRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return - number and last id of games with results, and rule data version, which the archive is written for.
+     */
+    public String findStamp() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) || ':' || COALESCE(MAX(g.id), 0) || ':' || " +
+                "COALESCE((SELECT version FROM data_version WHERE name = 'rule'), 0) " +
+                "FROM game g WHERE g.result IN ('FIRST_WIN', 'TIE', 'SECOND_WIN')", String.class);
+    }
+
+    /**
+     * Writes every game, which result is found, into a new archive file. Stamp, number of games, rules
+     * and games are read in one repeatable read transaction, so they are one snapshot of database.
+     * Games are read in order of game time by a cursor.
+     * @param path - path of the new archive file.
+     * @return - stamp of the written archive.
+     */
+    @Transactional(isolation = Isolation.REPEATABLE_READ, readOnly = true)
+    public String exportResolvedGames(Path path) {
+        String stamp = findStamp();
+        int capacity = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM game g " +
+                "WHERE g.result IN ('FIRST_WIN', 'TIE', 'SECOND_WIN')", Integer.class);
+        Map<Long, String> ruleNames = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT id, name FROM rule ORDER BY id",
+                rs -> { ruleNames.put(rs.getLong(1), rs.getString(2)); });
+        try (GameArchive.Writer writer = new GameArchive.Writer(path, capacity, ruleNames)) {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement("SELECT g.date_time, l.link, " +
+                        "g.first_team, g.second_team, g.result, gi.first_win, gi.tie, gi.second_win, gi.one_x, gi.x_two, " +
+                        "ARRAY(SELECT gr.rule_id FROM game_rule gr WHERE gr.game_id = g.id) " +
+                        "FROM game g JOIN game_info gi ON gi.game_id = g.id LEFT JOIN league l ON l.id = g.league_id " +
+                        "WHERE g.result IN ('FIRST_WIN', 'TIE', 'SECOND_WIN') " +
+                        "ORDER BY g.date_time, g.id");
+                statement.setFetchSize(FETCH_SIZE);
+                return statement;
+            }, rs -> {
+                Object[] rules = (Object[]) rs.getArray(11).getArray();
+                long[] ruleIds = new long[rules.length];
+                for (int i = 0; i < rules.length; i++) {
+                    ruleIds[i] = ((Number) rules[i]).longValue();
+                }
+                boolean added = writer.add(rs.getTimestamp(1).toLocalDateTime(),
+                        rs.getString(2),
+                        rs.getString(3),
+                        rs.getString(4),
+                        GameResult.valueOf(rs.getString(5)),
+                        rs.getDouble(6), rs.getDouble(7), rs.getDouble(8), rs.getDouble(9), rs.getDouble(10),
+                        ruleIds);
+                if (!added) {
+                    throw new GameArchiveException("More games were read than counted for the game archive.");
+                }
+            });
+            writer.finish(stamp);
+        } catch (IOException e) {
+            throw new GameArchiveException("Can't write game archive " + path + ": " + e.getMessage(), e);
+        }
+        return stamp;
+    }
+}
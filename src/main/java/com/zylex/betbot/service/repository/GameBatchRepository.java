@@ -0,0 +1,187 @@
+package com.zylex.betbot.service.repository;
+
+import com.zylex.betbot.model.game.Game;
+import com.zylex.betbot.model.game.GameInfo;
+import com.zylex.betbot.model.rule.Rule;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Writes new games with their info, leagues and rules in a few array statements.
+ */
+@Repository
+public class GameBatchRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public GameBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Finds links of games, which start since the specified time.
+     * @param dateTime - start time.
+     * @return - list of links.
+     */
+    public List<String> findLinksSince(LocalDateTime dateTime) {
+        return jdbcTemplate.queryForList("SELECT link FROM game WHERE date_time >= ? AND link IS NOT NULL",
+                String.class, Timestamp.valueOf(dateTime));
+    }
+
+    /**
+     * Inserts games, which links are not in the table yet, together with their info and rules.
+     * League rows are reused by link. Ids of inserted games and infos are set to the entities.
+     * @param games - list of games with distinct links.
+     * @return - list of inserted games.
+     */
+    public List<Game> insertNew(List<Game> games) {
+        if (games.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<String, Long> leagueIds = saveLeagues(games);
+        Map<String, Long> gameIds = insertGames(games, leagueIds);
+        List<Game> insertedGames = new ArrayList<>();
+        for (Game game : games) {
+            Long id = gameIds.get(game.getLink());
+            if (id == null) continue;
+            game.setId(id);
+            game.getLeague().setId(leagueIds.get(game.getLeague().getLink()));
+            insertedGames.add(game);
+        }
+        insertGameInfos(insertedGames);
+        insertGameRules(insertedGames);
+        return insertedGames;
+    }
+
+    private Map<String, Long> saveLeagues(List<Game> games) {
+        Map<String, String> leagueNames = new LinkedHashMap<>();
+        for (Game game : games) {
+            leagueNames.putIfAbsent(game.getLeague().getLink(), game.getLeague().getName());
+        }
+        Map<String, Long> leagueIds = new HashMap<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "SELECT DISTINCT ON (link) id, link FROM league WHERE link = ANY (?) ORDER BY link, id");
+            ps.setArray(1, con.createArrayOf("varchar", leagueNames.keySet().toArray()));
+            return ps;
+        }, rs -> {
+            leagueIds.put(rs.getString("link"), rs.getLong("id"));
+        });
+        List<String> newLinks = new ArrayList<>(leagueNames.keySet());
+        newLinks.removeAll(leagueIds.keySet());
+        if (!newLinks.isEmpty()) {
+            List<String> names = new ArrayList<>();
+            for (String link : newLinks) {
+                names.add(leagueNames.get(link));
+            }
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(
+                        "INSERT INTO league (name, link) SELECT * FROM unnest(?::varchar[], ?::varchar[]) RETURNING id, link");
+                ps.setArray(1, con.createArrayOf("varchar", names.toArray()));
+                ps.setArray(2, con.createArrayOf("varchar", newLinks.toArray()));
+                return ps;
+            }, rs -> {
+                leagueIds.put(rs.getString("link"), rs.getLong("id"));
+            });
+        }
+        return leagueIds;
+    }
+
+    private Map<String, Long> insertGames(List<Game> games, Map<String, Long> leagueIds) {
+        int size = games.size();
+        Timestamp[] dateTimes = new Timestamp[size];
+        Long[] gameLeagueIds = new Long[size];
+        String[] firstTeams = new String[size];
+        String[] secondTeams = new String[size];
+        String[] results = new String[size];
+        String[] links = new String[size];
+        for (int i = 0; i < size; i++) {
+            Game game = games.get(i);
+            dateTimes[i] = Timestamp.valueOf(game.getDateTime());
+            gameLeagueIds[i] = leagueIds.get(game.getLeague().getLink());
+            firstTeams[i] = game.getFirstTeam();
+            secondTeams[i] = game.getSecondTeam();
+            results[i] = game.getResult();
+            links[i] = game.getLink();
+        }
+        Map<String, Long> gameIds = new HashMap<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "INSERT INTO game (date_time, league_id, first_team, second_team, result, link) " +
+                            "SELECT * FROM unnest(?::timestamp[], ?::bigint[], ?::varchar[], ?::varchar[], ?::varchar[], ?::varchar[]) " +
+                            "ON CONFLICT (link) DO NOTHING RETURNING id, link");
+            ps.setArray(1, con.createArrayOf("timestamp", dateTimes));
+            ps.setArray(2, con.createArrayOf("bigint", gameLeagueIds));
+            ps.setArray(3, con.createArrayOf("varchar", firstTeams));
+            ps.setArray(4, con.createArrayOf("varchar", secondTeams));
+            ps.setArray(5, con.createArrayOf("varchar", results));
+            ps.setArray(6, con.createArrayOf("varchar", links));
+            return ps;
+        }, rs -> {
+            gameIds.put(rs.getString("link"), rs.getLong("id"));
+        });
+        return gameIds;
+    }
+
+    private void insertGameInfos(List<Game> games) {
+        if (games.isEmpty()) return;
+        int size = games.size();
+        Long[] gameIds = new Long[size];
+        Double[][] coefficients = new Double[5][size];
+        for (int i = 0; i < size; i++) {
+            GameInfo gameInfo = games.get(i).getGameInfo();
+            gameIds[i] = games.get(i).getId();
+            coefficients[0][i] = gameInfo.getFirstWin();
+            coefficients[1][i] = gameInfo.getTie();
+            coefficients[2][i] = gameInfo.getSecondWin();
+            coefficients[3][i] = gameInfo.getOneX();
+            coefficients[4][i] = gameInfo.getXTwo();
+        }
+        Map<Long, Long> infoIds = new HashMap<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "INSERT INTO game_info (game_id, first_win, tie, second_win, one_x, x_two) " +
+                            "SELECT * FROM unnest(?::bigint[], ?::float8[], ?::float8[], ?::float8[], ?::float8[], ?::float8[]) " +
+                            "RETURNING id, game_id");
+            ps.setArray(1, con.createArrayOf("bigint", gameIds));
+            for (int index = 0; index < coefficients.length; index++) {
+                ps.setArray(2 + index, con.createArrayOf("float8", coefficients[index]));
+            }
+            return ps;
+        }, rs -> {
+            infoIds.put(rs.getLong("game_id"), rs.getLong("id"));
+        });
+        for (Game game : games) {
+            Long infoId = infoIds.get(game.getId());
+            if (infoId != null) {
+                game.getGameInfo().setId(infoId);
+            }
+        }
+    }
+
+    private void insertGameRules(List<Game> games) {
+        List<Long> gameIds = new ArrayList<>();
+        List<Long> ruleIds = new ArrayList<>();
+        for (Game game : games) {
+            for (Rule rule : game.getRules()) {
+                gameIds.add(game.getId());
+                ruleIds.add(rule.getId());
+            }
+        }
+        if (gameIds.isEmpty()) return;
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "INSERT INTO game_rule (game_id, rule_id) SELECT * FROM unnest(?::bigint[], ?::bigint[]) " +
+                            "ON CONFLICT DO NOTHING");
+            ps.setArray(1, con.createArrayOf("bigint", gameIds.toArray()));
+            ps.setArray(2, con.createArrayOf("bigint", ruleIds.toArray()));
+            return ps;
+        });
+    }
+}
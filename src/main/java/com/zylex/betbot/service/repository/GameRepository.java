@@ -10,9 +10,6 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
-import static com.zylex.betbot.BetBotApplication.BET_START_TIME;
-import static com.zylex.betbot.BetBotApplication.BOT_START_TIME;
-
 @Repository
 public interface GameRepository extends JpaRepository<Game, Long> {
 
@@ -25,7 +22,8 @@ public interface GameRepository extends JpaRepository<Game, Long> {
     @Query("SELECT g FROM Game g WHERE g.dateTime >= :startDateTime")
     List<Game> findSinceDateTime(@Param("startDateTime") LocalDateTime startDateTime);
 
-    default List<Game> findByBetStartTime() {
-        return findSinceDateTime(LocalDateTime.of(BOT_START_TIME.toLocalDate().minusDays(1), BET_START_TIME));
-    }
+    @Query("SELECT g FROM Game g WHERE g.dateTime >= :startDateTime AND g.dateTime < :kickoffBefore AND g.result = :result")
+    List<Game> findByResultBetween(@Param("startDateTime") LocalDateTime startDateTime,
+                                   @Param("kickoffBefore") LocalDateTime kickoffBefore,
+                                   @Param("result") String result);
 }
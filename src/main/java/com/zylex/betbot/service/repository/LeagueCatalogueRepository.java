@@ -0,0 +1,14 @@
+package com.zylex.betbot.service.repository;
+
+import com.zylex.betbot.model.game.LeagueCatalogueEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface LeagueCatalogueRepository extends JpaRepository<LeagueCatalogueEntry, String> {
+
+    List<LeagueCatalogueEntry> findByLastSeenAfter(LocalDateTime lastSeen);
+}
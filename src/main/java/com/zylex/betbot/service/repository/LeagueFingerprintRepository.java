@@ -0,0 +1,9 @@
+package com.zylex.betbot.service.repository;
+
+import com.zylex.betbot.model.game.LeagueFingerprint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface LeagueFingerprintRepository extends JpaRepository<LeagueFingerprint, String> {
+}
@@ -3,7 +3,6 @@ package com.zylex.betbot.service.repository;
 import com.zylex.betbot.model.game.League;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,11 +10,15 @@ import java.util.List;
 @Repository
 public interface LeagueRepository extends JpaRepository<League, Long> {
 
-    @Query(value = "SELECT league_link FROM exclude_league WHERE rule_name = :ruleName",
+    @Query(value = "SELECT rule_name, league_link FROM exclude_league",
             nativeQuery = true)
-    List<String> findExcludeLeagues(@Param("ruleName") String ruleName);
+    List<Object[]> findAllExcludeLeagues();
 
     @Query(value = "SELECT league_link FROM selected_league",
             nativeQuery = true)
     List<String> findAllSelectedLeagues();
+
+    @Query(value = "SELECT version FROM data_version WHERE name = 'league_filter'",
+            nativeQuery = true)
+    Long findLeagueFilterVersion();
 }
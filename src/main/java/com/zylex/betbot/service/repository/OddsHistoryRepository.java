@@ -0,0 +1,97 @@
+package com.zylex.betbot.service.repository;
+
+import com.zylex.betbot.model.game.OddsChange;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Appends and reads coefficient changes of games.
+ */
+@Repository
+public class OddsHistoryRepository {
+
+    private static final String[] COLUMNS = {"first_win", "tie", "second_win", "one_x", "x_two"};
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public OddsHistoryRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Appends changes in one batch.
+     * @param changes - list of changes.
+     */
+    public void saveAll(List<OddsChange> changes) {
+        jdbcTemplate.batchUpdate("INSERT INTO odds_history (link, date_time, changed, first_win, tie, second_win, one_x, x_two) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                new BatchPreparedStatementSetter() {
+
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        OddsChange change = changes.get(i);
+                        ps.setString(1, change.getLink());
+                        ps.setTimestamp(2, Timestamp.valueOf(change.getDateTime()));
+                        ps.setShort(3, (short) change.getChanged());
+                        for (int index = 0; index < COLUMNS.length; index++) {
+                            if (change.isChanged(1 << index)) {
+                                ps.setFloat(4 + index, change.getCoefficient(index));
+                            } else {
+                                ps.setNull(4 + index, Types.REAL);
+                            }
+                        }
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return changes.size();
+                    }
+                });
+    }
+
+    /**
+     * Finds changes of the game up to the specified time, in order of observation.
+     * @param link - link of the game.
+     * @param dateTime - end time.
+     * @return - list of changes.
+     */
+    public List<OddsChange> findByLinkUntil(String link, LocalDateTime dateTime) {
+        return jdbcTemplate.query("SELECT * FROM odds_history WHERE link = ? AND date_time <= ? ORDER BY date_time, id",
+                (rs, rowNum) -> mapChange(rs),
+                link, Timestamp.valueOf(dateTime));
+    }
+
+    /**
+     * Finds changes of all games observed since the specified time, in order of observation.
+     * @param dateTime - start time.
+     * @return - list of changes.
+     */
+    public List<OddsChange> findSince(LocalDateTime dateTime) {
+        return jdbcTemplate.query("SELECT * FROM odds_history WHERE link IN " +
+                        "(SELECT DISTINCT link FROM odds_history WHERE date_time >= ?) ORDER BY date_time, id",
+                (rs, rowNum) -> mapChange(rs),
+                Timestamp.valueOf(dateTime));
+    }
+
+    private OddsChange mapChange(ResultSet rs) throws SQLException {
+        float[] coefficients = new float[COLUMNS.length];
+        for (int index = 0; index < COLUMNS.length; index++) {
+            coefficients[index] = rs.getFloat(COLUMNS[index]);
+        }
+        return new OddsChange(rs.getString("link"),
+                rs.getTimestamp("date_time").toLocalDateTime(),
+                rs.getShort("changed"),
+                coefficients);
+    }
+}
@@ -0,0 +1,53 @@
+package com.zylex.betbot.service.repository;
+
+import com.zylex.betbot.service.rule.CompiledRule;
+import com.zylex.betbot.service.rule.RuleSqlBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Matches games by rule conditions in database, so only matched games are read.
+ */
+@Repository
+public class RuleGameRepository {
+
+    static final String FROM = "FROM game g JOIN game_info gi ON gi.game_id = g.id JOIN league l ON l.id = g.league_id ";
+
+    static final String RESOLVED = "g.result IN ('FIRST_WIN', 'TIE', 'SECOND_WIN')";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public RuleGameRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Finds games since the time, which match rules already set to them, in one query.
+     * @param compiledRules - list of compiled rules.
+     * @param startDateTime - start time of games.
+     * @return - map of matched rule indexes by game id, in order of game time.
+     */
+    public Map<Long, BitSet> findAssignedGames(List<CompiledRule> compiledRules, LocalDateTime startDateTime) {
+        Map<Long, BitSet> gameRules = new LinkedHashMap<>();
+        if (compiledRules.isEmpty()) {
+            return gameRules;
+        }
+        List<Object> parameters = new ArrayList<>();
+        StringJoiner query = new StringJoiner(" UNION ALL ", "", " ORDER BY 3, 2");
+        for (int rule = 0; rule < compiledRules.size(); rule++) {
+            parameters.add(Timestamp.valueOf(startDateTime));
+            query.add("SELECT " + rule + ", g.id, g.date_time " + FROM
+                    + "WHERE g.date_time >= ? AND " + RuleSqlBuilder.where(compiledRules.get(rule), true, parameters));
+        }
+        jdbcTemplate.query(query.toString(), rs -> {
+            gameRules.computeIfAbsent(rs.getLong(2), id -> new BitSet()).set(rs.getInt(1));
+        }, parameters.toArray());
+        return gameRules;
+    }
+}
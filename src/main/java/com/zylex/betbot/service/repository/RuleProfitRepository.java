@@ -0,0 +1,135 @@
+package com.zylex.betbot.service.repository;
+
+import com.zylex.betbot.model.game.Game;
+import com.zylex.betbot.model.game.GameInfo;
+import com.zylex.betbot.model.game.GameResult;
+import com.zylex.betbot.service.rule.CompiledRule;
+import com.zylex.betbot.service.rule.GameCoefficient;
+import com.zylex.betbot.service.rule.RuleSqlBuilder;
+import com.zylex.betbot.service.statistics.StatisticsAccumulator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.*;
+
+import static com.zylex.betbot.service.repository.RuleGameRepository.FROM;
+import static com.zylex.betbot.service.repository.RuleGameRepository.RESOLVED;
+
+/**
+ * Keeps number of resolved games and sums of their coefficients by rule, day and game result.
+ * State of the rule is the rule signature and league filter version, which aggregates of the rule were built for.
+ */
+@Repository
+public class RuleProfitRepository {
+
+    private static final String COLUMNS = "games, first_win, tie, second_win, one_x, x_two";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public RuleProfitRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @param ruleId - id of the rule.
+     * @return - state, which aggregates of the rule were built for, or null if they were never built.
+     */
+    public String findState(long ruleId) {
+        List<String> states = jdbcTemplate.queryForList("SELECT state FROM rule_profit_state WHERE rule_id = ?",
+                String.class, ruleId);
+        return states.isEmpty() ? null : states.get(0);
+    }
+
+    /**
+     * Replaces aggregates of the rule with aggregates of all its resolved games, computed by database.
+     * @param compiledRule - compiled rule.
+     * @param state - state of the rule to save with aggregates.
+     */
+    public void rebuild(CompiledRule compiledRule, String state) {
+        long ruleId = compiledRule.getRule().getId();
+        jdbcTemplate.update("DELETE FROM rule_profit WHERE rule_id = ?", ruleId);
+        List<Object> parameters = new ArrayList<>();
+        parameters.add(ruleId);
+        StringJoiner sums = new StringJoiner(", ");
+        for (GameCoefficient coefficient : GameCoefficient.values()) {
+            sums.add("SUM(gi." + coefficient.SQL_COLUMN + ")");
+        }
+        String where = RuleSqlBuilder.where(compiledRule, true, parameters);
+        jdbcTemplate.update("INSERT INTO rule_profit (rule_id, day, result, " + COLUMNS + ") " +
+                "SELECT ?, DATE(g.date_time), g.result, COUNT(*), " + sums + " " + FROM +
+                "WHERE " + RESOLVED + " AND " + where + " GROUP BY DATE(g.date_time), g.result", parameters.toArray());
+        jdbcTemplate.update("INSERT INTO rule_profit_state (rule_id, state) VALUES (?, ?) " +
+                "ON CONFLICT (rule_id) DO UPDATE SET state = EXCLUDED.state", ruleId, state);
+    }
+
+    /**
+     * Adds resolved games to aggregates of the rule in one batch.
+     * @param ruleId - id of the rule.
+     * @param games - list of games with results.
+     */
+    public void addGames(long ruleId, List<Game> games) {
+        List<Object[]> rows = new ArrayList<>(games.size());
+        for (Game game : games) {
+            GameInfo gameInfo = game.getGameInfo();
+            rows.add(new Object[]{ruleId, Date.valueOf(game.getDateTime().toLocalDate()), game.getResult(), 1,
+                    gameInfo.getFirstWin(), gameInfo.getTie(), gameInfo.getSecondWin(), gameInfo.getOneX(), gameInfo.getXTwo()});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO rule_profit (rule_id, day, result, " + COLUMNS + ") " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT (rule_id, day, result) DO UPDATE SET " +
+                "games = rule_profit.games + EXCLUDED.games, " +
+                "first_win = rule_profit.first_win + EXCLUDED.first_win, " +
+                "tie = rule_profit.tie + EXCLUDED.tie, " +
+                "second_win = rule_profit.second_win + EXCLUDED.second_win, " +
+                "one_x = rule_profit.one_x + EXCLUDED.one_x, " +
+                "x_two = rule_profit.x_two + EXCLUDED.x_two", rows);
+    }
+
+    /**
+     * Sums aggregates of the rule over days by game result, and streams the sums into one accumulator.
+     * @param ruleId - id of the rule.
+     * @param startDate - first day, or null for no lower bound.
+     * @param endDate - last day, or null for no upper bound.
+     * @return - statistics of the rule for the period.
+     */
+    public StatisticsAccumulator findStatistics(long ruleId, LocalDate startDate, LocalDate endDate) {
+        List<Object> parameters = new ArrayList<>();
+        parameters.add(ruleId);
+        StringBuilder query = new StringBuilder("SELECT result, SUM(games), SUM(first_win), SUM(tie), SUM(second_win), " +
+                "SUM(one_x), SUM(x_two) FROM rule_profit WHERE rule_id = ?");
+        if (startDate != null) {
+            query.append(" AND day >= ?");
+            parameters.add(Date.valueOf(startDate));
+        }
+        if (endDate != null) {
+            query.append(" AND day <= ?");
+            parameters.add(Date.valueOf(endDate));
+        }
+        query.append(" GROUP BY result");
+        StatisticsAccumulator statistics = new StatisticsAccumulator();
+        jdbcTemplate.query(query.toString(), rs -> {
+            statistics.add(GameResult.valueOf(rs.getString(1)), rs.getInt(2),
+                    rs.getDouble(3), rs.getDouble(4), rs.getDouble(5), rs.getDouble(6), rs.getDouble(7));
+        }, parameters.toArray());
+        return statistics;
+    }
+
+    /**
+     * Reads daily aggregates of the rule since the day.
+     * @param ruleId - id of the rule.
+     * @param startDate - first day.
+     * @return - statistics by day, days without games are absent.
+     */
+    public Map<LocalDate, StatisticsAccumulator> findDailyStatistics(long ruleId, LocalDate startDate) {
+        Map<LocalDate, StatisticsAccumulator> dailyStatistics = new TreeMap<>();
+        jdbcTemplate.query("SELECT day, result, " + COLUMNS + " FROM rule_profit WHERE rule_id = ? AND day >= ?", rs -> {
+            dailyStatistics.computeIfAbsent(rs.getDate(1).toLocalDate(), day -> new StatisticsAccumulator())
+                    .add(GameResult.valueOf(rs.getString(2)), rs.getInt(3),
+                            rs.getDouble(4), rs.getDouble(5), rs.getDouble(6), rs.getDouble(7), rs.getDouble(8));
+        }, ruleId, Date.valueOf(startDate));
+        return dailyStatistics;
+    }
+}
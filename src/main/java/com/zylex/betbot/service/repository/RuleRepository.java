@@ -2,6 +2,7 @@ package com.zylex.betbot.service.repository;
 
 import com.zylex.betbot.model.rule.Rule;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 
@@ -10,4 +11,8 @@ public interface RuleRepository extends JpaRepository<Rule, Long> {
     List<Rule> findByActivateTrue();
 
     Rule findByName(String name);
+
+    @Query(value = "SELECT version FROM data_version WHERE name = 'rule'",
+            nativeQuery = true)
+    Long findRuleVersion();
 }
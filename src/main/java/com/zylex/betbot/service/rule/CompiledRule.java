@@ -0,0 +1,94 @@
+package com.zylex.betbot.service.rule;
+
+import com.zylex.betbot.model.game.GameInfo;
+import com.zylex.betbot.model.rule.Rule;
+
+/**
+ * Immutable predicate of the rule, built from its enabled conditions by RuleCompiler.
+ */
+public final class CompiledRule {
+
+    private final Rule rule;
+
+    private final String signature;
+
+    private final boolean selectedLeagues;
+
+    private final int[] columns;
+
+    private final RuleOperator[] operators;
+
+    private final double[] values;
+
+    CompiledRule(Rule rule, String signature, int[] columns, RuleOperator[] operators, double[] values) {
+        this.rule = rule;
+        this.signature = signature;
+        this.selectedLeagues = rule.isSelectedLeagues();
+        this.columns = columns;
+        this.operators = operators;
+        this.values = values;
+    }
+
+    public Rule getRule() {
+        return rule;
+    }
+
+    /**
+     * @return - name, league mode and enabled conditions of the rule, which the rule was compiled for.
+     */
+    public String getSignature() {
+        return signature;
+    }
+
+    public boolean isSelectedLeagues() {
+        return selectedLeagues;
+    }
+
+    public int getConditionsNumber() {
+        return columns.length;
+    }
+
+    public int getColumn(int condition) {
+        return columns[condition];
+    }
+
+    public RuleOperator getOperator(int condition) {
+        return operators[condition];
+    }
+
+    public double getValue(int condition) {
+        return values[condition];
+    }
+
+    /**
+     * Checks coefficients of the game against all conditions.
+     * @param gameInfo - game info.
+     * @return - true if every condition is satisfied.
+     */
+    public boolean matches(GameInfo gameInfo) {
+        double firstWin = gameInfo.getFirstWin();
+        double tie = gameInfo.getTie();
+        double secondWin = gameInfo.getSecondWin();
+        double oneX = gameInfo.getOneX();
+        double xTwo = gameInfo.getXTwo();
+        for (int i = 0; i < columns.length; i++) {
+            double gameValue;
+            switch (columns[i]) {
+                case 0: gameValue = firstWin; break;
+                case 1: gameValue = tie; break;
+                case 2: gameValue = secondWin; break;
+                case 3: gameValue = oneX; break;
+                default: gameValue = xTwo;
+            }
+            if (!operators[i].test(gameValue, values[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return rule + " " + signature;
+    }
+}
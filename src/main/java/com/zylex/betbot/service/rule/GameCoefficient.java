@@ -0,0 +1,24 @@
+package com.zylex.betbot.service.rule;
+
+/**
+ * Coefficient of the game, which rule condition can check, with its column index and game_info column name.
+ */
+public enum GameCoefficient {
+
+    FIRST_WIN(0, "first_win"),
+    TIE(1, "tie"),
+    SECOND_WIN(2, "second_win"),
+    ONE_X(3, "one_x"),
+    X_TWO(4, "x_two");
+
+    public static final int COUNT = values().length;
+
+    public final int COLUMN;
+
+    public final String SQL_COLUMN;
+
+    GameCoefficient(int COLUMN, String SQL_COLUMN) {
+        this.COLUMN = COLUMN;
+        this.SQL_COLUMN = SQL_COLUMN;
+    }
+}
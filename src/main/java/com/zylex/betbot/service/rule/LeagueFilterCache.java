@@ -0,0 +1,177 @@
+package com.zylex.betbot.service.rule;
+
+import com.zylex.betbot.service.repository.LeagueRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps selected leagues and exclude leagues of every rule as immutable sets.
+ * Exclude leagues of all rules are loaded in one query, so rules without exclude leagues cost nothing.
+ * Triggers on selected_league and exclude_league bump the league_filter data version,
+ * which is checked at most once per check interval. Changed version drops all cached sets.
+ */
+@Service
+public class LeagueFilterCache {
+
+    private final LeagueRepository leagueRepository;
+
+    @Value("${rule.league-cache.check-interval-millis:10000}")
+    private long checkIntervalMillis;
+
+    private volatile Snapshot snapshot = new Snapshot(-1);
+
+    private volatile long lastCheckTime;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @Autowired
+    public LeagueFilterCache(LeagueRepository leagueRepository) {
+        this.leagueRepository = leagueRepository;
+    }
+
+    /**
+     * @return - links of selected leagues.
+     */
+    public Set<String> findSelectedLeagues() {
+        Snapshot current = currentSnapshot();
+        Set<String> selectedLeagues = current.selectedLeagues;
+        if (selectedLeagues != null) {
+            hits.incrementAndGet();
+            return selectedLeagues;
+        }
+        misses.incrementAndGet();
+        selectedLeagues = Collections.unmodifiableSet(new HashSet<>(leagueRepository.findAllSelectedLeagues()));
+        current.selectedLeagues = selectedLeagues;
+        return selectedLeagues;
+    }
+
+    /**
+     * @param ruleName - name of the rule.
+     * @return - links of leagues excluded for the rule.
+     */
+    public Set<String> findExcludeLeagues(String ruleName) {
+        Snapshot current = currentSnapshot();
+        Map<String, Set<String>> excludeLeagues = current.excludeLeagues;
+        if (excludeLeagues != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            excludeLeagues = loadExcludeLeagues();
+            current.excludeLeagues = excludeLeagues;
+        }
+        return excludeLeagues.getOrDefault(ruleName, Collections.emptySet());
+    }
+
+    private Map<String, Set<String>> loadExcludeLeagues() {
+        Map<String, Set<String>> excludeLeagues = new HashMap<>();
+        for (Object[] row : leagueRepository.findAllExcludeLeagues()) {
+            excludeLeagues.computeIfAbsent((String) row[0], name -> new HashSet<>()).add((String) row[1]);
+        }
+        excludeLeagues.replaceAll((name, links) -> Collections.unmodifiableSet(links));
+        return excludeLeagues;
+    }
+
+    /**
+     * Finds rules, which games of every league can match by selected and exclude leagues.
+     * @param compiledRules - list of rules.
+     * @param leagueLinks - links of leagues by league index.
+     * @param words - number of long words in bitset of rules.
+     * @return - bitsets of allowed rules by league index.
+     */
+    public long[][] findAllowedRules(List<CompiledRule> compiledRules, String[] leagueLinks, int words) {
+        long[][] allowedRules = new long[leagueLinks.length][words];
+        for (int rule = 0; rule < compiledRules.size(); rule++) {
+            CompiledRule compiledRule = compiledRules.get(rule);
+            Set<String> selectedLeagues = compiledRule.isSelectedLeagues()
+                    ? findSelectedLeagues()
+                    : Collections.<String>emptySet();
+            Set<String> excludeLeagues = findExcludeLeagues(compiledRule.getRule().getName());
+            for (int league = 0; league < leagueLinks.length; league++) {
+                if (!excludeLeagues.contains(leagueLinks[league])
+                        && (!compiledRule.isSelectedLeagues() || selectedLeagues.contains(leagueLinks[league]))) {
+                    allowedRules[league][rule >>> 6] |= 1L << rule;
+                }
+            }
+        }
+        return allowedRules;
+    }
+
+    /**
+     * @return - actual league filter data version.
+     */
+    public long getVersion() {
+        return currentSnapshot().version;
+    }
+
+    /**
+     * Drops all cached sets, so they are loaded again on the next request,
+     * and checks the league filter data version on the next request as well.
+     * Used when league tables were changed without the triggers, e.g. by a restored dump.
+     */
+    public synchronized void invalidate() {
+        snapshot = new Snapshot(snapshot.version);
+        lastCheckTime = 0;
+        invalidations.incrementAndGet();
+    }
+
+    private Snapshot currentSnapshot() {
+        long now = System.currentTimeMillis();
+        Snapshot current = snapshot;
+        if (current.version >= 0 && now - lastCheckTime < checkIntervalMillis) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            if (current.version >= 0 && now - lastCheckTime < checkIntervalMillis) {
+                return current;
+            }
+            Long version = leagueRepository.findLeagueFilterVersion();
+            long actualVersion = version == null ? 0 : version;
+            if (actualVersion != current.version) {
+                if (current.version >= 0) {
+                    invalidations.incrementAndGet();
+                }
+                current = new Snapshot(actualVersion);
+                snapshot = current;
+            }
+            lastCheckTime = now;
+            return current;
+        }
+    }
+
+    /**
+     * @return - current values of cache metrics by name.
+     */
+    public Map<String, Number> getMetrics() {
+        Map<String, Number> metrics = new LinkedHashMap<>();
+        metrics.put("version", snapshot.version);
+        metrics.put("hits", hits.get());
+        metrics.put("misses", misses.get());
+        metrics.put("invalidations", invalidations.get());
+        return metrics;
+    }
+
+    /**
+     * League sets loaded for one data version.
+     */
+    private static class Snapshot {
+
+        private final long version;
+
+        private volatile Map<String, Set<String>> excludeLeagues;
+
+        private volatile Set<String> selectedLeagues;
+
+        Snapshot(long version) {
+            this.version = version;
+        }
+    }
+}
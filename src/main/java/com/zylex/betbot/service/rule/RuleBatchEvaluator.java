@@ -0,0 +1,108 @@
+package com.zylex.betbot.service.rule;
+
+import com.zylex.betbot.model.game.Game;
+import com.zylex.betbot.model.game.GameInfo;
+import com.zylex.betbot.model.rule.Rule;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Evaluates all rules over all games in one pass.
+ * Coefficients of games are laid out in primitive columns, leagues are resolved once per league,
+ * and every game is matched against the interval index of all rules while its coefficients are in cache.
+ * Index of the last evaluated rules is reused until compiled rules change.
+ */
+@Service
+public class RuleBatchEvaluator {
+
+    private final LeagueFilterCache leagueFilterCache;
+
+    private final RuleCompiler ruleCompiler;
+
+    private volatile RuleIndex lastRuleIndex;
+
+    @Autowired
+    public RuleBatchEvaluator(LeagueFilterCache leagueFilterCache, RuleCompiler ruleCompiler) {
+        this.leagueFilterCache = leagueFilterCache;
+        this.ruleCompiler = ruleCompiler;
+    }
+
+    /**
+     * Evaluates compiled rules over games, also filters by selected leagues and exclude leagues.
+     * Rules with invalid conditions are skipped.
+     * @param games - list of games.
+     * @param rules - list of rules.
+     * @return - game and rule matches.
+     */
+    public RuleMatches evaluate(List<Game> games, List<Rule> rules) {
+        List<CompiledRule> compiledRules = ruleCompiler.compileValid(rules);
+        List<Rule> validRules = new ArrayList<>(compiledRules.size());
+        for (CompiledRule compiledRule : compiledRules) {
+            validRules.add(compiledRule.getRule());
+        }
+        RuleMatches matches = new RuleMatches(games, validRules);
+        if (games.isEmpty() || compiledRules.isEmpty()) {
+            return matches;
+        }
+        Map<String, Integer> leagueIndexes = new HashMap<>();
+        int[] gameLeagues = new int[games.size()];
+        double[][] columns = toColumns(games, leagueIndexes, gameLeagues);
+        RuleIndex ruleIndex = findRuleIndex(compiledRules);
+        String[] leagueLinks = new String[leagueIndexes.size()];
+        for (Map.Entry<String, Integer> league : leagueIndexes.entrySet()) {
+            leagueLinks[league.getValue()] = league.getKey();
+        }
+        long[][] allowedLeagues = leagueFilterCache.findAllowedRules(compiledRules, leagueLinks, ruleIndex.words());
+        long[] rowBits = new long[ruleIndex.words()];
+        for (int row = 0; row < gameLeagues.length; row++) {
+            ruleIndex.match(columns, row, rowBits);
+            long[] allowed = allowedLeagues[gameLeagues[row]];
+            for (int word = 0; word < rowBits.length; word++) {
+                matches.setWord(row, word, rowBits[word] & allowed[word]);
+            }
+        }
+        return matches;
+    }
+
+    private RuleIndex findRuleIndex(List<CompiledRule> compiledRules) {
+        RuleIndex index = lastRuleIndex;
+        if (index == null || !index.getRules().equals(compiledRules)) {
+            index = new RuleIndex(compiledRules);
+            lastRuleIndex = index;
+        }
+        return index;
+    }
+
+    private static double[][] toColumns(List<Game> games, Map<String, Integer> leagueIndexes, int[] gameLeagues) {
+        int size = games.size();
+        double[] firstWin = new double[size];
+        double[] tie = new double[size];
+        double[] secondWin = new double[size];
+        double[] oneX = new double[size];
+        double[] xTwo = new double[size];
+        for (int row = 0; row < size; row++) {
+            Game game = games.get(row);
+            GameInfo gameInfo = game.getGameInfo();
+            firstWin[row] = gameInfo.getFirstWin();
+            tie[row] = gameInfo.getTie();
+            secondWin[row] = gameInfo.getSecondWin();
+            oneX[row] = gameInfo.getOneX();
+            xTwo[row] = gameInfo.getXTwo();
+            Integer league = leagueIndexes.get(game.getLeague().getLink());
+            if (league == null) {
+                league = leagueIndexes.size();
+                leagueIndexes.put(game.getLeague().getLink(), league);
+            }
+            gameLeagues[row] = league;
+        }
+        double[][] columns = new double[GameCoefficient.COUNT][];
+        columns[GameCoefficient.FIRST_WIN.COLUMN] = firstWin;
+        columns[GameCoefficient.TIE.COLUMN] = tie;
+        columns[GameCoefficient.SECOND_WIN.COLUMN] = secondWin;
+        columns[GameCoefficient.ONE_X.COLUMN] = oneX;
+        columns[GameCoefficient.X_TWO.COLUMN] = xTwo;
+        return columns;
+    }
+}
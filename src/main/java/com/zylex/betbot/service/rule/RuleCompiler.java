@@ -0,0 +1,141 @@
+package com.zylex.betbot.service.rule;
+
+import com.zylex.betbot.exception.RuleCompilerException;
+import com.zylex.betbot.model.rule.Rule;
+import com.zylex.betbot.model.rule.RuleCondition;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiles rules into predicates. Compiled rule is cached until the rule or its conditions change.
+ * Compile error is cached the same way, so an invalid rule is logged only once.
+ */
+@Service
+public class RuleCompiler {
+
+    private final Map<Long, CompiledRule> compiledRules = new ConcurrentHashMap<>();
+
+    private final Map<Long, CompileFailure> compileFailures = new ConcurrentHashMap<>();
+
+    /**
+     * Compiles enabled conditions of the rule.
+     * @param rule - rule to compile.
+     * @return - compiled rule.
+     * @throws RuleCompilerException - if coefficient or operator of a condition is unknown,
+     * the same exception is thrown again until the rule changes.
+     */
+    public CompiledRule compile(Rule rule) {
+        String signature = signature(rule);
+        CompiledRule compiledRule = compiledRules.get(rule.getId());
+        if (compiledRule != null && compiledRule.getSignature().equals(signature)) {
+            return compiledRule;
+        }
+        CompileFailure failure = compileFailures.get(rule.getId());
+        if (failure != null && failure.signature.equals(signature)) {
+            throw failure.exception;
+        }
+        try {
+            compiledRule = doCompile(rule, signature);
+        } catch (RuleCompilerException e) {
+            compileFailures.put(rule.getId(), new CompileFailure(signature, e));
+            throw e;
+        }
+        compileFailures.remove(rule.getId());
+        compiledRules.put(rule.getId(), compiledRule);
+        return compiledRule;
+    }
+
+    /**
+     * Compiles every rule, rules with invalid conditions are skipped.
+     * @param rules - list of rules.
+     * @return - list of compiled rules in order of rules.
+     */
+    public List<CompiledRule> compileValid(List<Rule> rules) {
+        List<CompiledRule> compiledRules = new ArrayList<>(rules.size());
+        for (Rule rule : rules) {
+            try {
+                compiledRules.add(compile(rule));
+            } catch (RuleCompilerException e) {
+                // rule with invalid condition is skipped, error is already logged
+            }
+        }
+        return compiledRules;
+    }
+
+    /**
+     * Compiles the rule without caching, like a candidate rule, which is not saved to database.
+     * @param rule - rule to compile.
+     * @return - compiled rule.
+     * @throws RuleCompilerException - if coefficient or operator of a condition is unknown.
+     */
+    public CompiledRule compileUncached(Rule rule) {
+        return doCompile(rule, signature(rule));
+    }
+
+    private CompiledRule doCompile(Rule rule, String signature) {
+        List<RuleCondition> conditions = new ArrayList<>();
+        for (RuleCondition condition : rule.getRuleConditions()) {
+            if (condition.isEnabled()) {
+                conditions.add(condition);
+            }
+        }
+        int[] columns = new int[conditions.size()];
+        RuleOperator[] operators = new RuleOperator[conditions.size()];
+        double[] values = new double[conditions.size()];
+        for (int i = 0; i < conditions.size(); i++) {
+            RuleCondition condition = conditions.get(i);
+            columns[i] = parseCoefficient(rule, condition).COLUMN;
+            operators[i] = parseOperator(rule, condition);
+            values[i] = condition.getValue();
+        }
+        return new CompiledRule(rule, signature, columns, operators, values);
+    }
+
+    private GameCoefficient parseCoefficient(Rule rule, RuleCondition condition) {
+        try {
+            return GameCoefficient.valueOf(String.valueOf(condition.getCoefficient()));
+        } catch (IllegalArgumentException e) {
+            throw new RuleCompilerException(String.format("Rule %s has unknown coefficient in condition %s",
+                    rule, condition), e);
+        }
+    }
+
+    private RuleOperator parseOperator(Rule rule, RuleCondition condition) {
+        try {
+            return RuleOperator.valueOf(String.valueOf(condition.getOperator()));
+        } catch (IllegalArgumentException e) {
+            throw new RuleCompilerException(String.format("Rule %s has unknown operator in condition %s",
+                    rule, condition), e);
+        }
+    }
+
+    private static String signature(Rule rule) {
+        StringBuilder signature = new StringBuilder(rule.getName()).append(rule.isSelectedLeagues() ? "|S" : "|A");
+        for (RuleCondition condition : rule.getRuleConditions()) {
+            if (!condition.isEnabled()) continue;
+            signature.append('|').append(condition.getCoefficient())
+                    .append(' ').append(condition.getOperator())
+                    .append(' ').append(condition.getValue());
+        }
+        return signature.toString();
+    }
+
+    /**
+     * Compile error of the rule with the signature it was thrown for.
+     */
+    private static class CompileFailure {
+
+        private final String signature;
+
+        private final RuleCompilerException exception;
+
+        private CompileFailure(String signature, RuleCompilerException exception) {
+            this.signature = signature;
+            this.exception = exception;
+        }
+    }
+}
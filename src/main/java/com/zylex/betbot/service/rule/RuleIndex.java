@@ -0,0 +1,194 @@
+package com.zylex.betbot.service.rule;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Index of threshold conditions of many rules.
+ * Conditions of a rule on one coefficient are intersected into one interval.
+ * For every coefficient distinct interval endpoints are sorted, and every elementary segment between them
+ * keeps a bitset of rules, which interval covers the segment. Matching a game takes one binary search
+ * per coefficient and an AND of five bitsets, then only matched rules are enumerated.
+ */
+public final class RuleIndex {
+
+    private final List<CompiledRule> rules;
+
+    private final int words;
+
+    private final double[][] endpoints = new double[GameCoefficient.COUNT][];
+
+    private final long[][] segmentBits = new long[GameCoefficient.COUNT][];
+
+    private final long[][] unboundedBits = new long[GameCoefficient.COUNT][];
+
+    public RuleIndex(List<CompiledRule> rules) {
+        this.rules = new ArrayList<>(rules);
+        this.words = (rules.size() + 63) >>> 6;
+        Interval[][] intervals = new Interval[rules.size()][];
+        for (int rule = 0; rule < rules.size(); rule++) {
+            intervals[rule] = toIntervals(rules.get(rule));
+        }
+        for (int column = 0; column < GameCoefficient.COUNT; column++) {
+            buildColumn(column, intervals);
+        }
+    }
+
+    public List<CompiledRule> getRules() {
+        return rules;
+    }
+
+    /**
+     * @return - number of long words in bitset of rules.
+     */
+    public int words() {
+        return words;
+    }
+
+    /**
+     * Finds rules matched by one row of coefficient columns.
+     * @param coefficientColumns - columns of coefficients, in GameCoefficient order.
+     * @param row - index of the game.
+     * @param result - bitset of matched rules to fill, words() length.
+     */
+    public void match(double[][] coefficientColumns, int row, long[] result) {
+        Arrays.fill(result, -1L);
+        for (int column = 0; column < GameCoefficient.COUNT; column++) {
+            and(column, coefficientColumns[column][row], result);
+        }
+        clearTail(result);
+    }
+
+    private void and(int column, double value, long[] result) {
+        long[] bits;
+        int offset;
+        if (Double.isNaN(value)) {
+            bits = unboundedBits[column];
+            offset = 0;
+        } else {
+            int index = Arrays.binarySearch(endpoints[column], value + 0.0);
+            bits = segmentBits[column];
+            offset = (index >= 0 ? 2 * index + 1 : 2 * (-index - 1)) * words;
+        }
+        for (int word = 0; word < words; word++) {
+            result[word] &= bits[offset + word];
+        }
+    }
+
+    private void clearTail(long[] result) {
+        int tail = rules.size() & 63;
+        if (tail != 0) {
+            result[words - 1] &= (1L << tail) - 1;
+        }
+    }
+
+    private void buildColumn(int column, Interval[][] intervals) {
+        double[] values = new double[intervals.length * 2];
+        int size = 0;
+        for (Interval[] ruleIntervals : intervals) {
+            Interval interval = ruleIntervals[column];
+            if (interval == null) continue;
+            if (interval.lowerBounded) values[size++] = interval.lower;
+            if (interval.upperBounded) values[size++] = interval.upper;
+        }
+        double[] sorted = Arrays.copyOf(values, size);
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (distinct == 0 || sorted[distinct - 1] != sorted[i]) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        double[] columnEndpoints = Arrays.copyOf(sorted, distinct);
+        int segments = 2 * distinct + 1;
+        long[] bits = new long[segments * words];
+        long[] unbounded = new long[words];
+        for (int rule = 0; rule < intervals.length; rule++) {
+            Interval interval = intervals[rule][column];
+            if (interval == null) {
+                unbounded[rule >>> 6] |= 1L << rule;
+                setRange(bits, rule, 0, segments - 1);
+            } else if (!interval.empty) {
+                int first = interval.lowerBounded
+                        ? 2 * Arrays.binarySearch(columnEndpoints, interval.lower) + (interval.lowerInclusive ? 1 : 2)
+                        : 0;
+                int last = interval.upperBounded
+                        ? 2 * Arrays.binarySearch(columnEndpoints, interval.upper) + (interval.upperInclusive ? 1 : 0)
+                        : segments - 1;
+                setRange(bits, rule, first, last);
+            }
+        }
+        endpoints[column] = columnEndpoints;
+        segmentBits[column] = bits;
+        unboundedBits[column] = unbounded;
+    }
+
+    private void setRange(long[] bits, int rule, int first, int last) {
+        for (int segment = first; segment <= last; segment++) {
+            bits[segment * words + (rule >>> 6)] |= 1L << rule;
+        }
+    }
+
+    private static Interval[] toIntervals(CompiledRule rule) {
+        Interval[] intervals = new Interval[GameCoefficient.COUNT];
+        for (int condition = 0; condition < rule.getConditionsNumber(); condition++) {
+            int column = rule.getColumn(condition);
+            if (intervals[column] == null) {
+                intervals[column] = new Interval();
+            }
+            intervals[column].add(rule.getOperator(condition), rule.getValue(condition));
+        }
+        return intervals;
+    }
+
+    /**
+     * Intersection of conditions of one rule on one coefficient.
+     */
+    private static class Interval {
+
+        private boolean lowerBounded;
+
+        private double lower;
+
+        private boolean lowerInclusive;
+
+        private boolean upperBounded;
+
+        private double upper;
+
+        private boolean upperInclusive;
+
+        private boolean empty;
+
+        void add(RuleOperator operator, double value) {
+            if (Double.isNaN(value)) {
+                empty = true;
+                return;
+            }
+            value += 0.0;
+            boolean inclusive = operator == RuleOperator.MORE_EVEN || operator == RuleOperator.LESS_EVEN;
+            if (operator == RuleOperator.MORE || operator == RuleOperator.MORE_EVEN) {
+                if (!lowerBounded || value > lower) {
+                    lowerBounded = true;
+                    lower = value;
+                    lowerInclusive = inclusive;
+                } else if (value == lower) {
+                    lowerInclusive &= inclusive;
+                }
+            } else {
+                if (!upperBounded || value < upper) {
+                    upperBounded = true;
+                    upper = value;
+                    upperInclusive = inclusive;
+                } else if (value == upper) {
+                    upperInclusive &= inclusive;
+                }
+            }
+            if (lowerBounded && upperBounded
+                    && (lower > upper || (lower == upper && !(lowerInclusive && upperInclusive)))) {
+                empty = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.zylex.betbot.service.rule;
+
+import com.zylex.betbot.model.game.Game;
+import com.zylex.betbot.model.rule.Rule;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of batch rule evaluation, a bitset of matched rules for every game.
+ * Rules and games are addressed by their index in evaluated lists.
+ */
+public class RuleMatches {
+
+    private final List<Game> games;
+
+    private final List<Rule> rules;
+
+    private final int words;
+
+    private final long[] bits;
+
+    RuleMatches(List<Game> games, List<Rule> rules) {
+        this.games = games;
+        this.rules = rules;
+        this.words = (rules.size() + 63) >>> 6;
+        this.bits = new long[games.size() * words];
+    }
+
+    void setWord(int game, int word, long value) {
+        bits[game * words + word] = value;
+    }
+
+    public List<Game> getGames() {
+        return games;
+    }
+
+    /**
+     * @return - list of evaluated rules, rules with invalid conditions are not included.
+     */
+    public List<Rule> getRules() {
+        return rules;
+    }
+
+    public boolean matches(int game, int rule) {
+        return (bits[game * words + (rule >>> 6)] & (1L << rule)) != 0;
+    }
+
+    /**
+     * @param game - index of the game.
+     * @return - list of rules matched by the game, in order of evaluated rules.
+     */
+    public List<Rule> rulesOf(int game) {
+        List<Rule> gameRules = new ArrayList<>();
+        for (int word = 0; word < words; word++) {
+            long value = bits[game * words + word];
+            while (value != 0) {
+                gameRules.add(rules.get((word << 6) + Long.numberOfTrailingZeros(value)));
+                value &= value - 1;
+            }
+        }
+        return gameRules;
+    }
+
+    /**
+     * @param rule - index of the rule.
+     * @return - list of games matched by the rule, in order of evaluated games.
+     */
+    public List<Game> gamesOf(int rule) {
+        List<Game> ruleGames = new ArrayList<>();
+        for (int game = 0; game < games.size(); game++) {
+            if (matches(game, rule)) {
+                ruleGames.add(games.get(game));
+            }
+        }
+        return ruleGames;
+    }
+
+    /**
+     * @return - list of games matched by at least one rule, in order of evaluated games.
+     */
+    public List<Game> matchedGames() {
+        if (rules.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Game> matchedGames = new ArrayList<>();
+        for (int game = 0; game < games.size(); game++) {
+            if (anyMatch(game)) {
+                matchedGames.add(games.get(game));
+            }
+        }
+        return matchedGames;
+    }
+
+    /**
+     * Adds every matched rule to rules of the game.
+     */
+    public void assignRules() {
+        for (int game = 0; game < games.size(); game++) {
+            if (anyMatch(game)) {
+                games.get(game).getRules().addAll(rulesOf(game));
+            }
+        }
+    }
+
+    /**
+     * @return - number of matched game and rule pairs.
+     */
+    public int count() {
+        int count = 0;
+        for (long value : bits) {
+            count += Long.bitCount(value);
+        }
+        return count;
+    }
+
+    private boolean anyMatch(int game) {
+        for (int word = 0; word < words; word++) {
+            if (bits[game * words + word] != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,49 @@
+package com.zylex.betbot.service.rule;
+
+/**
+ * Comparison operator of the rule condition.
+ */
+public enum RuleOperator {
+
+    MORE(">") {
+        @Override
+        public boolean test(double gameValue, double value) {
+            return gameValue > value;
+        }
+    },
+
+    MORE_EVEN(">=") {
+        @Override
+        public boolean test(double gameValue, double value) {
+            return gameValue >= value;
+        }
+    },
+
+    LESS("<") {
+        @Override
+        public boolean test(double gameValue, double value) {
+            return gameValue < value;
+        }
+    },
+
+    LESS_EVEN("<=") {
+        @Override
+        public boolean test(double gameValue, double value) {
+            return gameValue <= value;
+        }
+    };
+
+    public final String SQL;
+
+    RuleOperator(String SQL) {
+        this.SQL = SQL;
+    }
+
+    /**
+     * Compares game coefficient with the condition value.
+     * @param gameValue - coefficient of the game.
+     * @param value - value of the condition.
+     * @return - true if the coefficient satisfies the condition.
+     */
+    public abstract boolean test(double gameValue, double value);
+}
@@ -3,6 +3,9 @@ package com.zylex.betbot.service.rule;
 import com.zylex.betbot.controller.logger.RuleProcessorLogger;
 import com.zylex.betbot.model.game.Game;
 import com.zylex.betbot.model.rule.Rule;
+import com.zylex.betbot.service.history.OddsHistoryService;
+import com.zylex.betbot.service.ingest.GameIngestionService;
+import com.zylex.betbot.service.parsing.LeagueFingerprintCache;
 import com.zylex.betbot.service.parsing.ParseProcessor;
 import com.zylex.betbot.service.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,7 +13,8 @@ import org.springframework.stereotype.Service;
 
 import javax.transaction.Transactional;
 import java.util.*;
-import java.util.stream.Collectors;
+
+import static com.zylex.betbot.BetBotApplication.betStartDateTime;
 
 /**
  * Filter games by rules.
@@ -22,58 +26,115 @@ public class RuleProcessor {
 
     private final GameRepository gameRepository;
 
-    private final RuleRepository ruleRepository;
+    private final RuleRegistry ruleRegistry;
+
+    private final RuleBatchEvaluator ruleBatchEvaluator;
+
+    private final RuleCompiler ruleCompiler;
 
-    private final RuleFilter ruleFilter;
+    private final RuleGameRepository ruleGameRepository;
 
     private final ParseProcessor parseProcessor;
 
+    private final LeagueFingerprintCache fingerprintCache;
+
+    private final OddsHistoryService oddsHistoryService;
+
+    private final GameIngestionService gameIngestionService;
+
     @Autowired
     public RuleProcessor(GameRepository gameRepository,
-                         RuleRepository ruleRepository,
-                         RuleFilter ruleFilter,
-                         ParseProcessor parseProcessor) {
+                         RuleRegistry ruleRegistry,
+                         RuleBatchEvaluator ruleBatchEvaluator,
+                         RuleCompiler ruleCompiler,
+                         RuleGameRepository ruleGameRepository,
+                         ParseProcessor parseProcessor,
+                         LeagueFingerprintCache fingerprintCache,
+                         OddsHistoryService oddsHistoryService,
+                         GameIngestionService gameIngestionService) {
         this.gameRepository = gameRepository;
-        this.ruleRepository = ruleRepository;
-        this.ruleFilter = ruleFilter;
+        this.ruleRegistry = ruleRegistry;
+        this.ruleBatchEvaluator = ruleBatchEvaluator;
+        this.ruleCompiler = ruleCompiler;
+        this.ruleGameRepository = ruleGameRepository;
         this.parseProcessor = parseProcessor;
+        this.fingerprintCache = fingerprintCache;
+        this.oddsHistoryService = oddsHistoryService;
+        this.gameIngestionService = gameIngestionService;
     }
 
     /**
      * Filters games by all rules, and set rule to filtered game.
+     * Fingerprints of parsed leagues are saved together with games,
+     * so unchanged leagues are skipped on the next run. Changes of coefficients are appended to odds history,
+     * and only new or changed games are evaluated by all rules in one pass. Rules with invalid conditions are skipped.
+     * Eligible games of all rules are saved in one batch.
+     * @return - list of new or changed games.
      */
     @Transactional
-    public void process() {
-        List<Game> games = parseProcessor.process();
-        List<Rule> rules = ruleRepository.findAll();
-        for (Rule rule : rules) {
-            List<Game> eligibleGames = ruleFilter.filter(games, rule);
-            eligibleGames.sort(Comparator.comparing(Game::getDateTime));
-            for (Game game : eligibleGames) {
-                if (gameRepository.findByLink(game.getLink()) == null) {
-                    gameRepository.save(game);
-                }
+    public List<Game> process() {
+        List<Game> games = parseProcessor.process().getGames();
+        List<Game> changedGames = oddsHistoryService.record(games);
+        RuleSet ruleSet = ruleRegistry.getRuleSet();
+        RuleMatches matches = ruleBatchEvaluator.evaluate(changedGames, ruleSet.getRules());
+        matches.assignRules();
+        List<Game> eligibleGames = new ArrayList<>(matches.matchedGames());
+        eligibleGames.sort(Comparator.comparing(Game::getDateTime));
+        gameIngestionService.saveNew(eligibleGames);
+        fingerprintCache.commit();
+        List<Rule> activatedRules = ruleSet.getActiveRules();
+        logger.writeEligibleGamesNumber(filterBetGames(activatedRules), activatedRules);
+        return changedGames;
+    }
+
+    /**
+     * Finds games of the betting window, which match rules already set to them.
+     * Rule conditions and league filters are checked by database, so only matched games are loaded.
+     * Rules with invalid conditions are skipped.
+     * @param rules - list of rules.
+     * @return - game and rule matches, games are sorted by date.
+     */
+    public RuleMatches matchBetGames(List<Rule> rules) {
+        List<CompiledRule> compiledRules = ruleCompiler.compileValid(rules);
+        List<Rule> validRules = new ArrayList<>(compiledRules.size());
+        for (CompiledRule compiledRule : compiledRules) {
+            validRules.add(compiledRule.getRule());
+        }
+        Map<Long, BitSet> gameRules = ruleGameRepository.findAssignedGames(compiledRules, betStartDateTime());
+        Map<Long, Game> gamesById = new HashMap<>();
+        for (Game game : gameRepository.findAllById(gameRules.keySet())) {
+            gamesById.put(game.getId(), game);
+        }
+        List<Game> games = new ArrayList<>(gameRules.size());
+        List<BitSet> gameBits = new ArrayList<>(gameRules.size());
+        for (Map.Entry<Long, BitSet> gameRule : gameRules.entrySet()) {
+            Game game = gamesById.get(gameRule.getKey());
+            if (game != null) {
+                games.add(game);
+                gameBits.add(gameRule.getValue());
+            }
+        }
+        RuleMatches matches = new RuleMatches(games, validRules);
+        for (int game = 0; game < games.size(); game++) {
+            long[] words = gameBits.get(game).toLongArray();
+            for (int word = 0; word < words.length; word++) {
+                matches.setWord(game, word, words[word]);
             }
         }
-        List<Rule> activatedRules = ruleRepository.findByActivateTrue();
-        logger.writeEligibleGamesNumber(
-                filterGamesByRules(gameRepository.findByBetStartTime(), activatedRules), activatedRules);
+        return matches;
     }
 
-    public List<Game> filterGamesByRules(List<Game> games, List<Rule> rules) {
+    /**
+     * Finds games of the betting window, which match rules already set to them.
+     * @param rules - list of rules.
+     * @return - list of games of every rule in order of rules, games of one rule are sorted by date.
+     */
+    public List<Game> filterBetGames(List<Rule> rules) {
+        RuleMatches matches = matchBetGames(rules);
         List<Game> filteredGames = new ArrayList<>();
-        for (Rule rule : rules) {
-            filteredGames.addAll(filterGamesByRule(games, rule));
+        for (int rule = 0; rule < matches.getRules().size(); rule++) {
+            filteredGames.addAll(matches.gamesOf(rule));
         }
         return filteredGames;
     }
-
-    public List<Game> filterGamesByRule(List<Game> games, Rule rule) {
-        List<Game> ruleGames = games.stream()
-                .filter(game -> game.getRules().contains(rule))
-                .collect(Collectors.toList());
-        return ruleFilter.filter(ruleGames, rule).stream()
-                .sorted(Comparator.comparing(Game::getDateTime))
-                .collect(Collectors.toList());
-    }
 }
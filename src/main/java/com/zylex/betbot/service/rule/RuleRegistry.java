@@ -0,0 +1,91 @@
+package com.zylex.betbot.service.rule;
+
+import com.zylex.betbot.service.repository.RuleRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps rules in memory as an immutable snapshot, which is replaced as a whole when rules change.
+ * Triggers on rule and rule_condition bump the rule data version,
+ * which is checked at most once per check interval. Readers never lock and never wait for a reload.
+ */
+@Service
+public class RuleRegistry {
+
+    private final RuleRepository ruleRepository;
+
+    @Value("${rule.registry.check-interval-millis:10000}")
+    private long checkIntervalMillis;
+
+    private volatile RuleSet ruleSet;
+
+    private volatile long lastCheckTime;
+
+    @Autowired
+    public RuleRegistry(RuleRepository ruleRepository) {
+        this.ruleRepository = ruleRepository;
+    }
+
+    /**
+     * @return - current snapshot of rules, loaded again if the rule data version changed.
+     */
+    public RuleSet getRuleSet() {
+        RuleSet current = ruleSet;
+        if (current != null && System.currentTimeMillis() - lastCheckTime < checkIntervalMillis) {
+            return current;
+        }
+        synchronized (this) {
+            current = ruleSet;
+            long now = System.currentTimeMillis();
+            if (current != null && now - lastCheckTime < checkIntervalMillis) {
+                return current;
+            }
+            long dataVersion = findDataVersion();
+            if (current == null || current.getDataVersion() != dataVersion) {
+                current = load(dataVersion);
+            }
+            lastCheckTime = now;
+            return current;
+        }
+    }
+
+    /**
+     * Loads rules from database and replaces the snapshot, even if the rule data version is the same.
+     * @return - new snapshot of rules.
+     */
+    public synchronized RuleSet reload() {
+        RuleSet current = load(findDataVersion());
+        lastCheckTime = System.currentTimeMillis();
+        return current;
+    }
+
+    private RuleSet load(long dataVersion) {
+        RuleSet current = ruleSet;
+        RuleSet loaded = new RuleSet(current == null ? 1 : current.getVersion() + 1, dataVersion, ruleRepository.findAll());
+        ruleSet = loaded;
+        return loaded;
+    }
+
+    private long findDataVersion() {
+        Long version = ruleRepository.findRuleVersion();
+        return version == null ? 0 : version;
+    }
+
+    /**
+     * @return - description of the current snapshot by name.
+     */
+    public Map<String, Object> getStatus() {
+        RuleSet current = getRuleSet();
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("version", current.getVersion());
+        status.put("dataVersion", current.getDataVersion());
+        status.put("loadTime", current.getLoadTime());
+        status.put("rules", current.getRules().size());
+        status.put("activeRules", current.getActiveRules().size());
+        return status;
+    }
+}
@@ -0,0 +1,102 @@
+package com.zylex.betbot.service.rule;
+
+import com.zylex.betbot.model.rule.Rule;
+import com.zylex.betbot.model.rule.RuleCondition;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Immutable snapshot of all rules, loaded in one query. Readers keep the snapshot they got,
+ * so every rule lookup of one run sees the same rules.
+ * Rules of the snapshot are detached copies of loaded entities with unmodifiable lists of conditions.
+ * They are shared by all readers, so their setters must not be called: copy the rule to change it.
+ */
+public final class RuleSet {
+
+    private final long version;
+
+    private final long dataVersion;
+
+    private final LocalDateTime loadTime;
+
+    private final List<Rule> rules;
+
+    private final List<Rule> activeRules;
+
+    private final Map<String, Rule> rulesByName;
+
+    RuleSet(long version, long dataVersion, List<Rule> rules) {
+        this.version = version;
+        this.dataVersion = dataVersion;
+        this.loadTime = LocalDateTime.now();
+        List<Rule> activeRules = new ArrayList<>();
+        Map<String, Rule> rulesByName = new HashMap<>();
+        List<Rule> copies = new ArrayList<>(rules.size());
+        for (Rule loadedRule : rules) {
+            Rule rule = copy(loadedRule);
+            copies.add(rule);
+            if (rule.isActivate()) {
+                activeRules.add(rule);
+            }
+            rulesByName.put(rule.getName(), rule);
+        }
+        this.rules = Collections.unmodifiableList(copies);
+        this.activeRules = Collections.unmodifiableList(activeRules);
+        this.rulesByName = Collections.unmodifiableMap(rulesByName);
+    }
+
+    /**
+     * @return - number of the snapshot, grows by one on every reload.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return - rule data version in database, which the snapshot was loaded for.
+     */
+    public long getDataVersion() {
+        return dataVersion;
+    }
+
+    public LocalDateTime getLoadTime() {
+        return loadTime;
+    }
+
+    public List<Rule> getRules() {
+        return rules;
+    }
+
+    public List<Rule> getActiveRules() {
+        return activeRules;
+    }
+
+    /**
+     * @param name - name of the rule.
+     * @return - rule, or null if there is no rule with the name.
+     */
+    public Rule findByName(String name) {
+        return rulesByName.get(name);
+    }
+
+    private static Rule copy(Rule rule) {
+        Rule copy = new Rule();
+        copy.setId(rule.getId());
+        copy.setName(rule.getName());
+        copy.setSelectedLeagues(rule.isSelectedLeagues());
+        copy.setPercent(rule.getPercent());
+        copy.setBetCoefficient(rule.getBetCoefficient());
+        copy.setActivate(rule.isActivate());
+        List<RuleCondition> conditions = new ArrayList<>(rule.getRuleConditions().size());
+        for (RuleCondition ruleCondition : rule.getRuleConditions()) {
+            RuleCondition condition = new RuleCondition(ruleCondition.getCoefficient(),
+                    ruleCondition.getOperator(), ruleCondition.getValue());
+            condition.setId(ruleCondition.getId());
+            condition.setEnabled(ruleCondition.isEnabled());
+            conditions.add(condition);
+        }
+        copy.setRuleConditions(Collections.unmodifiableList(conditions));
+        return copy;
+    }
+}
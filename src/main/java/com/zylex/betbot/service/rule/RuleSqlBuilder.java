@@ -0,0 +1,45 @@
+package com.zylex.betbot.service.rule;
+
+import java.util.List;
+
+/**
+ * Translates compiled rule into SQL condition, so games are matched by database.
+ * Condition refers to game as "g", its game info as "gi" and its league as "l".
+ */
+public final class RuleSqlBuilder {
+
+    private static final GameCoefficient[] COEFFICIENTS = GameCoefficient.values();
+
+    private RuleSqlBuilder() {
+    }
+
+    /**
+     * Builds condition of coefficients, exclude leagues and selected leagues of the rule.
+     * Values are passed as parameters, never inlined.
+     * @param compiledRule - compiled rule.
+     * @param assignedOnly - if true, game matches only if the rule is already set to the game.
+     * @param parameters - list, which parameters of the condition are added to.
+     * @return - condition to put after WHERE or AND.
+     */
+    public static String where(CompiledRule compiledRule, boolean assignedOnly, List<Object> parameters) {
+        StringBuilder where = new StringBuilder();
+        for (int i = 0; i < compiledRule.getConditionsNumber(); i++) {
+            where.append("gi.")
+                    .append(COEFFICIENTS[compiledRule.getColumn(i)].SQL_COLUMN)
+                    .append(' ')
+                    .append(compiledRule.getOperator(i).SQL)
+                    .append(" ? AND ");
+            parameters.add(compiledRule.getValue(i));
+        }
+        where.append("NOT EXISTS (SELECT 1 FROM exclude_league el WHERE el.rule_name = ? AND el.league_link = l.link)");
+        parameters.add(compiledRule.getRule().getName());
+        if (compiledRule.isSelectedLeagues()) {
+            where.append(" AND EXISTS (SELECT 1 FROM selected_league sl WHERE sl.league_link = l.link)");
+        }
+        if (assignedOnly) {
+            where.append(" AND EXISTS (SELECT 1 FROM game_rule gr WHERE gr.game_id = g.id AND gr.rule_id = ?)");
+            parameters.add(compiledRule.getRule().getId());
+        }
+        return where.toString();
+    }
+}
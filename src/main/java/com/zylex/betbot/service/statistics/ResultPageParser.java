@@ -0,0 +1,47 @@
+package com.zylex.betbot.service.statistics;
+
+import com.zylex.betbot.model.game.GameResult;
+import org.jsoup.nodes.Element;
+
+/**
+ * Parses rows of the results page.
+ */
+public class ResultPageParser {
+
+    /**
+     * Finds teams of the game row.
+     * @param gameElement - row of the results table.
+     * @return - first and second teams, or empty array if the row is not a game.
+     */
+    public String[] findTeams(Element gameElement) {
+        Element teamCellElement = gameElement.selectFirst("div.c-games__opponents");
+        if (teamCellElement == null) return new String[]{};
+        String teamCellText = teamCellElement.text();
+        if (!teamCellText.contains(" - ")) return new String[]{};
+        return teamCellText.split(" - ", 2);
+    }
+
+    /**
+     * Finds result of the game row by its final score.
+     * @param gameElement - row of the results table.
+     * @return - game result, or null if the game is not finished.
+     */
+    public GameResult findResult(Element gameElement) {
+        String scoreCellText = gameElement.selectFirst("div.c-games__results").text();
+        if (!scoreCellText.contains(" (")) return null;
+        String[] scores = scoreCellText.split(" \\(", 2)[0].split(":");
+        int firstBalls = Integer.parseInt(scores[0]);
+        int secondBalls = Integer.parseInt(scores[1]);
+        return computeGameResult(firstBalls, secondBalls);
+    }
+
+    private GameResult computeGameResult(int firstBalls, int secondBalls) {
+        if (firstBalls > secondBalls) {
+            return GameResult.FIRST_WIN;
+        } else if (firstBalls == secondBalls) {
+            return GameResult.TIE;
+        } else {
+            return GameResult.SECOND_WIN;
+        }
+    }
+}
@@ -5,6 +5,9 @@ import com.zylex.betbot.controller.logger.ResultScannerConsoleLogger;
 import com.zylex.betbot.exception.ResultScannerException;
 import com.zylex.betbot.model.game.Game;
 import com.zylex.betbot.model.game.GameResult;
+import com.zylex.betbot.service.archive.GameArchiveStore;
+import com.zylex.betbot.service.corpus.PageCorpus;
+import com.zylex.betbot.service.corpus.PageType;
 import com.zylex.betbot.service.driver.DriverManager;
 import com.zylex.betbot.service.repository.GameRepository;
 import org.jsoup.Jsoup;
@@ -16,6 +19,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import javax.transaction.Transactional;
+import java.io.IOException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
@@ -24,7 +28,7 @@ import java.time.format.TextStyle;
 import java.util.*;
 import java.util.stream.Collectors;
 
-import static com.zylex.betbot.BetBotApplication.BOT_START_TIME;
+import static com.zylex.betbot.BetBotApplication.botStartTime;
 
 /**
  * Scans games results since specified date.
@@ -34,29 +38,51 @@ public class ResultScanner {
 
     private final ResultScannerConsoleLogger logger = new ResultScannerConsoleLogger();
 
+    private final ResultPageParser resultPageParser = new ResultPageParser();
+
     private final GameRepository gameRepository;
 
     private final DriverManager driverManager;
 
+    private final PageCorpus pageCorpus;
+
+    private final RuleProfitStore ruleProfitStore;
+
+    private final GameArchiveStore gameArchiveStore;
+
     @Autowired
     public ResultScanner(GameRepository gameRepository,
-                         DriverManager driverManager) {
+                         DriverManager driverManager,
+                         PageCorpus pageCorpus,
+                         RuleProfitStore ruleProfitStore,
+                         GameArchiveStore gameArchiveStore) {
         this.gameRepository = gameRepository;
         this.driverManager = driverManager;
+        this.pageCorpus = pageCorpus;
+        this.ruleProfitStore = ruleProfitStore;
+        this.gameArchiveStore = gameArchiveStore;
     }
 
     /**
      * Navigates to results tab, where opens specified day statistics
-     * and parse games results.
+     * and parse games results. In corpus replay mode results pages are read from the corpus.
+     * Only games, which started more than two hours before the run, are scanned.
+     * Games with found results are added to profit aggregates of their rules, and the game archive
+     * is synced after commit.
      * @param startDate - start date for scanning.
+     * @return - number of games, which results were found.
      */
     @Transactional
-    public void scan(LocalDate startDate) {
+    public int scan(LocalDate startDate) {
         List<Game> noResultGames = findNoResultGames(startDate);
         if (noResultGames.isEmpty()) {
             //TODO remove repeated code
             logger.startLogMessage(LogType.PARSING_SITE_START, 0);
             logger.noGamesLog();
+        } else if (pageCorpus.isReplay()) {
+            logger.startLogMessage(LogType.PARSING_SITE_START, 0);
+            logger.startLogMessage(LogType.GAMES, noResultGames.size());
+            processReplayResults(noResultGames, startDate);
         } else {
             if (driverManager.getDriver() == null) {
                 driverManager.initiateDriver();
@@ -66,13 +92,22 @@ public class ResultScanner {
             processResults(noResultGames, startDate);
         }
         logger.endLogMessage();
+        List<Game> resultGames = noResultGames.stream()
+                .filter(game -> !game.getResult().equals(GameResult.NO_RESULT.toString())
+                        && !game.getResult().equals(GameResult.NOT_FOUND.toString()))
+                .collect(Collectors.toList());
+        ruleProfitStore.addResults(resultGames);
+        if (!resultGames.isEmpty()) {
+            gameArchiveStore.requestSync();
+        }
+        return resultGames.size();
     }
 
     private List<Game> findNoResultGames(LocalDate startDate) {
         return gameRepository
-                .findSinceDateTime(LocalDateTime.of(startDate, LocalTime.MIN)).stream()
-                .filter(game -> BOT_START_TIME.isAfter(game.getDateTime().plusHours(2)))
-                .filter(game -> game.getResult().equals(GameResult.NO_RESULT.toString()))
+                .findByResultBetween(LocalDateTime.of(startDate, LocalTime.MIN),
+                        botStartTime().minusHours(2),
+                        GameResult.NO_RESULT.toString()).stream()
                 .sorted(Comparator.comparing(Game::getDateTime))
                 .collect(Collectors.toList());
     }
@@ -87,25 +122,44 @@ public class ResultScanner {
             List<Game> dayGames = findDayGames(noResultGames, day);
             if (dayGames.isEmpty()) continue;
             navigateToDay(day);
-            Document document = Jsoup.parse(driverManager.getDriver().getPageSource());
-            Elements gameElements = document.select("div.c-table__row");
-            for (Element gameElement : gameElements) {
-                String[] teams = findTeams(gameElement);
-                if (teams.length == 0) continue;
-                for (Game game : dayGames) {
-                    if (!game.getFirstTeam().equals(teams[0])) continue;
-                    if (!game.getSecondTeam().equals(teams[1])) continue;
-                    processGame(gameElement, game);
-                    dayGames.remove(game);
-                    break;
-                }
+            String pageSource = driverManager.getDriver().getPageSource();
+            pageCorpus.capture(PageType.RESULTS, day.toString(), pageSource);
+            processDayResults(Jsoup.parse(pageSource), dayGames);
+        }
+    }
+
+    private void processReplayResults(List<Game> noResultGames, LocalDate startDate) {
+        for (LocalDate day = LocalDate.now();
+             day.isAfter(startDate.minusDays(1));
+             day = day.minusDays(1)) {
+            List<Game> dayGames = findDayGames(noResultGames, day);
+            if (dayGames.isEmpty()) continue;
+            try {
+                processDayResults(Jsoup.parse(pageCorpus.load(PageType.RESULTS, day.toString())), dayGames);
+            } catch (IOException e) {
+                throw new ResultScannerException(e.getMessage(), e);
             }
+        }
+    }
+
+    private void processDayResults(Document document, List<Game> dayGames) {
+        Elements gameElements = document.select("div.c-table__row");
+        for (Element gameElement : gameElements) {
+            String[] teams = resultPageParser.findTeams(gameElement);
+            if (teams.length == 0) continue;
             for (Game game : dayGames) {
-                if (game.getDateTime().isBefore(BOT_START_TIME.minusDays(1))) {
-                    game.setResult(GameResult.NOT_FOUND.toString());
-                    //TODO check !!!
-                    //gameRepository.update(game);
-                }
+                if (!game.getFirstTeam().equals(teams[0])) continue;
+                if (!game.getSecondTeam().equals(teams[1])) continue;
+                processGame(gameElement, game);
+                dayGames.remove(game);
+                break;
+            }
+        }
+        for (Game game : dayGames) {
+            if (game.getDateTime().isBefore(botStartTime().minusDays(1))) {
+                game.setResult(GameResult.NOT_FOUND.toString());
+                //TODO check !!!
+                //gameRepository.update(game);
             }
         }
     }
@@ -166,34 +220,12 @@ public class ResultScanner {
                 .collect(Collectors.toList());
     }
 
-    private String[] findTeams(Element gameElement) {
-        Element teamCellElement = gameElement.selectFirst("div.c-games__opponents");
-        if (teamCellElement == null) return new String[]{};
-        String teamCellText = teamCellElement.text();
-        if (!teamCellText.contains(" - ")) return new String[]{};
-        return teamCellText.split(" - ", 2);
-    }
-
     private void processGame(Element gameElement, Game game) {
-        String scoreCellText = gameElement.selectFirst("div.c-games__results").text();
-        if (!scoreCellText.contains(" (")) return;
-        String[] scores = scoreCellText.split(" \\(", 2)[0].split(":");
-        int firstBalls = Integer.parseInt(scores[0]);
-        int secondBalls = Integer.parseInt(scores[1]);
-        GameResult gameResult = computeGameResult(firstBalls, secondBalls);
+        GameResult gameResult = resultPageParser.findResult(gameElement);
+        if (gameResult == null) return;
         game.setResult(gameResult.toString());
         //TODO check !!!
 //        gameRepository.update(game);
         logger.logGame();
     }
-
-    private GameResult computeGameResult(int firstBalls, int secondBalls) {
-        if (firstBalls > secondBalls) {
-            return GameResult.FIRST_WIN;
-        } else if (firstBalls == secondBalls) {
-            return GameResult.TIE;
-        } else {
-            return GameResult.SECOND_WIN;
-        }
-    }
 }
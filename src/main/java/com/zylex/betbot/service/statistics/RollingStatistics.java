@@ -0,0 +1,54 @@
+package com.zylex.betbot.service.statistics;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Ring buffer of daily statistics of one rule for the last days. Slot of the day is its epoch day modulo
+ * the buffer size, so the buffer moves with the calendar without shifting. Slot of an older day is reused.
+ */
+class RollingStatistics {
+
+    static final int DAYS = 90;
+
+    private final long[] days = new long[DAYS];
+
+    private final StatisticsAccumulator[] buckets = new StatisticsAccumulator[DAYS];
+
+    RollingStatistics() {
+        Arrays.fill(days, Long.MIN_VALUE);
+    }
+
+    /**
+     * Adds statistics to the bucket of the day. Statistics of a day, which is older than the day in the slot, is ignored.
+     * @param day - day of games.
+     * @param statistics - statistics of games of the day.
+     */
+    void add(LocalDate day, StatisticsAccumulator statistics) {
+        long epochDay = day.toEpochDay();
+        int slot = (int) Math.floorMod(epochDay, (long) DAYS);
+        if (days[slot] > epochDay) return;
+        if (days[slot] != epochDay) {
+            days[slot] = epochDay;
+            buckets[slot] = new StatisticsAccumulator();
+        }
+        buckets[slot].merge(statistics);
+    }
+
+    /**
+     * @param lastDay - last day of the window.
+     * @param window - number of days in the window, not more than the buffer size.
+     * @return - statistics of the window.
+     */
+    StatisticsAccumulator sum(LocalDate lastDay, int window) {
+        StatisticsAccumulator statistics = new StatisticsAccumulator();
+        long lastEpochDay = lastDay.toEpochDay();
+        for (long epochDay = lastEpochDay - window + 1; epochDay <= lastEpochDay; epochDay++) {
+            int slot = (int) Math.floorMod(epochDay, (long) DAYS);
+            if (days[slot] == epochDay) {
+                statistics.merge(buckets[slot]);
+            }
+        }
+        return statistics;
+    }
+}
@@ -0,0 +1,195 @@
+package com.zylex.betbot.service.statistics;
+
+import com.zylex.betbot.exception.RuleCompilerException;
+import com.zylex.betbot.model.game.Game;
+import com.zylex.betbot.model.game.GameResult;
+import com.zylex.betbot.model.rule.Rule;
+import com.zylex.betbot.service.repository.RuleProfitRepository;
+import com.zylex.betbot.service.rule.CompiledRule;
+import com.zylex.betbot.service.rule.LeagueFilterCache;
+import com.zylex.betbot.service.rule.RuleCompiler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps per-rule aggregates of resolved games by day and result, so statistics of a period are read in O(days).
+ * Games are added when their results are found. Games gain rules only when they are saved,
+ * before their results are known, so results are the only incremental event.
+ * Aggregates of the rule are rebuilt by database when its conditions or league filters change.
+ * Daily statistics of the last days are also kept in memory in a ring buffer per rule for rolling windows.
+ */
+@Service
+public class RuleProfitStore {
+
+    private final RuleProfitRepository ruleProfitRepository;
+
+    private final RuleCompiler ruleCompiler;
+
+    private final LeagueFilterCache leagueFilterCache;
+
+    private final Map<Long, RollingStatistics> rollingStatistics = new HashMap<>();
+
+    private final AtomicLong resultsVersion = new AtomicLong();
+
+    @Autowired
+    public RuleProfitStore(RuleProfitRepository ruleProfitRepository,
+                           RuleCompiler ruleCompiler,
+                           LeagueFilterCache leagueFilterCache) {
+        this.ruleProfitRepository = ruleProfitRepository;
+        this.ruleCompiler = ruleCompiler;
+        this.leagueFilterCache = leagueFilterCache;
+    }
+
+    /**
+     * Adds games, which results are just found, to aggregates of their rules.
+     * Game is added to the rule, if the rule is valid and the game still matches it.
+     * @param games - list of games, which results are found.
+     */
+    public synchronized void addResults(List<Game> games) {
+        Map<Rule, List<Game>> ruleGames = new LinkedHashMap<>();
+        for (Game game : games) {
+            if (!isResolved(game.getResult())) continue;
+            for (Rule rule : game.getRules()) {
+                ruleGames.computeIfAbsent(rule, r -> new ArrayList<>()).add(game);
+            }
+        }
+        boolean added = false;
+        for (Map.Entry<Rule, List<Game>> ruleGame : ruleGames.entrySet()) {
+            CompiledRule compiledRule;
+            try {
+                compiledRule = ruleCompiler.compile(ruleGame.getKey());
+            } catch (RuleCompilerException e) {
+                continue;
+            }
+            List<Game> matchedGames = new ArrayList<>();
+            for (Game game : ruleGame.getValue()) {
+                if (matches(compiledRule, game)) {
+                    matchedGames.add(game);
+                }
+            }
+            if (!matchedGames.isEmpty()) {
+                ruleProfitRepository.addGames(compiledRule.getRule().getId(), matchedGames);
+                addRolling(compiledRule.getRule().getId(), matchedGames);
+                added = true;
+            }
+        }
+        if (added) {
+            bumpResultsVersion();
+        }
+    }
+
+    /**
+     * @return - version of aggregated results, grows when added results are committed.
+     */
+    public long getResultsVersion() {
+        return resultsVersion.get();
+    }
+
+    private void bumpResultsVersion() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            resultsVersion.incrementAndGet();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+            @Override
+            public void afterCommit() {
+                resultsVersion.incrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * Adds games to the ring buffer of the rule. Inside a transaction the buffer is dropped after completion instead,
+     * because a buffer loaded by another caller before commit misses the rows, which are not committed yet.
+     */
+    private void addRolling(long ruleId, List<Game> games) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+                @Override
+                public void afterCompletion(int status) {
+                    dropRolling(ruleId);
+                }
+            });
+            return;
+        }
+        RollingStatistics ruleRolling = rollingStatistics.get(ruleId);
+        if (ruleRolling == null) return;
+        for (Game game : games) {
+            StatisticsAccumulator statistics = new StatisticsAccumulator();
+            statistics.add(GameResult.valueOf(game.getResult()), game.getGameInfo());
+            ruleRolling.add(game.getDateTime().toLocalDate(), statistics);
+        }
+    }
+
+    private synchronized void dropRolling(long ruleId) {
+        rollingStatistics.remove(ruleId);
+    }
+
+    /**
+     * Sums aggregates of the rule for the period, rebuilds them first if the rule changed since they were built.
+     * @param compiledRule - compiled rule.
+     * @param startDate - first day, or null for no lower bound.
+     * @param endDate - last day, or null for no upper bound.
+     * @return - statistics of the rule for the period.
+     */
+    public synchronized StatisticsAccumulator findStatistics(CompiledRule compiledRule, LocalDate startDate, LocalDate endDate) {
+        checkState(compiledRule);
+        return ruleProfitRepository.findStatistics(compiledRule.getRule().getId(), startDate, endDate);
+    }
+
+    /**
+     * Sums daily statistics of the rule for the last days, including today, from the ring buffer.
+     * @param compiledRule - compiled rule.
+     * @param days - number of days in the window.
+     * @return - statistics of the rule for the window.
+     */
+    public synchronized StatisticsAccumulator findRollingStatistics(CompiledRule compiledRule, int days) {
+        if (days <= 0 || days > RollingStatistics.DAYS) {
+            throw new IllegalArgumentException("Rolling window must be from 1 to " + RollingStatistics.DAYS + " days.");
+        }
+        long ruleId = compiledRule.getRule().getId();
+        checkState(compiledRule);
+        LocalDate today = LocalDate.now();
+        RollingStatistics ruleRolling = rollingStatistics.get(ruleId);
+        if (ruleRolling == null) {
+            ruleRolling = new RollingStatistics();
+            Map<LocalDate, StatisticsAccumulator> dailyStatistics =
+                    ruleProfitRepository.findDailyStatistics(ruleId, today.minusDays(RollingStatistics.DAYS - 1));
+            for (Map.Entry<LocalDate, StatisticsAccumulator> day : dailyStatistics.entrySet()) {
+                ruleRolling.add(day.getKey(), day.getValue());
+            }
+            rollingStatistics.put(ruleId, ruleRolling);
+        }
+        return ruleRolling.sum(today, days);
+    }
+
+    private void checkState(CompiledRule compiledRule) {
+        long ruleId = compiledRule.getRule().getId();
+        String state = compiledRule.getSignature() + "@" + leagueFilterCache.getVersion();
+        if (!state.equals(ruleProfitRepository.findState(ruleId))) {
+            ruleProfitRepository.rebuild(compiledRule, state);
+            rollingStatistics.remove(ruleId);
+        }
+    }
+
+    private boolean matches(CompiledRule compiledRule, Game game) {
+        String leagueLink = game.getLeague().getLink();
+        return compiledRule.matches(game.getGameInfo())
+                && !leagueFilterCache.findExcludeLeagues(compiledRule.getRule().getName()).contains(leagueLink)
+                && (!compiledRule.isSelectedLeagues() || leagueFilterCache.findSelectedLeagues().contains(leagueLink));
+    }
+
+    private static boolean isResolved(String result) {
+        return GameResult.FIRST_WIN.toString().equals(result)
+                || GameResult.TIE.toString().equals(result)
+                || GameResult.SECOND_WIN.toString().equals(result);
+    }
+}
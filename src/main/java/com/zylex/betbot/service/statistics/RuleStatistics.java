@@ -0,0 +1,47 @@
+package com.zylex.betbot.service.statistics;
+
+import com.zylex.betbot.model.bet.BetCoefficient;
+import com.zylex.betbot.model.rule.Rule;
+
+import java.util.Map;
+
+/**
+ * Statistics of one rule for the period with the time it took to compute them.
+ */
+public class RuleStatistics {
+
+    private final Rule rule;
+
+    private final StatisticsAccumulator statistics;
+
+    private final long elapsedMicros;
+
+    RuleStatistics(Rule rule, StatisticsAccumulator statistics, long elapsedMicros) {
+        this.rule = rule;
+        this.statistics = statistics;
+        this.elapsedMicros = elapsedMicros;
+    }
+
+    public Rule getRule() {
+        return rule;
+    }
+
+    public int getGames() {
+        return statistics.getGames();
+    }
+
+    public Map<BetCoefficient, Double> getProfits() {
+        return statistics.getProfits();
+    }
+
+    public Map<BetCoefficient, Double> getRois() {
+        return statistics.getRois();
+    }
+
+    /**
+     * @return - time of computation of the rule statistics in microseconds.
+     */
+    public long getElapsedMicros() {
+        return elapsedMicros;
+    }
+}
@@ -0,0 +1,179 @@
+package com.zylex.betbot.service.statistics;
+
+import com.zylex.betbot.model.bet.BetCoefficient;
+import com.zylex.betbot.model.game.GameInfo;
+import com.zylex.betbot.model.game.GameResult;
+import com.zylex.betbot.service.rule.GameCoefficient;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Primitive counters of resolved games of one rule, when one unit is bet on every coefficient of every game.
+ * Every game updates all coefficients at once, accumulators of different partitions or periods are merged by summing.
+ * Number of games of the result is the number of hits of its own coefficient.
+ */
+public final class StatisticsAccumulator {
+
+    private static final int[] WIN_COLUMNS = new int[GameResult.values().length];
+
+    static {
+        WIN_COLUMNS[GameResult.FIRST_WIN.ordinal()] =
+                1 << GameCoefficient.FIRST_WIN.COLUMN | 1 << GameCoefficient.ONE_X.COLUMN;
+        WIN_COLUMNS[GameResult.TIE.ordinal()] =
+                1 << GameCoefficient.TIE.COLUMN | 1 << GameCoefficient.ONE_X.COLUMN | 1 << GameCoefficient.X_TWO.COLUMN;
+        WIN_COLUMNS[GameResult.SECOND_WIN.ordinal()] =
+                1 << GameCoefficient.SECOND_WIN.COLUMN | 1 << GameCoefficient.X_TWO.COLUMN;
+    }
+
+    private int games;
+
+    private final int[] hits = new int[GameCoefficient.COUNT];
+
+    private final double[] returns = new double[GameCoefficient.COUNT];
+
+    /**
+     * @param resultOrdinal - ordinal of game result.
+     * @return - bitset of columns of coefficients, which win with the result, zero for unresolved game.
+     */
+    public static int winColumns(int resultOrdinal) {
+        return WIN_COLUMNS[resultOrdinal];
+    }
+
+    /**
+     * Creates accumulator from counters, which were collected elsewhere.
+     * @param games - number of games.
+     * @param hits - number of winning games by coefficient column.
+     * @param returns - sums of winning coefficients by coefficient column.
+     * @return - new accumulator.
+     */
+    public static StatisticsAccumulator of(int games, int[] hits, double[] returns) {
+        StatisticsAccumulator accumulator = new StatisticsAccumulator();
+        accumulator.games = games;
+        System.arraycopy(hits, 0, accumulator.hits, 0, GameCoefficient.COUNT);
+        System.arraycopy(returns, 0, accumulator.returns, 0, GameCoefficient.COUNT);
+        return accumulator;
+    }
+
+    /**
+     * Adds one game, unresolved game is ignored.
+     * @param result - result of the game.
+     * @param gameInfo - coefficients of the game.
+     */
+    public void add(GameResult result, GameInfo gameInfo) {
+        add(result, 1, gameInfo.getFirstWin(), gameInfo.getTie(), gameInfo.getSecondWin(),
+                gameInfo.getOneX(), gameInfo.getXTwo());
+    }
+
+    /**
+     * Adds games with the same result, unresolved games are ignored.
+     * @param result - result of the games.
+     * @param gamesNumber - number of games.
+     * @param firstWin - sum of first win coefficients.
+     * @param tie - sum of tie coefficients.
+     * @param secondWin - sum of second win coefficients.
+     * @param oneX - sum of one or tie coefficients.
+     * @param xTwo - sum of tie or two coefficients.
+     */
+    public void add(GameResult result, int gamesNumber, double firstWin, double tie, double secondWin, double oneX, double xTwo) {
+        int winColumns = WIN_COLUMNS[result.ordinal()];
+        if (winColumns == 0) return;
+        games += gamesNumber;
+        addColumn(winColumns, GameCoefficient.FIRST_WIN, gamesNumber, firstWin);
+        addColumn(winColumns, GameCoefficient.TIE, gamesNumber, tie);
+        addColumn(winColumns, GameCoefficient.SECOND_WIN, gamesNumber, secondWin);
+        addColumn(winColumns, GameCoefficient.ONE_X, gamesNumber, oneX);
+        addColumn(winColumns, GameCoefficient.X_TWO, gamesNumber, xTwo);
+    }
+
+    private void addColumn(int winColumns, GameCoefficient coefficient, int gamesNumber, double sum) {
+        if ((winColumns & (1 << coefficient.COLUMN)) != 0) {
+            hits[coefficient.COLUMN] += gamesNumber;
+            returns[coefficient.COLUMN] += sum;
+        }
+    }
+
+    /**
+     * Adds counters of other accumulator.
+     * @param other - accumulator of other partition or period.
+     * @return - this accumulator.
+     */
+    public StatisticsAccumulator merge(StatisticsAccumulator other) {
+        games += other.games;
+        for (int column = 0; column < GameCoefficient.COUNT; column++) {
+            hits[column] += other.hits[column];
+            returns[column] += other.returns[column];
+        }
+        return this;
+    }
+
+    public int getGames() {
+        return games;
+    }
+
+    /**
+     * @param result - game result.
+     * @return - number of games with the result, zero for unresolved result.
+     */
+    public int getResultCount(GameResult result) {
+        switch (result) {
+            case FIRST_WIN: return hits[GameCoefficient.FIRST_WIN.COLUMN];
+            case TIE: return hits[GameCoefficient.TIE.COLUMN];
+            case SECOND_WIN: return hits[GameCoefficient.SECOND_WIN.COLUMN];
+            default: return 0;
+        }
+    }
+
+    public int getHits(BetCoefficient betCoefficient) {
+        return hits[column(betCoefficient)];
+    }
+
+    public double getHitRate(BetCoefficient betCoefficient) {
+        return games == 0 ? 0 : (double) getHits(betCoefficient) / games;
+    }
+
+    /**
+     * @param betCoefficient - bet coefficient.
+     * @return - sum of winning coefficients minus number of games.
+     */
+    public double getProfit(BetCoefficient betCoefficient) {
+        return returns[column(betCoefficient)] - games;
+    }
+
+    public double getRoi(BetCoefficient betCoefficient) {
+        return games == 0 ? 0 : getProfit(betCoefficient) / games;
+    }
+
+    /**
+     * @return - profit of every coefficient, in order of coefficient columns.
+     */
+    public Map<BetCoefficient, Double> getProfits() {
+        Map<BetCoefficient, Double> profits = new LinkedHashMap<>();
+        for (GameCoefficient coefficient : GameCoefficient.values()) {
+            profits.put(BetCoefficient.valueOf(coefficient.name()), returns[coefficient.COLUMN] - games);
+        }
+        return profits;
+    }
+
+    /**
+     * @return - return on investment of every coefficient, in order of coefficient columns.
+     */
+    public Map<BetCoefficient, Double> getRois() {
+        Map<BetCoefficient, Double> rois = new LinkedHashMap<>();
+        for (BetCoefficient betCoefficient : getProfits().keySet()) {
+            rois.put(betCoefficient, getRoi(betCoefficient));
+        }
+        return rois;
+    }
+
+    private static int column(BetCoefficient betCoefficient) {
+        return GameCoefficient.valueOf(betCoefficient.name()).COLUMN;
+    }
+
+    @Override
+    public String toString() {
+        return "StatisticsAccumulator{games=" + games + ", hits=" + Arrays.toString(hits)
+                + ", returns=" + Arrays.toString(returns) + "}";
+    }
+}
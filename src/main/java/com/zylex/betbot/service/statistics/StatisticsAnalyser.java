@@ -2,19 +2,25 @@ package com.zylex.betbot.service.statistics;
 
 import com.zylex.betbot.controller.logger.StatisticsConsoleLogger;
 import com.zylex.betbot.model.bet.BetCoefficient;
-import com.zylex.betbot.model.game.Game;
-import com.zylex.betbot.model.game.GameResult;
 import com.zylex.betbot.model.rule.Rule;
-import com.zylex.betbot.service.repository.GameRepository;
-import com.zylex.betbot.service.repository.RuleRepository;
-import com.zylex.betbot.service.rule.RuleProcessor;
+import com.zylex.betbot.service.archive.GameArchive;
+import com.zylex.betbot.service.archive.GameArchiveStore;
+import com.zylex.betbot.service.rule.CompiledRule;
+import com.zylex.betbot.service.rule.GameCoefficient;
+import com.zylex.betbot.service.rule.LeagueFilterCache;
+import com.zylex.betbot.service.rule.RuleCompiler;
+import com.zylex.betbot.service.rule.RuleRegistry;
+import com.zylex.betbot.service.rule.RuleSet;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PreDestroy;
 import javax.transaction.Transactional;
 import java.time.LocalDate;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Analyses game results statistics.
@@ -22,78 +28,203 @@ import java.util.stream.Collectors;
 @Service
 public class StatisticsAnalyser {
 
+    private static final int[] ROLLING_WINDOWS = {7, 30, 90};
+
     private final StatisticsConsoleLogger logger = new StatisticsConsoleLogger();
 
-    private final GameRepository gameRepository;
+    private final RuleProfitStore ruleProfitStore;
+
+    private final RuleRegistry ruleRegistry;
+
+    private final RuleCompiler ruleCompiler;
 
-    private final RuleRepository ruleRepository;
+    private final GameArchiveStore gameArchiveStore;
 
-    private final RuleProcessor ruleProcessor;
+    private final LeagueFilterCache leagueFilterCache;
+
+    private final ForkJoinPool statisticsPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
 
     @Autowired
-    public StatisticsAnalyser(GameRepository gameRepository,
-                              RuleRepository ruleRepository,
-                              RuleProcessor ruleProcessor) {
-        this.gameRepository = gameRepository;
-        this.ruleRepository = ruleRepository;
-        this.ruleProcessor = ruleProcessor;
+    public StatisticsAnalyser(RuleProfitStore ruleProfitStore,
+                              RuleRegistry ruleRegistry,
+                              RuleCompiler ruleCompiler,
+                              GameArchiveStore gameArchiveStore,
+                              LeagueFilterCache leagueFilterCache) {
+        this.ruleProfitStore = ruleProfitStore;
+        this.ruleRegistry = ruleRegistry;
+        this.ruleCompiler = ruleCompiler;
+        this.gameArchiveStore = gameArchiveStore;
+        this.leagueFilterCache = leagueFilterCache;
+    }
+
+    @PreDestroy
+    private void preDestroy() {
+        statisticsPool.shutdownNow();
     }
 
     /**
      * Runs ResultScanner, which finds games results.
      * Gets results of games from database and compute them statistics for specified period.
-     * @param startDate - start date of period.
-     * @param endDate - end date of period.
+     * Sums are read from per-rule daily aggregates, rules with invalid conditions are skipped.
+     * @param startDate - start date of period, or null for no lower bound.
+     * @param endDate - end date of period, or null for no upper bound.
      */
     @Transactional
     public Map<Rule, Map<BetCoefficient, Double>> analyse(LocalDate startDate, LocalDate endDate) {
         logger.startLogMessage(startDate, endDate);
-        List<Rule> rules = new ArrayList<>();
-        rules.add(ruleRepository.findByName("X_TWO"));
-        rules.add(ruleRepository.findByName("FW_SW"));
-        //TODO think how to remove
         Map<Rule, Map<BetCoefficient, Double>> ruleBetProfit = new LinkedHashMap<>();
-        for (Rule rule : rules) {
-            List<Game> ruleGames = findRuleGames(rule);
-            Map<GameResult, List<Game>> resultGames = findResultGames(ruleGames);
-            Map<BetCoefficient, Double> betProfit = findBetProfit(ruleGames.size(), resultGames);
-            ruleBetProfit.put(rule, betProfit);
-            logger.writeRuleStatistics(rule, resultGames, betProfit);
+        for (CompiledRule compiledRule : findAnalysedRules(null)) {
+            StatisticsAccumulator statistics = ruleProfitStore.findStatistics(compiledRule, startDate, endDate);
+            Map<BetCoefficient, Double> betProfit = statistics.getProfits();
+            ruleBetProfit.put(compiledRule.getRule(), betProfit);
+            logger.writeRuleStatistics(compiledRule.getRule(), statistics);
         }
         return ruleBetProfit;
     }
 
-    private List<Game> findRuleGames(Rule rule) {
-        List<Game> games = gameRepository.findAll()
-                .stream()
-                .filter(game -> !game.getResult().equals(GameResult.NO_RESULT.toString())
-                        && !game.getResult().equals(GameResult.NOT_FOUND.toString()))
-                .filter(game -> game.getRules().contains(rule))
-                .collect(Collectors.toList());
-        return ruleProcessor.filterGamesByRule(games, rule);
+    /**
+     * Computes return on investment of every coefficient for rolling windows of the last 7, 30 and 90 days,
+     * summed from daily buckets kept in memory.
+     * @return - map of return on investment by coefficient, by window length in days, by rule.
+     */
+    @Transactional
+    public Map<Rule, Map<Integer, Map<BetCoefficient, Double>>> analyseRolling() {
+        Map<Rule, Map<Integer, Map<BetCoefficient, Double>>> ruleRois = new LinkedHashMap<>();
+        for (CompiledRule compiledRule : findAnalysedRules(null)) {
+            Map<Integer, Map<BetCoefficient, Double>> windowRois = new LinkedHashMap<>();
+            for (int days : ROLLING_WINDOWS) {
+                windowRois.put(days, ruleProfitStore.findRollingStatistics(compiledRule, days).getRois());
+            }
+            ruleRois.put(compiledRule.getRule(), windowRois);
+        }
+        return ruleRois;
+    }
+
+    /**
+     * Computes statistics of rules for the period over the shared memory-mapped game archive.
+     * Like the per-rule aggregates, a game counts for the rule if it was assigned to the rule,
+     * and still passes its conditions and league filters.
+     * Rules are partitioned across the fork-join pool, every rule scans the archive on its own.
+     * @param ruleNames - names of rules, or null for all active rules. Unknown names are skipped.
+     * @param startDate - start date of period, or null for the start of history.
+     * @param endDate - end date of period, or null for the end of history.
+     * @return - list of rule statistics with computation time, in order of rules. Rules with invalid conditions are skipped.
+     */
+    public List<RuleStatistics> analyseRules(List<String> ruleNames, LocalDate startDate, LocalDate endDate) {
+        List<CompiledRule> compiledRules = findAnalysedRules(ruleNames);
+        if (compiledRules.isEmpty()) {
+            return Collections.emptyList();
+        }
+        GameArchive gameArchive = gameArchiveStore.getArchive();
+        long[][] allowedRules = leagueFilterCache.findAllowedRules(compiledRules, gameArchive.getLeagueLinks(),
+                (compiledRules.size() + 63) >>> 6);
+        int[] archiveRules = new int[compiledRules.size()];
+        for (int rule = 0; rule < archiveRules.length; rule++) {
+            archiveRules[rule] = gameArchive.findRule(compiledRules.get(rule).getRule().getName());
+        }
+        RuleStatistics[] ruleStatistics = new RuleStatistics[compiledRules.size()];
+        statisticsPool.invoke(new RulesTask(gameArchive, compiledRules, archiveRules, allowedRules,
+                gameArchive.fromIndex(startDate), gameArchive.toIndex(endDate), ruleStatistics, 0, ruleStatistics.length));
+        return Arrays.asList(ruleStatistics);
     }
 
-    private Map<GameResult, List<Game>> findResultGames(List<Game> ruleGames) {
-        Map<GameResult, List<Game>> resultGames = new HashMap<>();
-        for (GameResult gameResult : GameResult.values()) {
-            resultGames.put(gameResult, ruleGames.stream()
-                    .filter(game -> game.getResult().equals(gameResult.toString()))
-                    .collect(Collectors.toList()));
+    private List<CompiledRule> findAnalysedRules(List<String> ruleNames) {
+        RuleSet ruleSet = ruleRegistry.getRuleSet();
+        if (ruleNames == null || ruleNames.isEmpty()) {
+            return ruleCompiler.compileValid(ruleSet.getActiveRules());
+        }
+        List<Rule> rules = new ArrayList<>();
+        for (String name : ruleNames) {
+            Rule rule = ruleSet.findByName(name);
+            if (rule != null) {
+                rules.add(rule);
+            }
         }
-        return resultGames;
+        return ruleCompiler.compileValid(rules);
     }
 
-    private Map<BetCoefficient, Double> findBetProfit(int ruleGamesNumber, Map<GameResult, List<Game>> resultGames) {
-        Map<BetCoefficient, Double> betProfit = new LinkedHashMap<>();
-        betProfit.put(BetCoefficient.FIRST_WIN, resultGames.get(GameResult.FIRST_WIN).stream().mapToDouble(game -> game.getGameInfo().getFirstWin()).sum() - ruleGamesNumber);
-        betProfit.put(BetCoefficient.TIE, resultGames.get(GameResult.TIE).stream().mapToDouble(game -> game.getGameInfo().getTie()).sum() - ruleGamesNumber);
-        betProfit.put(BetCoefficient.SECOND_WIN, resultGames.get(GameResult.SECOND_WIN).stream().mapToDouble(game -> game.getGameInfo().getSecondWin()).sum() - ruleGamesNumber);
-        betProfit.put(BetCoefficient.ONE_X, resultGames.get(GameResult.FIRST_WIN).stream().mapToDouble(game -> game.getGameInfo().getOneX()).sum()
-                + resultGames.get(GameResult.TIE).stream().mapToDouble(game -> game.getGameInfo().getOneX()).sum()
-                - ruleGamesNumber);
-        betProfit.put(BetCoefficient.X_TWO, resultGames.get(GameResult.TIE).stream().mapToDouble(game -> game.getGameInfo().getXTwo()).sum()
-                + resultGames.get(GameResult.SECOND_WIN).stream().mapToDouble(game -> game.getGameInfo().getXTwo()).sum()
-                - ruleGamesNumber);
-        return betProfit;
+    /**
+     * Computes statistics of a range of rules, splitting it in halves until one rule is left.
+     */
+    private static class RulesTask extends RecursiveAction {
+
+        private final GameArchive archive;
+
+        private final List<CompiledRule> compiledRules;
+
+        private final int[] archiveRules;
+
+        private final long[][] allowedRules;
+
+        private final int fromRow;
+
+        private final int toRow;
+
+        private final RuleStatistics[] ruleStatistics;
+
+        private final int from;
+
+        private final int to;
+
+        RulesTask(GameArchive archive, List<CompiledRule> compiledRules, int[] archiveRules, long[][] allowedRules,
+                  int fromRow, int toRow, RuleStatistics[] ruleStatistics, int from, int to) {
+            this.archive = archive;
+            this.compiledRules = compiledRules;
+            this.archiveRules = archiveRules;
+            this.allowedRules = allowedRules;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+            this.ruleStatistics = ruleStatistics;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new RulesTask(archive, compiledRules, archiveRules, allowedRules, fromRow, toRow,
+                                ruleStatistics, from, middle),
+                        new RulesTask(archive, compiledRules, archiveRules, allowedRules, fromRow, toRow,
+                                ruleStatistics, middle, to));
+                return;
+            }
+            long startTime = System.nanoTime();
+            CompiledRule compiledRule = compiledRules.get(from);
+            int archiveRule = archiveRules[from];
+            int word = from >>> 6;
+            long bit = 1L << from;
+            int[] hits = new int[GameCoefficient.COUNT];
+            double[] returns = new double[GameCoefficient.COUNT];
+            int games = 0;
+            // rule, which is not in the archive yet, has no assigned games
+            int endRow = archiveRule < 0 ? fromRow : toRow;
+            for (int row = fromRow; row < endRow; row++) {
+                if (!archive.hasRule(archiveRule, row)
+                        || (allowedRules[archive.getLeague(row)][word] & bit) == 0 || !matches(compiledRule, row)) {
+                    continue;
+                }
+                games++;
+                int winColumns = StatisticsAccumulator.winColumns(archive.getResultOrdinal(row));
+                for (int column = 0; column < GameCoefficient.COUNT; column++) {
+                    if ((winColumns & (1 << column)) != 0) {
+                        hits[column]++;
+                        returns[column] += archive.getCoefficient(column, row);
+                    }
+                }
+            }
+            ruleStatistics[from] = new RuleStatistics(compiledRule.getRule(), StatisticsAccumulator.of(games, hits, returns),
+                    TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startTime));
+        }
+
+        private boolean matches(CompiledRule compiledRule, int row) {
+            for (int condition = 0; condition < compiledRule.getConditionsNumber(); condition++) {
+                double gameValue = archive.getCoefficient(compiledRule.getColumn(condition), row);
+                if (!compiledRule.getOperator(condition).test(gameValue, compiledRule.getValue(condition))) {
+                    return false;
+                }
+            }
+            return true;
+        }
     }
 }
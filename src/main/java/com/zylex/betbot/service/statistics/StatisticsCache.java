@@ -0,0 +1,170 @@
+package com.zylex.betbot.service.statistics;
+
+import com.zylex.betbot.controller.logger.ConsoleLogger;
+import com.zylex.betbot.model.bet.BetCoefficient;
+import com.zylex.betbot.model.rule.Rule;
+import com.zylex.betbot.service.rule.LeagueFilterCache;
+import com.zylex.betbot.service.rule.RuleRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches analysed statistics by period. Entry is valid while the data stamp is the same:
+ * version of rule snapshot, league filter version and version of aggregated results.
+ * Concurrent callers of one period share one computation, and stale entry is served while it is recomputed.
+ */
+@Service
+public class StatisticsCache {
+
+    private final StatisticsAnalyser statisticsAnalyser;
+
+    private final RuleRegistry ruleRegistry;
+
+    private final LeagueFilterCache leagueFilterCache;
+
+    private final RuleProfitStore ruleProfitStore;
+
+    private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor();
+
+    @Value("${statistics.cache.max-entries:100}")
+    private int maxEntries;
+
+    private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong staleHits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong refreshes = new AtomicLong();
+
+    private final AtomicLong failures = new AtomicLong();
+
+    @Autowired
+    public StatisticsCache(StatisticsAnalyser statisticsAnalyser,
+                           RuleRegistry ruleRegistry,
+                           LeagueFilterCache leagueFilterCache,
+                           RuleProfitStore ruleProfitStore) {
+        this.statisticsAnalyser = statisticsAnalyser;
+        this.ruleRegistry = ruleRegistry;
+        this.leagueFilterCache = leagueFilterCache;
+        this.ruleProfitStore = ruleProfitStore;
+    }
+
+    @PreDestroy
+    private void preDestroy() {
+        refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * Returns statistics of the period from the cache. Stale statistics is returned at once and recomputed
+     * in background, missing statistics is computed once for all waiting callers.
+     * @param startDate - start date of period, or null for no lower bound.
+     * @param endDate - end date of period, or null for no upper bound.
+     * @return - map of bet profit by coefficient by rule.
+     */
+    public Map<Rule, Map<BetCoefficient, Double>> analyse(LocalDate startDate, LocalDate endDate) {
+        String stamp = currentStamp();
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.computeIfAbsent(startDate + ".." + endDate, key -> new Entry());
+        }
+        CompletableFuture<Map<Rule, Map<BetCoefficient, Double>>> refresh;
+        synchronized (entry) {
+            if (entry.value != null && stamp.equals(entry.stamp)) {
+                hits.incrementAndGet();
+                return entry.value;
+            }
+            refresh = entry.refresh;
+            if (refresh == null) {
+                refreshes.incrementAndGet();
+                refresh = startRefresh(entry, stamp, startDate, endDate);
+                if (!refresh.isDone()) {
+                    entry.refresh = refresh;
+                }
+            }
+            if (entry.value != null) {
+                staleHits.incrementAndGet();
+                return entry.value;
+            }
+        }
+        misses.incrementAndGet();
+        try {
+            return refresh.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private CompletableFuture<Map<Rule, Map<BetCoefficient, Double>>> startRefresh(Entry entry, String stamp,
+                                                                                   LocalDate startDate, LocalDate endDate) {
+        return CompletableFuture
+                .supplyAsync(() -> Collections.unmodifiableMap(statisticsAnalyser.analyse(startDate, endDate)), refreshExecutor)
+                .whenComplete((value, e) -> {
+                    synchronized (entry) {
+                        entry.refresh = null;
+                        if (e == null) {
+                            entry.value = value;
+                            entry.stamp = stamp;
+                        }
+                    }
+                    if (e != null) {
+                        failures.incrementAndGet();
+                        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                        ConsoleLogger.writeErrorMessage("Statistics refresh of " + startDate + ".." + endDate
+                                + " failed: " + cause.getMessage(), cause);
+                    }
+                });
+    }
+
+    private String currentStamp() {
+        return ruleRegistry.getRuleSet().getVersion()
+                + ":" + leagueFilterCache.getVersion()
+                + ":" + ruleProfitStore.getResultsVersion();
+    }
+
+    /**
+     * @return - current values of cache metrics by name.
+     */
+    public Map<String, Number> getMetrics() {
+        Map<String, Number> metrics = new LinkedHashMap<>();
+        synchronized (entries) {
+            metrics.put("entries", entries.size());
+        }
+        metrics.put("hits", hits.get());
+        metrics.put("staleHits", staleHits.get());
+        metrics.put("misses", misses.get());
+        metrics.put("refreshes", refreshes.get());
+        metrics.put("failures", failures.get());
+        return metrics;
+    }
+
+    /**
+     * Statistics of one period with the stamp it was computed for.
+     */
+    private static class Entry {
+
+        private String stamp;
+
+        private Map<Rule, Map<BetCoefficient, Double>> value;
+
+        private CompletableFuture<Map<Rule, Map<BetCoefficient, Double>>> refresh;
+    }
+}
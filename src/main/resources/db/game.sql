@@ -20,6 +20,57 @@ CREATE TABLE IF NOT EXISTS game_info (
     FOREIGN KEY (game_id) REFERENCES game(id)
 );
 
+CREATE TABLE IF NOT EXISTS odds_history (
+    id                BIGSERIAL NOT NULL PRIMARY KEY,
+    link              VARCHAR(300) NOT NULL,
+    date_time         TIMESTAMP NOT NULL,
+    changed           SMALLINT NOT NULL,
+    first_win         REAL,
+    tie               REAL,
+    second_win        REAL,
+    one_x             REAL,
+    x_two             REAL
+);
+
+CREATE INDEX IF NOT EXISTS odds_history_link_index ON odds_history (link, date_time);
+
+-- games with the same link are merged into the game with the lowest id before the unique index is created:
+-- rules and bets are moved to the kept game, coefficients of the kept game are left
+INSERT INTO game_rule (game_id, rule_id)
+SELECT d.keep_id, gr.rule_id
+FROM game_rule gr
+JOIN (SELECT g.id, k.keep_id
+      FROM game g
+      JOIN (SELECT link, MIN(id) AS keep_id FROM game WHERE link IS NOT NULL GROUP BY link HAVING COUNT(*) > 1) k
+        ON k.link = g.link
+      WHERE g.id <> k.keep_id) d ON d.id = gr.game_id
+ON CONFLICT DO NOTHING;
+
+UPDATE bet SET game_id = d.keep_id
+FROM (SELECT g.id, k.keep_id
+      FROM game g
+      JOIN (SELECT link, MIN(id) AS keep_id FROM game WHERE link IS NOT NULL GROUP BY link HAVING COUNT(*) > 1) k
+        ON k.link = g.link
+      WHERE g.id <> k.keep_id) d
+WHERE bet.game_id = d.id;
+
+DELETE FROM game_rule WHERE game_id IN (
+    SELECT g.id FROM game g
+    WHERE g.link IS NOT NULL AND g.id > (SELECT MIN(k.id) FROM game k WHERE k.link = g.link));
+
+DELETE FROM game_info WHERE game_id IN (
+    SELECT g.id FROM game g
+    WHERE g.link IS NOT NULL AND g.id > (SELECT MIN(k.id) FROM game k WHERE k.link = g.link));
+
+DELETE FROM game g
+WHERE g.link IS NOT NULL AND g.id > (SELECT MIN(k.id) FROM game k WHERE k.link = g.link);
+
+CREATE UNIQUE INDEX IF NOT EXISTS game_link_index ON game (link);
+
+CREATE INDEX IF NOT EXISTS game_date_time_index ON game (date_time);
+
+CREATE INDEX IF NOT EXISTS game_info_game_id_index ON game_info (game_id);
+
 DELETE FROM game_info WHERE id >= 1909;
 DELETE FROM game_rule WHERE game_id >= 1909;
 DELETE FROM bet WHERE game_id >= 1909;
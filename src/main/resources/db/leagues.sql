@@ -13,4 +13,40 @@ CREATE TABLE IF NOT EXISTS exclude_league (
     id          SERIAL NOT NULL PRIMARY KEY,
     league_link VARCHAR(200) NOT NULL,
     rule_number VARCHAR(100) NOT NULL
-);
\ No newline at end of file
+);
+
+CREATE TABLE IF NOT EXISTS league_fingerprint (
+    league_link   VARCHAR(200) NOT NULL PRIMARY KEY,
+    hash          VARCHAR(64) NOT NULL,
+    etag          VARCHAR(200),
+    last_modified VARCHAR(100),
+    date_time     TIMESTAMP NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS league_catalogue (
+    league_link VARCHAR(200) NOT NULL PRIMARY KEY,
+    first_seen  TIMESTAMP NOT NULL,
+    last_seen   TIMESTAMP NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS data_version (
+    name    VARCHAR(100) NOT NULL PRIMARY KEY,
+    version BIGINT NOT NULL
+);
+
+INSERT INTO data_version (name, version) VALUES ('league_filter', 0) ON CONFLICT (name) DO NOTHING;
+
+CREATE OR REPLACE FUNCTION bump_league_filter_version() RETURNS TRIGGER AS $$
+BEGIN
+    UPDATE data_version SET version = version + 1 WHERE name = 'league_filter';
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS selected_league_version ON selected_league;
+CREATE TRIGGER selected_league_version AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON selected_league
+    FOR EACH STATEMENT EXECUTE PROCEDURE bump_league_filter_version();
+
+DROP TRIGGER IF EXISTS exclude_league_version ON exclude_league;
+CREATE TRIGGER exclude_league_version AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON exclude_league
+    FOR EACH STATEMENT EXECUTE PROCEDURE bump_league_filter_version();
@@ -24,3 +24,45 @@ CREATE TABLE IF NOT EXISTS rule_condition (
     enabled     boolean,
     FOREIGN KEY (rule_id) REFERENCES rule(id)
 );
+
+CREATE TABLE IF NOT EXISTS data_version (
+    name    VARCHAR(100) NOT NULL PRIMARY KEY,
+    version BIGINT NOT NULL
+);
+
+INSERT INTO data_version (name, version) VALUES ('rule', 0) ON CONFLICT (name) DO NOTHING;
+
+CREATE OR REPLACE FUNCTION bump_rule_version() RETURNS TRIGGER AS $$
+BEGIN
+    UPDATE data_version SET version = version + 1 WHERE name = 'rule';
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS rule_version ON rule;
+CREATE TRIGGER rule_version AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON rule
+    FOR EACH STATEMENT EXECUTE PROCEDURE bump_rule_version();
+
+DROP TRIGGER IF EXISTS rule_condition_version ON rule_condition;
+CREATE TRIGGER rule_condition_version AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON rule_condition
+    FOR EACH STATEMENT EXECUTE PROCEDURE bump_rule_version();
+
+CREATE TABLE IF NOT EXISTS rule_profit (
+    rule_id    BIGINT NOT NULL,
+    day        DATE NOT NULL,
+    result     VARCHAR(50) NOT NULL,
+    games      INT NOT NULL,
+    first_win  FLOAT NOT NULL,
+    tie        FLOAT NOT NULL,
+    second_win FLOAT NOT NULL,
+    one_x      FLOAT NOT NULL,
+    x_two      FLOAT NOT NULL,
+    PRIMARY KEY (rule_id, day, result),
+    FOREIGN KEY (rule_id) REFERENCES rule(id)
+);
+
+CREATE TABLE IF NOT EXISTS rule_profit_state (
+    rule_id BIGINT NOT NULL PRIMARY KEY,
+    state   VARCHAR(1000) NOT NULL,
+    FOREIGN KEY (rule_id) REFERENCES rule(id)
+);
@@ -0,0 +1,186 @@
+package com.zylex.betbot.service.archive;
+
+import com.zylex.betbot.exception.GameArchiveException;
+import com.zylex.betbot.model.game.GameResult;
+import com.zylex.betbot.service.rule.GameCoefficient;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that games written by the archive writer are read back the same from the mapped file.
+ */
+class GameArchiveTest {
+
+    private static final int RULES_NUMBER = 130;
+
+    private static final LocalDate DAY = LocalDate.of(2020, 5, 10);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void gamesAreReadAsWritten() {
+        GameArchive archive = writeArchive(directory.resolve("games.col"));
+        assertEquals(5, archive.size());
+        assertEquals("5:42:7", archive.getStamp());
+        assertEquals(DAY.atTime(23, 59, 59), archive.getDateTime(1));
+        assertEquals(DAY.atTime(23, 59, 59).toEpochSecond(ZoneOffset.UTC), archive.getEpochSecond(1));
+        assertArrayEquals(new String[]{"1-league-a/", "2-league-b/"}, archive.getLeagueLinks());
+        assertArrayEquals(new int[]{0, 1, 0, 1, 0}, leagues(archive));
+        assertArrayEquals(new String[]{"ЦСКА Москва", "Локомотив", "Спартак", "Зенит"}, archive.getTeamNames());
+        assertEquals("Спартак", archive.getTeamNames()[archive.getFirstTeam(2)]);
+        assertEquals("ЦСКА Москва", archive.getTeamNames()[archive.getSecondTeam(2)]);
+        assertEquals(GameResult.TIE.ordinal(), archive.getResultOrdinal(1));
+        assertEquals(GameResult.SECOND_WIN.ordinal(), archive.getResultOrdinal(4));
+    }
+
+    @Test
+    void coefficientsAreRoundedBackFromFloat() {
+        GameArchive archive = writeArchive(directory.resolve("games.col"));
+        double[][] columns = archive.getCoefficientColumns();
+        assertEquals(1.1, archive.getCoefficient(GameCoefficient.FIRST_WIN.COLUMN, 0));
+        assertEquals(3.3333, archive.getCoefficient(GameCoefficient.TIE.COLUMN, 0));
+        assertEquals(2.05, archive.getCoefficient(GameCoefficient.SECOND_WIN.COLUMN, 0));
+        assertEquals(0, archive.getCoefficient(GameCoefficient.ONE_X.COLUMN, 0));
+        assertEquals(17.25, archive.getCoefficient(GameCoefficient.X_TWO.COLUMN, 0));
+        for (int column = 0; column < GameCoefficient.COUNT; column++) {
+            for (int row = 0; row < archive.size(); row++) {
+                assertEquals(archive.getCoefficient(column, row), columns[column][row]);
+            }
+        }
+        assertSame(columns, archive.getCoefficientColumns());
+    }
+
+    @Test
+    void rulesBeyondFirstWordAreKept() {
+        GameArchive archive = writeArchive(directory.resolve("games.col"));
+        assertEquals(RULES_NUMBER, archive.getRuleNames().length);
+        assertEquals(64, archive.findRule("rule 65"));
+        assertEquals(-1, archive.findRule("rule 131"));
+        assertTrue(archive.hasRule(0, 0));
+        assertTrue(archive.hasRule(64, 0));
+        assertTrue(archive.hasRule(129, 0));
+        assertFalse(archive.hasRule(1, 0));
+        assertFalse(archive.hasRule(63, 0));
+        assertTrue(archive.hasRule(63, 1));
+        assertFalse(archive.hasRule(0, 1));
+        assertFalse(archive.hasRule(64, 1));
+        for (int rule = 0; rule < RULES_NUMBER; rule++) {
+            assertFalse(archive.hasRule(rule, 2));
+        }
+    }
+
+    @Test
+    void indexesBoundDays() {
+        GameArchive archive = writeArchive(directory.resolve("games.col"));
+        assertEquals(0, archive.fromIndex(null));
+        assertEquals(5, archive.toIndex(null));
+        assertEquals(0, archive.fromIndex(DAY.minusDays(1)));
+        assertEquals(0, archive.toIndex(DAY.minusDays(1)));
+        assertEquals(0, archive.fromIndex(DAY));
+        assertEquals(2, archive.toIndex(DAY));
+        assertEquals(2, archive.fromIndex(DAY.plusDays(1)));
+        assertEquals(4, archive.toIndex(DAY.plusDays(1)));
+        assertEquals(4, archive.fromIndex(DAY.plusDays(2)));
+        assertEquals(4, archive.toIndex(DAY.plusDays(2)));
+        assertEquals(4, archive.fromIndex(DAY.plusDays(3)));
+        assertEquals(5, archive.toIndex(DAY.plusDays(3)));
+        assertEquals(5, archive.fromIndex(DAY.plusDays(4)));
+    }
+
+    @Test
+    void gamesBeyondCapacityAreNotWritten() throws IOException {
+        Path path = directory.resolve("games.col");
+        try (GameArchive.Writer writer = new GameArchive.Writer(path, 1, new LinkedHashMap<>())) {
+            assertTrue(writer.add(DAY.atStartOfDay(), "1-league-a/", "Спартак", "Зенит", GameResult.TIE,
+                    1, 2, 3, 4, 5, new long[]{1}));
+            assertFalse(writer.add(DAY.atTime(1, 0), "1-league-a/", "Спартак", "Зенит", GameResult.TIE,
+                    1, 2, 3, 4, 5, new long[0]));
+            writer.finish(null);
+        }
+        GameArchive archive = GameArchive.open(path);
+        assertEquals(1, archive.size());
+        assertNull(archive.getStamp());
+        assertEquals(0, archive.getRuleNames().length);
+        assertFalse(archive.hasRule(0, 0));
+    }
+
+    @Test
+    void wrongMagicIsRejected() throws IOException {
+        Path path = directory.resolve("games.col");
+        writeArchive(path);
+        overwriteHeaderInt(path, 0, 0x12345678);
+        assertThrows(GameArchiveException.class, () -> GameArchive.open(path));
+    }
+
+    @Test
+    void wrongVersionIsRejected() throws IOException {
+        Path path = directory.resolve("games.col");
+        writeArchive(path);
+        overwriteHeaderInt(path, Integer.BYTES, 2);
+        assertThrows(GameArchiveException.class, () -> GameArchive.open(path));
+    }
+
+    @Test
+    void missingFileIsRejected() {
+        assertThrows(GameArchiveException.class, () -> GameArchive.open(directory.resolve("missing.col")));
+    }
+
+    private static GameArchive writeArchive(Path path) {
+        Map<Long, String> rules = new LinkedHashMap<>();
+        for (long ruleId = 1; ruleId <= RULES_NUMBER; ruleId++) {
+            rules.put(ruleId, "rule " + ruleId);
+        }
+        try (GameArchive.Writer writer = new GameArchive.Writer(path, 8, rules)) {
+            add(writer, DAY.atStartOfDay(), "1-league-a/", "ЦСКА Москва", "Локомотив", GameResult.FIRST_WIN,
+                    new double[]{1.1, 3.3333, 2.05, 0, 17.25}, 1, 65, 130, 999);
+            add(writer, DAY.atTime(23, 59, 59), "2-league-b/", "Спартак", "Зенит", GameResult.TIE,
+                    new double[]{2.5, 3.1, 2.9, 1.35, 1.45}, 64);
+            add(writer, DAY.plusDays(1).atStartOfDay(), "1-league-a/", "Спартак", "ЦСКА Москва", GameResult.FIRST_WIN,
+                    new double[]{1.8, 3.6, 4.75, 1.2, 2.1});
+            add(writer, DAY.plusDays(1).atTime(20, 0), "2-league-b/", "Зенит", "Локомотив", GameResult.SECOND_WIN,
+                    new double[]{4.2, 3.9, 1.77, 2.02, 1.14}, 2);
+            add(writer, DAY.plusDays(3).atTime(18, 30), "1-league-a/", "Локомотив", "Зенит", GameResult.SECOND_WIN,
+                    new double[]{3.05, 3.4, 2.2, 1.6, 1.3}, 3);
+            writer.finish("5:42:7");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return GameArchive.open(path);
+    }
+
+    private static void add(GameArchive.Writer writer, LocalDateTime dateTime, String leagueLink, String firstTeam,
+                            String secondTeam, GameResult result, double[] coefficients, long... ruleIds) {
+        assertTrue(writer.add(dateTime, leagueLink, firstTeam, secondTeam, result, coefficients[0], coefficients[1],
+                coefficients[2], coefficients[3], coefficients[4], ruleIds));
+    }
+
+    private static int[] leagues(GameArchive archive) {
+        int[] leagues = new int[archive.size()];
+        Arrays.setAll(leagues, archive::getLeague);
+        return leagues;
+    }
+
+    private static void overwriteHeaderInt(Path path, int position, int value) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(value).flip();
+            channel.write(buffer, position);
+        }
+    }
+}
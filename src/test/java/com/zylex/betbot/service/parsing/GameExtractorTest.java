@@ -0,0 +1,120 @@
+package com.zylex.betbot.service.parsing;
+
+import com.zylex.betbot.model.game.Game;
+import com.zylex.betbot.model.game.GameInfo;
+import com.zylex.betbot.service.corpus.PageCorpus;
+import com.zylex.betbot.service.corpus.PageType;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Scanner;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that DOM and streaming extractors return the same games from the same league pages.
+ * Pages of a captured corpus are compared too, if its directory is set by the corpus.dir system property.
+ */
+class GameExtractorTest {
+
+    private static final String LEAGUE_LINK = "225733-Russia-Premier-League";
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("dd.MM");
+
+    private final GameExtractor domExtractor = GameExtractor.of("dom");
+
+    private final GameExtractor streamingExtractor = GameExtractor.of("streaming");
+
+    @Test
+    void extractorsReturnSameGames() throws IOException {
+        List<Game> games = assertSameGames(LEAGUE_LINK, leaguePage());
+        assertEquals(Arrays.asList("ЦСКА Москва - Локомотив & Co", "Рубин Казань - Краснодар U21", "Ростов - Оренбург"),
+                teams(games));
+        assertEquals("Россия. Премьер-лига & Кубок", games.get(0).getLeague().getName());
+        assertEquals("live/Football/225733-Russia-Premier-League/1002-CSKA-Lokomotiv/?type=1&lang=ru",
+                games.get(0).getLink());
+        GameInfo gameInfo = games.get(1).getGameInfo();
+        assertEquals(Arrays.asList(3.1, 0d, 2.2, 0d, 0d), Arrays.asList(gameInfo.getFirstWin(), gameInfo.getTie(),
+                gameInfo.getSecondWin(), gameInfo.getOneX(), gameInfo.getXTwo()));
+    }
+
+    @Test
+    void malformedGamesAreSkippedByBothExtractors() throws IOException {
+        String page = leaguePage();
+        for (String game : Arrays.asList("1002-CSKA-Lokomotiv", "1004-Rubin-Krasnodar", "1008-Rostov-Orenburg")) {
+            int start = page.lastIndexOf("<div class=\"c-events__item c-events__item_game\">", page.indexOf(game));
+            int bets = page.indexOf("<div class=\"c-bets\">", start);
+            String withoutBets = page.substring(0, bets) + "<div class=\"c-bets\"></div></div>"
+                    + page.substring(page.indexOf("</div>", page.indexOf("</div>", bets) + 6) + 6);
+            List<Game> games = assertSameGames(LEAGUE_LINK, withoutBets);
+            assertEquals(2, games.size(), game);
+        }
+    }
+
+    @Test
+    void emptyPageHasNoGames() {
+        assertTrue(assertSameGames(LEAGUE_LINK, "<html><body><div class=\"c-events\"></div></body></html>").isEmpty());
+    }
+
+    @Test
+    void corpusPagesReturnSameGames() throws IOException {
+        String directory = System.getProperty("corpus.dir");
+        if (directory == null || !Files.isDirectory(Paths.get(directory))) {
+            return;
+        }
+        PageCorpus pageCorpus = new PageCorpus("replay", directory);
+        for (String leagueLink : pageCorpus.keys(PageType.LEAGUE)) {
+            assertSameGames(leagueLink, pageCorpus.load(PageType.LEAGUE, leagueLink));
+        }
+    }
+
+    private List<Game> assertSameGames(String leagueLink, String page) {
+        List<Game> domGames = domExtractor.extract(leagueLink, page);
+        List<Game> streamingGames = streamingExtractor.extract(leagueLink, page);
+        assertEquals(describe(domGames), describe(streamingGames), leagueLink);
+        return domGames;
+    }
+
+    private static List<String> describe(List<Game> games) {
+        List<String> descriptions = new ArrayList<>();
+        for (Game game : games) {
+            GameInfo gameInfo = game.getGameInfo();
+            descriptions.add(String.join("|", String.valueOf(game.getDateTime()), game.getLeague().getName(),
+                    game.getLeague().getLink(), game.getFirstTeam(), game.getSecondTeam(), game.getLink(),
+                    game.getResult(), String.valueOf(gameInfo.getFirstWin()), String.valueOf(gameInfo.getTie()),
+                    String.valueOf(gameInfo.getSecondWin()), String.valueOf(gameInfo.getOneX()),
+                    String.valueOf(gameInfo.getXTwo())));
+        }
+        return descriptions;
+    }
+
+    private static List<String> teams(List<Game> games) {
+        List<String> teams = new ArrayList<>();
+        for (Game game : games) {
+            teams.add(game.getFirstTeam() + " - " + game.getSecondTeam());
+        }
+        return teams;
+    }
+
+    private static String leaguePage() throws IOException {
+        LocalDate today = LocalDate.now();
+        try (InputStream stream = GameExtractorTest.class.getResourceAsStream("/parsing/league-page.html");
+             Scanner scanner = new Scanner(stream, StandardCharsets.UTF_8.name()).useDelimiter("\\A")) {
+            return scanner.next()
+                    .replace("{yesterday}", FORMATTER.format(today.minusDays(1)))
+                    .replace("{today}", FORMATTER.format(today))
+                    .replace("{tomorrow}", FORMATTER.format(today.plusDays(1)))
+                    .replace("{after}", FORMATTER.format(today.plusDays(2)));
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.zylex.betbot.service.rule;
+
+import com.zylex.betbot.model.game.GameInfo;
+import com.zylex.betbot.model.rule.Rule;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that the rule index matches exactly the same rules as CompiledRule.matches.
+ */
+class RuleIndexTest {
+
+    private static final double[] RULE_VALUES = {-0.0, 0.0, 1.0, 1.5, 2.0, 2.5};
+
+    private static final double[] GAME_VALUES = {-1.0, -0.0, 0.0, 0.5, 1.0, 1.25, 1.5, 2.0, 2.25, 2.5, 3.0, Double.NaN};
+
+    @Test
+    void randomRulesMatchLikeCompiledRules() {
+        Random random = new Random(42);
+        for (int rulesNumber : new int[]{1, 7, 63, 64, 65, 127, 130}) {
+            List<CompiledRule> rules = new ArrayList<>();
+            for (int rule = 0; rule < rulesNumber; rule++) {
+                rules.add(randomRule(random));
+            }
+            double[][] games = new double[500][GameCoefficient.COUNT];
+            for (double[] game : games) {
+                for (int column = 0; column < GameCoefficient.COUNT; column++) {
+                    game[column] = GAME_VALUES[random.nextInt(GAME_VALUES.length)];
+                }
+            }
+            assertIndexMatches(rules, games);
+        }
+    }
+
+    @Test
+    void equalEndpointsWithMixedInclusivity() {
+        List<CompiledRule> rules = Arrays.asList(
+                rule(cond(0, RuleOperator.MORE_EVEN, 2.0), cond(0, RuleOperator.LESS_EVEN, 2.0)),
+                rule(cond(0, RuleOperator.MORE, 2.0), cond(0, RuleOperator.LESS_EVEN, 2.0)),
+                rule(cond(0, RuleOperator.MORE_EVEN, 2.0), cond(0, RuleOperator.LESS, 2.0)),
+                rule(cond(0, RuleOperator.MORE_EVEN, 2.0), cond(0, RuleOperator.MORE, 2.0)),
+                rule(cond(0, RuleOperator.LESS_EVEN, 2.0), cond(0, RuleOperator.LESS, 2.0)),
+                rule(cond(0, RuleOperator.MORE_EVEN, 2.0)),
+                rule(cond(0, RuleOperator.LESS, 2.0)));
+        assertIndexMatches(rules, games(1.5, 2.0, 2.5));
+    }
+
+    @Test
+    void emptyIntervalsMatchNothing() {
+        List<CompiledRule> rules = Arrays.asList(
+                rule(cond(1, RuleOperator.MORE, 2.5), cond(1, RuleOperator.LESS, 1.0)),
+                rule(cond(1, RuleOperator.MORE, 1.0), cond(1, RuleOperator.LESS, 1.0)),
+                rule(cond(1, RuleOperator.MORE_EVEN, 1.5), cond(1, RuleOperator.LESS_EVEN, 1.0), cond(2, RuleOperator.MORE, 0.0)),
+                rule(cond(2, RuleOperator.MORE, 0.0)));
+        assertIndexMatches(rules, games(0.5, 1.0, 1.5, 2.5, 3.0));
+    }
+
+    @Test
+    void nanAndNegativeZero() {
+        List<CompiledRule> rules = Arrays.asList(
+                rule(cond(3, RuleOperator.MORE_EVEN, 0.0)),
+                rule(cond(3, RuleOperator.MORE, -0.0)),
+                rule(cond(3, RuleOperator.LESS_EVEN, -0.0)),
+                rule(cond(3, RuleOperator.LESS, 0.0)),
+                rule(cond(3, RuleOperator.MORE, Double.NaN)),
+                rule(cond(4, RuleOperator.LESS, 1.0)),
+                rule());
+        assertIndexMatches(rules, games(-0.0, 0.0, -0.5, 0.5, Double.NaN));
+    }
+
+    private static void assertIndexMatches(List<CompiledRule> rules, double[][] games) {
+        RuleIndex ruleIndex = new RuleIndex(rules);
+        double[][] columns = new double[GameCoefficient.COUNT][games.length];
+        for (int row = 0; row < games.length; row++) {
+            for (int column = 0; column < GameCoefficient.COUNT; column++) {
+                columns[column][row] = games[row][column];
+            }
+        }
+        long[] matched = new long[ruleIndex.words()];
+        for (int row = 0; row < games.length; row++) {
+            ruleIndex.match(columns, row, matched);
+            double[] game = games[row];
+            GameInfo gameInfo = new GameInfo(game[0], game[1], game[2], game[3], game[4]);
+            for (int rule = 0; rule < matched.length * 64; rule++) {
+                boolean expected = rule < rules.size() && rules.get(rule).matches(gameInfo);
+                boolean actual = (matched[rule >>> 6] & 1L << rule) != 0;
+                assertEquals(expected, actual, "rule " + (rule < rules.size() ? rules.get(rule) : rule)
+                        + " on game " + Arrays.toString(game));
+            }
+        }
+    }
+
+    /**
+     * @param values - values of every coefficient of one game each.
+     * @return - games with the value in every column, and with the value in one column and 1.0 in the others.
+     */
+    private static double[][] games(double... values) {
+        List<double[]> games = new ArrayList<>();
+        for (double value : values) {
+            double[] game = new double[GameCoefficient.COUNT];
+            Arrays.fill(game, value);
+            games.add(game);
+            for (int column = 0; column < GameCoefficient.COUNT; column++) {
+                game = new double[GameCoefficient.COUNT];
+                Arrays.fill(game, 1.0);
+                game[column] = value;
+                games.add(game);
+            }
+        }
+        return games.toArray(new double[0][]);
+    }
+
+    private static CompiledRule randomRule(Random random) {
+        int conditions = random.nextInt(5);
+        Object[][] rule = new Object[conditions][];
+        for (int condition = 0; condition < conditions; condition++) {
+            double value = random.nextInt(40) == 0
+                    ? Double.NaN
+                    : RULE_VALUES[random.nextInt(RULE_VALUES.length)];
+            rule[condition] = cond(random.nextInt(GameCoefficient.COUNT),
+                    RuleOperator.values()[random.nextInt(RuleOperator.values().length)], value);
+        }
+        return rule(rule);
+    }
+
+    private static Object[] cond(int column, RuleOperator operator, double value) {
+        return new Object[]{column, operator, value};
+    }
+
+    private static CompiledRule rule(Object[]... conditions) {
+        int[] columns = new int[conditions.length];
+        RuleOperator[] operators = new RuleOperator[conditions.length];
+        double[] values = new double[conditions.length];
+        StringBuilder signature = new StringBuilder();
+        for (int condition = 0; condition < conditions.length; condition++) {
+            columns[condition] = (Integer) conditions[condition][0];
+            operators[condition] = (RuleOperator) conditions[condition][1];
+            values[condition] = (Double) conditions[condition][2];
+            signature.append(GameCoefficient.values()[columns[condition]]).append(operators[condition].SQL)
+                    .append(values[condition]).append(';');
+        }
+        return new CompiledRule(new Rule(), signature.toString(), columns, operators, values);
+    }
+}